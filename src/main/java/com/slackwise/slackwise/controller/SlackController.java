@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,7 +16,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.slack.api.methods.SlackApiException;
 import com.slackwise.slackwise.service.AmazonService;
-import com.slackwise.slackwise.service.ConnectwiseService;
+import com.slackwise.slackwise.service.SlackReplyDispatcher;
 
 
 
@@ -28,7 +29,7 @@ public class SlackController {
     AmazonService amazonService;
 
     @Autowired
-    ConnectwiseService connectwiseService;
+    SlackReplyDispatcher slackReplyDispatcher;
     
     @Value("${company.id}")
     private String tenantId;
@@ -75,7 +76,8 @@ public class SlackController {
                 String threadTs = event.get("thread_ts") != null ? String.valueOf(event.get("thread_ts")) : null;
                 String ts = event.get("ts") != null ? String.valueOf(event.get("ts")) : null;
 
-                String ticketId = amazonService.getTicketIdByThreadTs(tenantId,threadTs != null ? threadTs : ts);
+                // Only a thread reply can belong to a ticket; a ticket's root post is the bot's own and ignored above
+                String ticketId = threadTs != null ? amazonService.getTicketIdByThreadTs(tenantId, threadTs) : null;
                 // Ignore Slack messages created by this app that use the Note-ID/Ticket-ID prefix
                 if (text != null && (text.startsWith("🆔"))) {
                     log.debug("Ignoring app-generated Slack message: {}", text);
@@ -84,17 +86,24 @@ public class SlackController {
                 if (ticketId != null) {
                     log.info("Message in thread for ticketId={} from user={}", ticketId, user);
 
-                    // Process the Slack reply asynchronously to avoid blocking the response to Slack (ACK quikckly)
-                    new Thread(() -> {
-                        try {
-                            connectwiseService.addSlackReplyToTicket(tenantId, ticketId, text, event);
-                        } catch (Exception e) {
-                            log.error("Failed to process Slack reply for ticketId={}", ticketId, e);
-                        }
-                    }).start();
-
+                    // Journal the reply and process it asynchronously to avoid blocking the response to Slack (ACK quickly)
+                    boolean queued;
+                    try {
+                        queued = slackReplyDispatcher.dispatch(tenantId, ticketId, threadTs, text, event);
+                    } catch (IOException e) {
+                        // Not journaled: a non-2xx makes Slack redeliver the event
+                        log.error("Failed to journal Slack reply for ticketId={}", ticketId, e);
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Event journal unavailable");
+                    }
+                    if (!queued) {
+                        // Too many replies in flight: Slack redelivers the event after a non-2xx
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Reply queue full");
+                    }
+
+                } else if (threadTs == null) {
+                    log.debug("Ignoring top-level Slack message ts={}", ts);
                 } else {
-                    log.warn("No ticket found for thread_ts={} or ts={}", threadTs, ts);
+                    log.warn("No ticket found for thread_ts={}", threadTs);
                 }
                 // Return immediately after scheduling async work to ensure Slack receives a quick 200 OK
                 return ResponseEntity.ok("OK");
@@ -20,6 +20,7 @@ import org.springframework.web.server.ResponseStatusException;
 import com.slackwise.slackwise.model.RoutingRule;
 import com.slackwise.slackwise.model.TenantConfig;
 import com.slackwise.slackwise.service.AmazonService;
+import com.slackwise.slackwise.service.TenantConfigCache;
 
 
 
@@ -30,6 +31,9 @@ public class TenantAdminController {
     @Autowired
     private AmazonService amazonService;
 
+    @Autowired
+    private TenantConfigCache tenantConfigs;
+
     @Value("${company.id}")
     private String defaultTenantId;
 
@@ -53,6 +57,8 @@ public class TenantAdminController {
         validateTenantAccess(tenantId);
         config.setTenantId(tenantId);
         amazonService.putTenantConfig(tenantId, config);
+        // Webhooks on this node see the change straight away; other nodes pick it up when their entry expires
+        tenantConfigs.invalidate(tenantId);
         return ResponseEntity.ok(config);
     }
 
@@ -92,6 +98,13 @@ public class TenantAdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/{tenantId}/thread-index/backfill")
+    public ResponseEntity<java.util.Map<String, Integer>> backfillThreadIndex(@PathVariable String tenantId) {
+        validateTenantAccess(tenantId);
+        int written = amazonService.backfillThreadIndex(tenantId);
+        return ResponseEntity.ok(java.util.Map.of("indexed", written));
+    }
+
     private void validateTenantAccess(String tenantId) {
         if (defaultTenantId == null || defaultTenantId.isBlank()) {
             return;
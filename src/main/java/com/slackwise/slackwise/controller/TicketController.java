@@ -43,7 +43,7 @@ public class TicketController {
 
     @GetMapping("/open")
     public ResponseEntity<List<Ticket>> getOpenTickets() throws IOException, InterruptedException {
-        List<Ticket> tickets = connectwiseService.fetchOpenTicketsByCompanyId(tenantId);
+        List<Ticket> tickets = connectwiseService.syncOpenTicketsByCompanyId(tenantId);
         return ResponseEntity.ok(tickets);
     }
 
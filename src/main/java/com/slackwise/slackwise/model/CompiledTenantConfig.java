@@ -0,0 +1,96 @@
+package com.slackwise.slackwise.model;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A tenant's configuration with the settings the webhook path uses already parsed: tracked company IDs as a sorted
+ * int array, exclusion keywords as one case-insensitive pattern, and the auto-assignment delay and event scheduling
+ * share with their defaults applied. Immutable, so one instance is shared by every event until the cache drops it.
+ */
+public class CompiledTenantConfig {
+
+    // Fields
+    private final TenantConfig config;
+    private final int[] trackedCompanyIds;
+    private final Set<String> exclusionKeywords;
+    private final Pattern exclusionPattern;
+    private final int autoAssignmentDelayMinutes;
+    private final int ingestWeight;
+    private final int ingestConcurrency;
+
+    // Constructors
+
+    public CompiledTenantConfig(TenantConfig config, int[] trackedCompanyIds, Set<String> exclusionKeywords,
+            int autoAssignmentDelayMinutes, int ingestWeight, int ingestConcurrency) {
+        this.config = config;
+        this.trackedCompanyIds = trackedCompanyIds.clone();
+        Arrays.sort(this.trackedCompanyIds);
+        this.exclusionKeywords = Set.copyOf(exclusionKeywords);
+        this.exclusionPattern = compile(this.exclusionKeywords);
+        this.autoAssignmentDelayMinutes = autoAssignmentDelayMinutes;
+        this.ingestWeight = ingestWeight;
+        this.ingestConcurrency = ingestConcurrency;
+    }
+
+    // Getters
+
+    // Stored configuration, or null when the tenant has none
+    public TenantConfig getConfig() {
+        return config;
+    }
+
+    public Set<String> getExclusionKeywords() {
+        return exclusionKeywords;
+    }
+
+    public int getAutoAssignmentDelayMinutes() {
+        return autoAssignmentDelayMinutes;
+    }
+
+    // Share of webhook processing relative to other busy tenants
+    public int getIngestWeight() {
+        return ingestWeight;
+    }
+
+    // Most of this tenant's webhook events processed at once; 0 for no limit
+    public int getIngestConcurrency() {
+        return ingestConcurrency;
+    }
+
+    // Whether events for this customer company are processed; non-numeric IDs never match
+    public boolean isTracked(String companyId) {
+        if (companyId == null || companyId.isBlank()) {
+            return false;
+        }
+        try {
+            return Arrays.binarySearch(trackedCompanyIds, Integer.parseInt(companyId.trim())) >= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Whether the text contains any exclusion keyword, ignoring case
+    public boolean matchesExclusionKeyword(String text) {
+        return text != null && exclusionPattern != null && exclusionPattern.matcher(text).find();
+    }
+
+    public String describeTrackedCompanyIds() {
+        return Arrays.toString(trackedCompanyIds);
+    }
+
+    private static Pattern compile(Set<String> keywords) {
+        if (keywords.isEmpty()) {
+            return null;
+        }
+        StringBuilder alternation = new StringBuilder();
+        for (String keyword : keywords) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append(Pattern.quote(keyword));
+        }
+        return Pattern.compile(alternation.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+}
@@ -0,0 +1,63 @@
+package com.slackwise.slackwise.model;
+
+import java.util.List;
+
+/**
+ * Highest ConnectWise note ID and time entry ID already mirrored to a ticket's Slack thread.
+ * Notes and time entries use separate ID sequences, so each keeps its own mark.
+ */
+public class NoteWatermark {
+
+    // Fields
+    private final int noteId;
+    private final int timeEntryId;
+
+    // Constructors
+
+    public NoteWatermark(int noteId, int timeEntryId) {
+        this.noteId = noteId;
+        this.timeEntryId = timeEntryId;
+    }
+
+    // Getters
+
+    public int getNoteId() {
+        return noteId;
+    }
+
+    public int getTimeEntryId() {
+        return timeEntryId;
+    }
+
+    // Returns a watermark moved past every note and time entry in the given lists
+    public NoteWatermark advancedTo(List<Note> notes, List<TimeEntry> timeEntries) {
+        int maxNoteId = noteId;
+        if (notes != null) {
+            for (Note note : notes) {
+                maxNoteId = Math.max(maxNoteId, note.getId());
+            }
+        }
+
+        int maxTimeEntryId = timeEntryId;
+        if (timeEntries != null) {
+            for (TimeEntry timeEntry : timeEntries) {
+                maxTimeEntryId = Math.max(maxTimeEntryId, timeEntry.getTimeEntryId());
+            }
+        }
+
+        return new NoteWatermark(maxNoteId, maxTimeEntryId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NoteWatermark)) return false;
+        NoteWatermark other = (NoteWatermark) o;
+        return noteId == other.noteId && timeEntryId == other.timeEntryId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * noteId + timeEntryId;
+    }
+}
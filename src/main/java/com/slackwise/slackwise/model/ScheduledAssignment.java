@@ -0,0 +1,53 @@
+package com.slackwise.slackwise.model;
+
+/**
+ * A pending auto-assignment check for a new ticket, run once its delay has passed.
+ * Persisted so it survives restarts. Exclusion keywords are read from the tenant's configuration when the check runs.
+ */
+public class ScheduledAssignment {
+
+    // Fields
+    private final String tenantId;
+    private final int ticketId;
+    private final String companyId;
+    private final String ruleAssigneeIdentifier;
+    private final long dueAtMillis;
+
+    // Constructors
+
+    public ScheduledAssignment(String tenantId, int ticketId, String companyId, String ruleAssigneeIdentifier,
+            long dueAtMillis) {
+        this.tenantId = tenantId;
+        this.ticketId = ticketId;
+        this.companyId = companyId;
+        this.ruleAssigneeIdentifier = ruleAssigneeIdentifier;
+        this.dueAtMillis = dueAtMillis;
+    }
+
+    // Getters
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public int getTicketId() {
+        return ticketId;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public String getRuleAssigneeIdentifier() {
+        return ruleAssigneeIdentifier;
+    }
+
+    public long getDueAtMillis() {
+        return dueAtMillis;
+    }
+
+    // One pending assignment per tenant and ticket
+    public String getKey() {
+        return tenantId + "#" + ticketId;
+    }
+}
@@ -14,6 +14,9 @@ public class TenantConfig {
     private String assignmentExclusionKeywords;
     private String trackedCompanyIds;
     private String themeMode;
+    private Integer enrichmentConcurrency;
+    private Integer ingestWeight;
+    private Integer ingestConcurrency;
 
     public String getTenantId() {
         return tenantId;
@@ -118,4 +121,28 @@ public class TenantConfig {
     public void setThemeMode(String themeMode) {
         this.themeMode = themeMode;
     }
+
+    public Integer getEnrichmentConcurrency() {
+        return enrichmentConcurrency;
+    }
+
+    public void setEnrichmentConcurrency(Integer enrichmentConcurrency) {
+        this.enrichmentConcurrency = enrichmentConcurrency;
+    }
+
+    public Integer getIngestWeight() {
+        return ingestWeight;
+    }
+
+    public void setIngestWeight(Integer ingestWeight) {
+        this.ingestWeight = ingestWeight;
+    }
+
+    public Integer getIngestConcurrency() {
+        return ingestConcurrency;
+    }
+
+    public void setIngestConcurrency(Integer ingestConcurrency) {
+        this.ingestConcurrency = ingestConcurrency;
+    }
 }
@@ -1,6 +1,7 @@
 package com.slackwise.slackwise.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +38,9 @@ public class Ticket {
     private List<Note> notes = new ArrayList<>();
     private List<Note> discussion = new ArrayList<>();
 
+    @JsonProperty("_info")
+    private Info info;
+
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     private static class Board {
@@ -281,6 +285,14 @@ public class Ticket {
         this.team = team;
     }
 
+    public Info getInfo() {
+        return info;
+    }
+
+    public void setInfo(Info info) {
+        this.info = info;
+    }
+
     public void setDiscussion(List<Note> discussion) {
         this.discussion = discussion;
     }
@@ -292,6 +304,11 @@ public class Ticket {
     
     // Returns all notes from the ticket and time entries, sorted by date.
     public List<Note> getDiscussion() {
+        return buildDiscussion(notes, timeEntries);
+    }
+
+    // Merges notes and time entries (as Note objects) into one list sorted by date.
+    public static List<Note> buildDiscussion(List<Note> notes, List<TimeEntry> timeEntries) {
         List<Note> allNotes = new ArrayList<>();
 
         // Add existing notes
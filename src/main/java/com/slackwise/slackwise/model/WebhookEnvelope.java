@@ -0,0 +1,102 @@
+package com.slackwise.slackwise.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.slackwise.slackwise.util.JsonCodec;
+
+/**
+ * The fields of a ConnectWise callback body that routing needs, decoded up front, plus the raw bytes of
+ * {@code Entity} for anything else. The entity is only parsed if {@link #getEntity()} or {@link #readEntity} is called.
+ */
+public class WebhookEnvelope {
+
+    // Fields
+    private final byte[] body;
+    private final String id;
+    private final String action;
+    private final String companyId;
+    private final String entityCompanyId;
+    private final String entityLastUpdated;
+
+    // Entity JSON: a slice of the body, or its own buffer when ConnectWise sent it as a string
+    private final byte[] entityBuffer;
+    private final int entityOffset;
+    private final int entityLength;
+    private volatile Map<String, Object> entity;
+
+    // Constructors
+
+    public WebhookEnvelope(byte[] body, String id, String action, String companyId, String entityCompanyId,
+            String entityLastUpdated, byte[] entityBuffer, int entityOffset, int entityLength) {
+        this.body = body;
+        this.id = id;
+        this.action = action;
+        this.companyId = companyId;
+        this.entityCompanyId = entityCompanyId;
+        this.entityLastUpdated = entityLastUpdated;
+        this.entityBuffer = entityBuffer;
+        this.entityOffset = entityOffset;
+        this.entityLength = entityLength;
+    }
+
+    // Getters
+
+    // The body exactly as received, for journaling and replay
+    public byte[] getBody() {
+        return body;
+    }
+
+    // Ticket ID as sent ("ID")
+    public String getId() {
+        return id;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    // ConnectWise company identifier of the tenant ("CompanyId")
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    // Customer company the ticket belongs to ("Entity.company.id")
+    public String getEntityCompanyId() {
+        return entityCompanyId;
+    }
+
+    // Revision of the ticket the callback describes ("Entity._info.lastUpdated")
+    public String getEntityLastUpdated() {
+        return entityLastUpdated;
+    }
+
+    // False when Entity was missing or null, e.g. for deleted records
+    public boolean hasEntity() {
+        return entityBuffer != null;
+    }
+
+    public String getEntityJson() {
+        return hasEntity() ? new String(entityBuffer, entityOffset, entityLength, StandardCharsets.UTF_8) : null;
+    }
+
+    // Decodes the entity straight into a typed object, e.g. a Ticket
+    public <T> T readEntity(ObjectReader reader) throws IOException {
+        return hasEntity() ? reader.readValue(entityBuffer, entityOffset, entityLength) : null;
+    }
+
+    // Parses the entity on first use
+    public Map<String, Object> getEntity() throws IOException {
+        if (!hasEntity()) {
+            return null;
+        }
+        Map<String, Object> parsed = entity;
+        if (parsed == null) {
+            parsed = JsonCodec.MAP.readValue(entityBuffer, entityOffset, entityLength);
+            entity = parsed;
+        }
+        return parsed;
+    }
+}
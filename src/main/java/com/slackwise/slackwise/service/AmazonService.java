@@ -1,36 +1,53 @@
 package com.slackwise.slackwise.service;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.slack.api.Slack;
 import com.slack.api.methods.SlackApiException;
-import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slackwise.slackwise.model.NoteWatermark;
 import com.slackwise.slackwise.model.RoutingRule;
+import com.slackwise.slackwise.model.ScheduledAssignment;
 import com.slackwise.slackwise.model.TenantConfig;
+import com.slackwise.slackwise.util.BidirectionalLruCache;
 
 import jakarta.annotation.PostConstruct;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 @Service
-public class AmazonService {
+public class AmazonService implements MetricsSource {
     private static final Logger log = LoggerFactory.getLogger(AmazonService.class);
 
     private static final String SK_CONFIG = "CONFIG";
     private static final String SK_PREFIX_RULE = "RULE#";
     private static final String SK_PREFIX_TICKET = "TICKET#";
+    // Reverse index from a Slack thread to its ticket, written next to the ticket item
+    private static final String SK_PREFIX_THREAD = "THREAD#";
+    private static final int BATCH_WRITE_LIMIT = 25;
+    // Scheduler items live under their own partition so one Query finds all of them on startup
+    private static final String PK_SCHEDULER = "SCHEDULER";
+    private static final String SK_PREFIX_ASSIGN = "ASSIGN#";
 
     // AWS configuration properties
     @Value("${aws.region}")
@@ -56,26 +73,95 @@ public class AmazonService {
     @Value("${slack.channel.id}")
     private String slackChannelId;
 
-    private final Slack slack = Slack.getInstance();
+    // Per-attempt and overall call timeouts for DynamoDB requests, SDK retries included
+    @Value("${aws.dynamodb.timeout.attempt-ms:2000}")
+    private long dynamoAttemptTimeoutMillis;
+
+    @Value("${aws.dynamodb.timeout.call-ms:6000}")
+    private long dynamoCallTimeoutMillis;
+
+    // Most notes appended to a ticket's ledger in one UpdateItem
+    @Value("${aws.dynamodb.ledger-chunk-size:100}")
+    private int ledgerChunkSize;
+
+    // Optional endpoint override, e.g. DynamoDB Local at http://localhost:8000
+    @Value("${aws.dynamodb.endpoint:}")
+    private String dynamoEndpoint;
+
+    // Thread/ticket pairs kept in memory, and whether a lookup missing the index falls back to querying ticket items
+    @Value("${aws.dynamodb.thread-index.cache-size:10000}")
+    private int threadIndexCacheSize;
+
+    @Value("${aws.dynamodb.thread-index.query-fallback:true}")
+    private boolean threadIndexQueryFallback;
+
+    // How long a thread with no ticket is remembered as such; 0 disables negative caching
+    @Value("${aws.dynamodb.thread-index.miss-ttl-ms:60000}")
+    private long threadIndexMissTtlMillis;
+
+    @Autowired
+    private ResilienceService resilience;
+
+    @Autowired
+    private SlackGateway slackGateway;
+
+    private BidirectionalLruCache<String, String> threadTickets;
+
+    // tenantId#threadTs looked up recently without finding a ticket, with when it was looked up; guarded by itself
+    private final LinkedHashMap<String, Long> threadMisses = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > Math.max(1, threadIndexCacheSize);
+        }
+    };
+
+    // Tenants whose ticket items were indexed by backfillThreadIndex on this node, so the query fallback is skipped
+    private final Set<String> backfilledTenants = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong threadIndexHits = new AtomicLong();
+    private final AtomicLong threadIndexMisses = new AtomicLong();
+    private final AtomicLong threadIndexFallbackQueries = new AtomicLong();
+    private final AtomicLong threadIndexFallbackHits = new AtomicLong();
+    private final AtomicLong threadIndexWrites = new AtomicLong();
+    private final AtomicLong threadIndexWriteFailures = new AtomicLong();
+    private final AtomicLong threadIndexBackfilled = new AtomicLong();
+    private final AtomicLong threadIndexCachedMisses = new AtomicLong();
 
     private static String ticketSk(String ticketId) {
         return SK_PREFIX_TICKET + ticketId;
     }
 
+    private static String threadSk(String threadTs) {
+        return SK_PREFIX_THREAD + threadTs;
+    }
+
     private static String ruleSk(int priority, String ruleId) {
         return String.format("RULE#%04d#%s", priority, ruleId);
     }
 
+    private static String assignmentSk(String tenantId, int ticketId) {
+        return SK_PREFIX_ASSIGN + tenantId + "#" + ticketId;
+    }
+
     // Initialize DynamoDB client
     @PostConstruct
     public void init() {
-        dynamoDb = DynamoDbClient.builder()
+        threadTickets = new BidirectionalLruCache<>(threadIndexCacheSize);
+        DynamoDbClientBuilder builder = DynamoDbClient.builder();
+        if (dynamoEndpoint != null && !dynamoEndpoint.isBlank()) {
+            builder.endpointOverride(URI.create(dynamoEndpoint));
+        }
+        dynamoDb = builder
             .region(Region.of(awsRegion))
             .credentialsProvider(
                 StaticCredentialsProvider.create(
                     AwsBasicCredentials.create(awsAccessKeyId, awsSecretAccessKey)
                 )
             )
+            .overrideConfiguration(ClientOverrideConfiguration.builder()
+                .apiCallAttemptTimeout(Duration.ofMillis(dynamoAttemptTimeoutMillis))
+                .apiCallTimeout(Duration.ofMillis(dynamoCallTimeoutMillis))
+                .build())
             .build();
     } 
 
@@ -92,16 +178,14 @@ public class AmazonService {
         if (ticketId == null || ticketId.isBlank()) throw new IllegalArgumentException("ticketId is null/blank");
         String ticketIdStr = String.valueOf(ticketId);
         
-        // Prepare Map to put ticketId and thread ts and link them together
-        Map<String, AttributeValue> item = new java.util.HashMap<>();
-        item.put("tenantId", AttributeValue.builder().s(tenantId).build());
-        item.put("sk", AttributeValue.builder().s(ticketSk(ticketIdStr)).build());
-        item.put("itemType", AttributeValue.builder().s("TICKET").build());
-        item.put("ticketId", AttributeValue.builder().s(ticketIdStr).build());
-        item.put("ts_thread", AttributeValue.builder().s(tsThread).build());
-
-        // Always include notes in Map, even if empty
-        item.put("notes", AttributeValue.builder().l(
+        // Prepare values to put ticketId and thread ts and link them together
+        Map<String, AttributeValue> values = new java.util.HashMap<>();
+        values.put(":itemType", AttributeValue.builder().s("TICKET").build());
+        values.put(":ticketId", AttributeValue.builder().s(ticketIdStr).build());
+        values.put(":ts", AttributeValue.builder().s(tsThread).build());
+
+        // Always include notes, even if empty
+        values.put(":notes", AttributeValue.builder().l(
             notes == null ? List.of() :
             notes.stream()
                 .map(note -> AttributeValue.builder().m(Map.of(
@@ -111,11 +195,15 @@ public class AmazonService {
                 .collect(java.util.stream.Collectors.toList())
         ).build());
 
-        // Put Map item into DynamoDB
-        dynamoDb.putItem(PutItemRequest.builder()
+        // Update rather than put so attributes not managed here (note watermarks) are preserved
+        resilience.dynamo(() -> dynamoDb.updateItem(UpdateItemRequest.builder()
             .tableName(tableName)
-            .item(item)
-            .build());
+            .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
+                        "sk", AttributeValue.builder().s(ticketSk(ticketIdStr)).build()))
+            .updateExpression("SET itemType = :itemType, ticketId = :ticketId, ts_thread = :ts, notes = :notes")
+            .expressionAttributeValues(values)
+            .build()));
+        indexThread(tenantId, ticketIdStr, tsThread);
     }
 
     /**
@@ -125,11 +213,11 @@ public class AmazonService {
      * @return Map of ticket attributes, or EMPTY map if not found
      */
     public Map<String, AttributeValue> getTicket(String tenantId, String ticketId) {
-        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+        GetItemResponse response = resilience.dynamo(() -> dynamoDb.getItem(GetItemRequest.builder()
             .tableName(tableName)
             .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
                         "sk", AttributeValue.builder().s(ticketSk(ticketId)).build()))
-            .build());
+            .build()));
         // Return the item map directly; it will be EMPTY if the item does not exist
         return response.item();
     }
@@ -143,34 +231,93 @@ public class AmazonService {
      */
     public void addNoteToTicket(String tenantId, String ticketId, String noteId, String ts) 
     {
-        // Get existing ticket info from DynamoDB
-        Map<String, AttributeValue> ticket = getTicket(tenantId, ticketId);
-
-        // Populate notes list; if ticket does not exist, notes will be empty
-        List<AttributeValue> notes = ticket.containsKey("notes") ? ticket.get("notes").l() : List.of();
-
-        // Add the new note to the list
-        List<AttributeValue> updatedNotes = notes.stream().collect(Collectors.toList());
-        updatedNotes.add(AttributeValue.builder().m(Map.of(
-            "noteId", AttributeValue.builder().s(noteId).build(),
-            "ts", AttributeValue.builder().s(ts).build()
-        )).build());
-
-        // Get existing thread_ts; if ticket does not exist, it will be empty
-        String tsThread = ticket.containsKey("ts_thread") ? ticket.get("ts_thread").s() : "";
-
-        // Put updated notes list back into DynamoDB
-        putTicketWithNotes(tenantId, ticketId,
-            updatedNotes.stream()
-                .map(av -> Map.of(
-                    "noteId", av.m().get("noteId").s(),
-                    "ts", av.m().get("ts").s()
+        appendNotesToTicket(tenantId, ticketId, List.of(Map.of("noteId", noteId, "ts", ts)));
+    }
+
+    /**
+     * Append posted notes to a ticket's ledger with list_append, so nothing is read first and concurrent appends
+     * are not lost. Large batches are split into updates of aws.dynamodb.ledger-chunk-size notes. Creates the
+     * ticket item, with an empty ts_thread, if it does not exist yet.
+     * 
+     * @param ticketId
+     * @param notes noteId and Slack ts of each posted note, in posting order
+     */
+    public void appendNotesToTicket(String tenantId, String ticketId, List<Map<String, String>> notes) {
+        if (ticketId == null || ticketId.isBlank()) throw new IllegalArgumentException("ticketId is null/blank");
+        if (notes == null || notes.isEmpty()) {
+            return;
+        }
+
+        int chunkSize = Math.max(1, ledgerChunkSize);
+        for (int from = 0; from < notes.size(); from += chunkSize) {
+            List<AttributeValue> chunk = notes.subList(from, Math.min(notes.size(), from + chunkSize)).stream()
+                .map(note -> AttributeValue.builder().m(Map.of(
+                    "noteId", AttributeValue.builder().s(String.valueOf(note.get("noteId"))).build(),
+                    "ts",     AttributeValue.builder().s(note.get("ts")).build()
+                )).build())
+                .collect(Collectors.toList());
+
+            resilience.dynamo(() -> dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
+                            "sk", AttributeValue.builder().s(ticketSk(ticketId)).build()))
+                .updateExpression("SET itemType = :itemType, ticketId = :ticketId, ts_thread = if_not_exists(ts_thread, :noThread),"
+                    + " notes = list_append(if_not_exists(notes, :empty), :notes)")
+                .expressionAttributeValues(Map.of(
+                    ":itemType", AttributeValue.builder().s("TICKET").build(),
+                    ":ticketId", AttributeValue.builder().s(ticketId).build(),
+                    ":noThread", AttributeValue.builder().s("").build(),
+                    ":empty", AttributeValue.builder().l(List.of()).build(),
+                    ":notes", AttributeValue.builder().l(chunk).build()
                 ))
-                .collect(Collectors.toList()),
-            tsThread
+                .build()));
+        }
+    }
+
+    /**
+     * Read the note watermark from a ticket item loaded with {@link #getTicket(String, String)}.
+     * 
+     * @param ticket ticket item
+     * @return watermark, or null if the ticket has no ledger or was recorded before watermarks existed
+     */
+    public NoteWatermark getNoteWatermark(Map<String, AttributeValue> ticket) {
+        if (ticket == null || !ticket.containsKey("noteWatermark") || !ticket.containsKey("timeEntryWatermark")) {
+            return null;
+        }
+        return new NoteWatermark(
+            Integer.parseInt(ticket.get("noteWatermark").n()),
+            Integer.parseInt(ticket.get("timeEntryWatermark").n())
         );
     }
 
+    /**
+     * Move a ticket's note watermark forward. Never moves it backwards if another writer got further.
+     * 
+     * @param ticketId
+     * @param watermark highest note and time entry IDs now mirrored to Slack
+     */
+    public void advanceNoteWatermark(String tenantId, String ticketId, NoteWatermark watermark) {
+        try {
+            resilience.dynamo(() -> dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
+                            "sk", AttributeValue.builder().s(ticketSk(ticketId)).build()))
+                .updateExpression("SET noteWatermark = :note, timeEntryWatermark = :time")
+                .conditionExpression("attribute_exists(sk)"
+                    + " AND (attribute_not_exists(noteWatermark) OR noteWatermark <= :note)"
+                    + " AND (attribute_not_exists(timeEntryWatermark) OR timeEntryWatermark <= :time)")
+                .expressionAttributeValues(Map.of(
+                    ":note", AttributeValue.builder().n(String.valueOf(watermark.getNoteId())).build(),
+                    ":time", AttributeValue.builder().n(String.valueOf(watermark.getTimeEntryId())).build()
+                ))
+                .build()));
+
+        // If condition fails, a newer watermark is already stored (or the ticket item is gone)
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Skipped note watermark update for ticketId={}", ticketId);
+        }
+    }
+
     /**
      * Update ts_thread for a ticket
      * 
@@ -215,11 +362,11 @@ public class AmazonService {
             item.put("notes", AttributeValue.builder().l(java.util.List.of()).build());
 
             // Put item with condition that sk must not already exist
-            dynamoDb.putItem(PutItemRequest.builder()
+            resilience.dynamo(() -> dynamoDb.putItem(PutItemRequest.builder()
                 .tableName(tableName)
                 .item(item)
                 .conditionExpression("attribute_not_exists(sk)") // Only put if sk does not exist
-                .build());
+                .build()));
 
             log.info("Created DynamoDB ticket item ticketId={} ts_thread={}", item.get("ticketId").s(), item.get("ts_thread").s());
             return true;
@@ -253,7 +400,8 @@ public class AmazonService {
                 ))
                 .build();
 
-            dynamoDb.updateItem(req);
+            resilience.dynamo(() -> dynamoDb.updateItem(req));
+            indexThread(tenantId, ticketId, tsThread);
             return true;
 
          // If condition fails (ts_thread already set), return false
@@ -263,7 +411,10 @@ public class AmazonService {
     }
 
     /**
-     * Get ticketId by looking up the item with matching ts_thread. Returns null if ticketId is not found or tenant is not set.
+     * Get ticketId for a Slack thread: from the in-memory cache, then the THREAD# index item, then (unless
+     * aws.dynamodb.thread-index.query-fallback is turned off or the tenant has been backfilled here) the tenant's
+     * ticket items, so threads created before the index existed keep working. A thread with no ticket is remembered for aws.dynamodb.thread-index.miss-ttl-ms, so repeated messages in it
+     * cost no DynamoDB call. Returns null if ticketId is not found or tenant is not set.
      * 
      * @param threadTs
      * @return ticketId or null if not found
@@ -274,41 +425,243 @@ public class AmazonService {
         
         if (tenantId == null) {
             
-            ChatPostMessageResponse response = slack.methods(slackBotToken).chatPostMessage(req -> req
+            // Report it in Slack without waiting for the post
+            slackGateway.chatPostMessage(slackBotToken, req -> req
                 .channel(slackChannelId)
                 .text("ERR0R: Tenant not set when trying to getTicketIdByThreadTs for threadTs: " + threadTs)
                 .mrkdwn(true)
-            );
+            ).exceptionally(error -> {
+                log.warn("Failed to report missing tenant in Slack", error);
+                return null;
+            });
                    
             return null;
         }
         
-        ScanRequest scanRequest = ScanRequest.builder()
+        String threadKey = tenantId + "#" + threadTs;
+        String cached = threadTickets.getValue(threadKey);
+        if (cached != null) {
+            return cached.substring(tenantId.length() + 1);
+        }
+        if (isCachedMiss(threadKey)) {
+            threadIndexCachedMisses.incrementAndGet();
+            return null;
+        }
+
+        GetItemResponse indexed = resilience.dynamo(() -> dynamoDb.getItem(GetItemRequest.builder()
             .tableName(tableName)
-            .filterExpression("tenantId = :tenant AND begins_with(sk, :ticketPrefix) AND ts_thread = :ts")
-            .expressionAttributeValues(Map.of(
-                ":tenant", AttributeValue.builder().s(tenantId).build(),
-                ":ticketPrefix", AttributeValue.builder().s(SK_PREFIX_TICKET).build(),
-                ":ts", AttributeValue.builder().s(threadTs).build()
-            ))
-            .build();
+            .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
+                        "sk", AttributeValue.builder().s(threadSk(threadTs)).build()))
+            .build()));
+        if (indexed.hasItem() && indexed.item().containsKey("ticketId")) {
+            threadIndexHits.incrementAndGet();
+            String ticketId = indexed.item().get("ticketId").s();
+            threadTickets.put(tenantId + "#" + threadTs, tenantId + "#" + ticketId);
+            return ticketId;
+        }
+        threadIndexMisses.incrementAndGet();
+        if (!threadIndexQueryFallback || backfilledTenants.contains(tenantId)) {
+            cacheMiss(threadKey);
+            return null;
+        }
+
+        // Threads created before the index existed: search this tenant's ticket items, then index the match
+        threadIndexFallbackQueries.incrementAndGet();
+        String ticketId = queryTicketIdByThreadTs(tenantId, threadTs);
+        if (ticketId != null) {
+            threadIndexFallbackHits.incrementAndGet();
+            indexThread(tenantId, ticketId, threadTs);
+        } else {
+            cacheMiss(threadKey);
+        }
+        return ticketId;
+    }
+
+    private boolean isCachedMiss(String threadKey) {
+        synchronized (threadMisses) {
+            Long missedAt = threadMisses.get(threadKey);
+            if (missedAt == null) {
+                return false;
+            }
+            if (System.currentTimeMillis() - missedAt >= threadIndexMissTtlMillis) {
+                threadMisses.remove(threadKey);
+                return false;
+            }
+            return true;
+        }
+    }
 
-        ScanResponse response = dynamoDb.scan(scanRequest);
-        if (!response.items().isEmpty()) {
-            Map<String, AttributeValue> item = response.items().get(0);
-            if (item.containsKey("ticketId")) {
-                return item.get("ticketId").s();
+    private void cacheMiss(String threadKey) {
+        if (threadIndexMissTtlMillis <= 0) {
+            return;
+        }
+        synchronized (threadMisses) {
+            threadMisses.put(threadKey, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Pages through the tenant's ticket items for the one whose ts_thread matches.
+     */
+    private String queryTicketIdByThreadTs(String tenantId, String threadTs) {
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder req = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("tenantId = :tenant AND begins_with(sk, :ticketPrefix)")
+                .filterExpression("ts_thread = :ts")
+                .expressionAttributeValues(Map.of(
+                    ":tenant", AttributeValue.builder().s(tenantId).build(),
+                    ":ticketPrefix", AttributeValue.builder().s(SK_PREFIX_TICKET).build(),
+                    ":ts", AttributeValue.builder().s(threadTs).build()
+                ));
+            if (startKey != null) {
+                req.exclusiveStartKey(startKey);
             }
-            if (item.containsKey("sk")) {
-                String sk = item.get("sk").s();
-                if (sk != null && sk.startsWith(SK_PREFIX_TICKET)) {
-                    return sk.substring(SK_PREFIX_TICKET.length());
+            QueryRequest request = req.build();
+            QueryResponse response = resilience.dynamo(() -> dynamoDb.query(request));
+            for (Map<String, AttributeValue> item : response.items()) {
+                String ticketId = ticketIdOf(item);
+                if (ticketId != null) {
+                    return ticketId;
                 }
             }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        return null;
+    }
+
+    private static String ticketIdOf(Map<String, AttributeValue> item) {
+        if (item.containsKey("ticketId")) {
+            return item.get("ticketId").s();
+        }
+        if (item.containsKey("sk")) {
+            String sk = item.get("sk").s();
+            if (sk != null && sk.startsWith(SK_PREFIX_TICKET)) {
+                return sk.substring(SK_PREFIX_TICKET.length());
+            }
         }
         return null;
     }
 
+    private static Map<String, AttributeValue> threadIndexItem(String tenantId, String ticketId, String threadTs) {
+        Map<String, AttributeValue> item = new java.util.HashMap<>();
+        item.put("tenantId", AttributeValue.builder().s(tenantId).build());
+        item.put("sk", AttributeValue.builder().s(threadSk(threadTs)).build());
+        item.put("itemType", AttributeValue.builder().s("THREAD").build());
+        item.put("ticketId", AttributeValue.builder().s(ticketId).build());
+        return item;
+    }
+
+    /**
+     * Writes the THREAD# item pointing a Slack thread at its ticket, unless this pair was already written or read here.
+     * A failed write is only logged: the ticket item is already saved and the lookup fallback still finds it.
+     */
+    private void indexThread(String tenantId, String ticketId, String threadTs) {
+        if (threadTs == null || threadTs.isBlank()) {
+            return;
+        }
+        String threadKey = tenantId + "#" + threadTs;
+        String ticketKey = tenantId + "#" + ticketId;
+        synchronized (threadMisses) {
+            // The thread has a ticket now, so an earlier miss no longer holds
+            threadMisses.remove(threadKey);
+        }
+        if (threadTickets.contains(threadKey, ticketKey)) {
+            return;
+        }
+        try {
+            resilience.dynamo(() -> dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(threadIndexItem(tenantId, ticketId, threadTs))
+                .build()));
+            threadIndexWrites.incrementAndGet();
+            threadTickets.put(threadKey, ticketKey);
+        } catch (RuntimeException e) {
+            threadIndexWriteFailures.incrementAndGet();
+            log.warn("Failed to index thread_ts={} for ticketId={}", threadTs, ticketId, e);
+        }
+    }
+
+    /**
+     * Writes THREAD# index items for every ticket of the tenant that has a Slack thread, following pagination.
+     * Safe to run again; existing index items are overwritten with the same values.
+     *
+     * @return number of index items written
+     */
+    public int backfillThreadIndex(String tenantId) {
+        int written = 0;
+        List<WriteRequest> batch = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder req = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("tenantId = :tenant AND begins_with(sk, :ticketPrefix)")
+                .projectionExpression("sk, ticketId, ts_thread")
+                .expressionAttributeValues(Map.of(
+                    ":tenant", AttributeValue.builder().s(tenantId).build(),
+                    ":ticketPrefix", AttributeValue.builder().s(SK_PREFIX_TICKET).build()
+                ));
+            if (startKey != null) {
+                req.exclusiveStartKey(startKey);
+            }
+            QueryRequest request = req.build();
+            QueryResponse response = resilience.dynamo(() -> dynamoDb.query(request));
+            for (Map<String, AttributeValue> item : response.items()) {
+                String ticketId = ticketIdOf(item);
+                String threadTs = item.containsKey("ts_thread") ? item.get("ts_thread").s() : null;
+                if (ticketId == null || threadTs == null || threadTs.isBlank()) {
+                    continue;
+                }
+                batch.add(WriteRequest.builder()
+                    .putRequest(PutRequest.builder().item(threadIndexItem(tenantId, ticketId, threadTs)).build())
+                    .build());
+                if (batch.size() == BATCH_WRITE_LIMIT) {
+                    written += writeBatch(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        if (!batch.isEmpty()) {
+            written += writeBatch(batch);
+        }
+        threadIndexBackfilled.addAndGet(written);
+        // Every ticket of the tenant is indexed now, so a lookup missing the index has no ticket to find
+        backfilledTenants.add(tenantId);
+        synchronized (threadMisses) {
+            threadMisses.clear();
+        }
+        log.info("Backfilled {} thread index items for tenantId={}", written, tenantId);
+        return written;
+    }
+
+    /**
+     * Writes up to 25 items, resending whatever DynamoDB reports as unprocessed.
+     */
+    private int writeBatch(List<WriteRequest> requests) {
+        List<WriteRequest> pending = requests;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(Math.min(1_000L, 50L << attempt));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while backfilling thread index", e);
+                }
+            }
+            List<WriteRequest> toWrite = pending;
+            BatchWriteItemResponse response = resilience.dynamo(() -> dynamoDb.batchWriteItem(BatchWriteItemRequest.builder()
+                .requestItems(Map.of(tableName, toWrite))
+                .build()));
+            pending = response.hasUnprocessedItems() ? response.unprocessedItems().getOrDefault(tableName, List.of()) : List.of();
+            if (attempt >= 5 && !pending.isEmpty()) {
+                throw new IllegalStateException(pending.size() + " thread index items still unprocessed after " + (attempt + 1) + " attempts");
+            }
+        }
+        return requests.size();
+    }
+
     public void putTenantConfig(String tenantId, TenantConfig config) {
         if (tenantId == null || tenantId.isBlank()) throw new IllegalArgumentException("tenantId is null/blank");
         if (config == null) throw new IllegalArgumentException("config is null");
@@ -338,19 +691,28 @@ public class AmazonService {
         if (config.getThemeMode() != null) {
             item.put("themeMode", AttributeValue.builder().s(config.getThemeMode()).build());
         }
+        if (config.getEnrichmentConcurrency() != null) {
+            item.put("enrichmentConcurrency", AttributeValue.builder().n(String.valueOf(config.getEnrichmentConcurrency())).build());
+        }
+        if (config.getIngestWeight() != null) {
+            item.put("ingestWeight", AttributeValue.builder().n(String.valueOf(config.getIngestWeight())).build());
+        }
+        if (config.getIngestConcurrency() != null) {
+            item.put("ingestConcurrency", AttributeValue.builder().n(String.valueOf(config.getIngestConcurrency())).build());
+        }
 
-        dynamoDb.putItem(PutItemRequest.builder()
+        resilience.dynamo(() -> dynamoDb.putItem(PutItemRequest.builder()
             .tableName(tableName)
             .item(item)
-            .build());
+            .build()));
     }
 
     public TenantConfig getTenantConfig(String tenantId) {
-        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+        GetItemResponse response = resilience.dynamo(() -> dynamoDb.getItem(GetItemRequest.builder()
             .tableName(tableName)
             .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
                         "sk", AttributeValue.builder().s(SK_CONFIG).build()))
-            .build());
+            .build()));
 
         Map<String, AttributeValue> item = response.item();
         if (item == null || item.isEmpty()) return null;
@@ -377,6 +739,15 @@ public class AmazonService {
         if (item.containsKey("themeMode")) {
             config.setThemeMode(item.get("themeMode").s());
         }
+        if (item.containsKey("enrichmentConcurrency")) {
+            config.setEnrichmentConcurrency(Integer.valueOf(item.get("enrichmentConcurrency").n()));
+        }
+        if (item.containsKey("ingestWeight")) {
+            config.setIngestWeight(Integer.valueOf(item.get("ingestWeight").n()));
+        }
+        if (item.containsKey("ingestConcurrency")) {
+            config.setIngestConcurrency(Integer.valueOf(item.get("ingestConcurrency").n()));
+        }
         return config;
     }
 
@@ -410,10 +781,10 @@ public class AmazonService {
         if (rule.getSecondaryValue() != null) item.put("secondaryValue", AttributeValue.builder().s(rule.getSecondaryValue()).build());
         if (rule.getJoinOperator() != null) item.put("joinOperator", AttributeValue.builder().s(rule.getJoinOperator()).build());
 
-        dynamoDb.putItem(PutItemRequest.builder()
+        resilience.dynamo(() -> dynamoDb.putItem(PutItemRequest.builder()
             .tableName(tableName)
             .item(item)
-            .build());
+            .build()));
 
         return rule;
     }
@@ -428,7 +799,7 @@ public class AmazonService {
             ))
             .build();
 
-        QueryResponse response = dynamoDb.query(req);
+        QueryResponse response = resilience.dynamo(() -> dynamoDb.query(req));
         List<RoutingRule> rules = new java.util.ArrayList<>();
         for (Map<String, AttributeValue> item : response.items()) {
             RoutingRule rule = new RoutingRule();
@@ -457,11 +828,95 @@ public class AmazonService {
         if (tenantId == null || tenantId.isBlank()) throw new IllegalArgumentException("tenantId is null/blank");
         if (ruleId == null || ruleId.isBlank()) throw new IllegalArgumentException("ruleId is null/blank");
 
-        dynamoDb.deleteItem(DeleteItemRequest.builder()
+        resilience.dynamo(() -> dynamoDb.deleteItem(DeleteItemRequest.builder()
             .tableName(tableName)
             .key(Map.of("tenantId", AttributeValue.builder().s(tenantId).build(),
                         "sk", AttributeValue.builder().s(ruleSk(priority, ruleId)).build()))
-            .build());
+            .build()));
+    }
+
+    /**
+     * Stores a pending auto-assignment, replacing any earlier one for the same ticket.
+     */
+    public void putScheduledAssignment(ScheduledAssignment assignment) {
+        Map<String, AttributeValue> item = new java.util.HashMap<>();
+        item.put("tenantId", AttributeValue.builder().s(PK_SCHEDULER).build());
+        item.put("sk", AttributeValue.builder().s(assignmentSk(assignment.getTenantId(), assignment.getTicketId())).build());
+        item.put("itemType", AttributeValue.builder().s("ASSIGNMENT").build());
+        item.put("assignmentTenantId", AttributeValue.builder().s(assignment.getTenantId()).build());
+        item.put("ticketId", AttributeValue.builder().n(String.valueOf(assignment.getTicketId())).build());
+        item.put("dueAt", AttributeValue.builder().n(String.valueOf(assignment.getDueAtMillis())).build());
+        if (assignment.getCompanyId() != null) item.put("companyId", AttributeValue.builder().s(assignment.getCompanyId()).build());
+        if (assignment.getRuleAssigneeIdentifier() != null) item.put("ruleAssigneeIdentifier", AttributeValue.builder().s(assignment.getRuleAssigneeIdentifier()).build());
+
+        resilience.dynamo(() -> dynamoDb.putItem(PutItemRequest.builder()
+            .tableName(tableName)
+            .item(item)
+            .build()));
+    }
+
+    public void deleteScheduledAssignment(String tenantId, int ticketId) {
+        resilience.dynamo(() -> dynamoDb.deleteItem(DeleteItemRequest.builder()
+            .tableName(tableName)
+            .key(Map.of("tenantId", AttributeValue.builder().s(PK_SCHEDULER).build(),
+                        "sk", AttributeValue.builder().s(assignmentSk(tenantId, ticketId)).build()))
+            .build()));
+    }
+
+    /**
+     * Loads every pending auto-assignment, following pagination.
+     */
+    public List<ScheduledAssignment> getScheduledAssignments() {
+        List<ScheduledAssignment> assignments = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder req = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("tenantId = :pk AND begins_with(sk, :assignPrefix)")
+                .expressionAttributeValues(Map.of(
+                    ":pk", AttributeValue.builder().s(PK_SCHEDULER).build(),
+                    ":assignPrefix", AttributeValue.builder().s(SK_PREFIX_ASSIGN).build()
+                ));
+            if (startKey != null) {
+                req.exclusiveStartKey(startKey);
+            }
+            QueryRequest request = req.build();
+            QueryResponse response = resilience.dynamo(() -> dynamoDb.query(request));
+            for (Map<String, AttributeValue> item : response.items()) {
+                assignments.add(new ScheduledAssignment(
+                    item.get("assignmentTenantId").s(),
+                    Integer.parseInt(item.get("ticketId").n()),
+                    item.containsKey("companyId") ? item.get("companyId").s() : null,
+                    item.containsKey("ruleAssigneeIdentifier") ? item.get("ruleAssigneeIdentifier").s() : null,
+                    Long.parseLong(item.get("dueAt").n())));
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        return assignments;
+    }
+
+    @Override
+    public String metricsName() {
+        return "threadIndex";
     }
 
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("indexHits", threadIndexHits.get());
+        snapshot.put("indexMisses", threadIndexMisses.get());
+        snapshot.put("cachedMisses", threadIndexCachedMisses.get());
+        synchronized (threadMisses) {
+            snapshot.put("missCacheSize", threadMisses.size());
+        }
+        snapshot.put("queryFallback", threadIndexQueryFallback);
+        snapshot.put("backfilledTenants", backfilledTenants.size());
+        snapshot.put("fallbackQueries", threadIndexFallbackQueries.get());
+        snapshot.put("fallbackHits", threadIndexFallbackHits.get());
+        snapshot.put("indexWrites", threadIndexWrites.get());
+        snapshot.put("indexWriteFailures", threadIndexWriteFailures.get());
+        snapshot.put("backfilled", threadIndexBackfilled.get());
+        snapshot.put("cache", threadTickets.snapshot());
+        return snapshot;
+    }
 }
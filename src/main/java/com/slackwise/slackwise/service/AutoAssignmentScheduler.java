@@ -0,0 +1,265 @@
+package com.slackwise.slackwise.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.model.CompiledTenantConfig;
+import com.slackwise.slackwise.model.ScheduledAssignment;
+import com.slackwise.slackwise.model.Ticket;
+import com.slackwise.slackwise.model.TimeEntry;
+import com.slackwise.slackwise.util.TimingWheel;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the delayed auto-assignment check for new tickets.
+ *
+ * Pending checks sit in a {@link TimingWheel}, so thousands of them cost one driver thread rather than one sleeping
+ * thread each, and due checks run on a fixed pool of {@code scheduler.assignment.workers} threads. Every check is also
+ * stored in DynamoDB and deleted once it has run or been cancelled; on startup the stored ones are loaded back and any
+ * that came due while the app was down run straight away. A check is cancelled when a later webhook shows the ticket
+ * already has an owner.
+ */
+@Service
+public class AutoAssignmentScheduler implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(AutoAssignmentScheduler.class);
+
+    @Autowired
+    private ConnectwiseService connectwiseService;
+
+    @Autowired
+    private AmazonService amazonService;
+
+    @Autowired
+    private TenantConfigCache tenantConfigs;
+
+    @Value("${user.id}")
+    private int userId;
+
+    @Value("${user.identifier}")
+    private String userIdentifier;
+
+    @Value("${lead.contact.name}")
+    private String leadContactName;
+
+    @Value("${scheduler.assignment.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${scheduler.assignment.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${scheduler.assignment.workers:4}")
+    private int workers;
+
+    private TimingWheel<ScheduledAssignment> wheel;
+    private ExecutorService executor;
+    // Pending timer per tenant and ticket
+    private final Map<String, TimingWheel.Timeout<ScheduledAssignment>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong totalLatenessMillis = new AtomicLong();
+    private final AtomicLong maxLatenessMillis = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(Math.max(1, workers), Thread.ofVirtual().name("auto-assignment-", 0).factory());
+        wheel = new TimingWheel<>("auto-assignment-wheel", tickMillis, wheelSize, this::fire);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Pending and interrupted checks stay in DynamoDB and are restored on the next start
+        wheel.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Loads checks persisted by earlier runs. Overdue ones fire on the next tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<ScheduledAssignment> stored = amazonService.getScheduledAssignments();
+        for (ScheduledAssignment assignment : stored) {
+            if (!pending.containsKey(assignment.getKey())) {
+                arm(assignment);
+                restored.incrementAndGet();
+            }
+        }
+        if (!stored.isEmpty()) {
+            log.info("Restored {} pending auto-assignment checks", stored.size());
+        }
+    }
+
+    /**
+     * Persists and schedules a check, replacing any pending one for the same ticket.
+     */
+    public void schedule(ScheduledAssignment assignment) {
+        amazonService.putScheduledAssignment(assignment);
+        arm(assignment);
+        scheduled.incrementAndGet();
+        log.info("Scheduled auto-assignment check for ticketId={} in {} ms", assignment.getTicketId(),
+            Math.max(0, assignment.getDueAtMillis() - System.currentTimeMillis()));
+    }
+
+    /**
+     * Cancels the pending check for a ticket, if there is one.
+     *
+     * @return whether a pending check was cancelled
+     */
+    public boolean cancel(String tenantId, int ticketId) {
+        TimingWheel.Timeout<ScheduledAssignment> timeout = pending.remove(tenantId + "#" + ticketId);
+        if (timeout == null || !wheel.cancel(timeout)) {
+            return false;
+        }
+        amazonService.deleteScheduledAssignment(tenantId, ticketId);
+        cancelled.incrementAndGet();
+        log.info("Cancelled auto-assignment check for ticketId={}", ticketId);
+        return true;
+    }
+
+    private void arm(ScheduledAssignment assignment) {
+        TimingWheel.Timeout<ScheduledAssignment> previous =
+            pending.put(assignment.getKey(), wheel.schedule(assignment, assignment.getDueAtMillis()));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    // Called on the wheel's thread; only hands the check to the worker pool
+    private void fire(TimingWheel.Timeout<ScheduledAssignment> timeout) {
+        ScheduledAssignment assignment = timeout.getTask();
+        if (!pending.remove(assignment.getKey(), timeout)) {
+            // Replaced or cancelled while coming due
+            return;
+        }
+        executor.execute(() -> {
+            long lateness = Math.max(0, System.currentTimeMillis() - assignment.getDueAtMillis());
+            totalLatenessMillis.addAndGet(lateness);
+            maxLatenessMillis.accumulateAndGet(lateness, Math::max);
+            started.incrementAndGet();
+            running.incrementAndGet();
+            try {
+                assignIfUnowned(assignment);
+                executed.incrementAndGet();
+            } catch (InterruptedException e) {
+                // Shutting down: keep the stored check so it runs after restart
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.error("Error in delayed assignment flow for ticketId={}", assignment.getTicketId(), e);
+            } finally {
+                running.decrementAndGet();
+            }
+            try {
+                amazonService.deleteScheduledAssignment(assignment.getTenantId(), assignment.getTicketId());
+            } catch (RuntimeException e) {
+                log.warn("Could not delete finished auto-assignment check for ticketId={}", assignment.getTicketId(), e);
+            }
+        });
+    }
+
+    private void assignIfUnowned(ScheduledAssignment assignment) throws Exception {
+        int ticketId = assignment.getTicketId();
+        String ruleAssigneeIdentifier = assignment.getRuleAssigneeIdentifier();
+
+        Ticket ticket = connectwiseService.fetchTicketHeaderById(String.valueOf(ticketId));
+        log.info("Re-fetched ticketId={} after delay to check assignment", ticketId);
+
+        if (ticket.getOwner() != null) {
+            log.info("TicketId={} already assigned to {}. No assignment needed", ticketId, ticket.getOwner().identifier);
+            return;
+        }
+        log.info("TicketId={} is unassigned", ticketId);
+
+        if (shouldSkipAutoAssignment(ticket, tenantConfigs.get(assignment.getTenantId()))) {
+            log.info("TicketId={} appears compliance/internal review. Skipping assignment", ticketId);
+            return;
+        }
+
+        // Assign ticket to user and add time entry
+        TimeEntry timeEntry = new TimeEntry();
+
+        timeEntry.setTicketId(ticketId);
+        timeEntry.setDetailDescriptionFlag(false);
+        timeEntry.setInternalAnalysisFlag(true);
+        timeEntry.setResolutionFlag(false);
+        timeEntry.setTimeStart(connectwiseService.getCurrentTimeForPayload());
+        timeEntry.setActualHours(String.valueOf(0.0));
+        timeEntry.setTimeEnd(null);
+        timeEntry.setInfo(null);
+        timeEntry.setEmailCcFlag(false);
+        timeEntry.setEmailContactFlag(false);
+        timeEntry.setEmailResourceFlag(false);
+
+        String assignedIdentifier = userIdentifier;
+        if (ruleAssigneeIdentifier != null && !ruleAssigneeIdentifier.isBlank()) {
+            try {
+                connectwiseService.assignTicketToIdentifier(ruleAssigneeIdentifier, ticketId);
+                assignedIdentifier = ruleAssigneeIdentifier;
+            } catch (Exception ex) {
+                log.warn("Rule assignee {} could not be applied for ticketId={}, falling back to default user", ruleAssigneeIdentifier, ticketId, ex);
+                connectwiseService.assignTicketTo(userId, userIdentifier, ticketId);
+            }
+        } else {
+            connectwiseService.assignTicketTo(userId, userIdentifier, ticketId);
+        }
+        timeEntry.setNotes("Assigned / " + assignedIdentifier + " / ");
+        connectwiseService.addTimeEntryToTicket(assignment.getCompanyId(), String.valueOf(ticketId), timeEntry);
+    }
+
+    private boolean shouldSkipAutoAssignment(Ticket ticket, CompiledTenantConfig tenantConfig) {
+        if (tenantConfig.matchesExclusionKeyword(ticket.getSummary())) {
+            return true;
+        }
+
+        String contactName = ticket.getContact() != null && ticket.getContact().getName() != null
+            ? ticket.getContact().getName().toLowerCase()
+            : "";
+        String normalizedLeadContact = leadContactName != null ? leadContactName.toLowerCase() : "";
+        return !normalizedLeadContact.isBlank() && contactName.contains(normalizedLeadContact);
+    }
+
+    @Override
+    public String metricsName() {
+        return "autoAssignment";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        long fired = started.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("pending", pending.size());
+        snapshot.put("running", running.get());
+        snapshot.put("scheduled", scheduled.get());
+        snapshot.put("restored", restored.get());
+        snapshot.put("cancelled", cancelled.get());
+        snapshot.put("executed", executed.get());
+        snapshot.put("failed", failed.get());
+        snapshot.put("avgLatenessMillis", fired == 0 ? 0.0 : (double) totalLatenessMillis.get() / fired);
+        snapshot.put("maxLatenessMillis", maxLatenessMillis.get());
+        snapshot.put("wheel", wheel.snapshot());
+        return snapshot;
+    }
+}
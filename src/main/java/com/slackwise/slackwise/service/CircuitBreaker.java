@@ -0,0 +1,162 @@
+package com.slackwise.slackwise.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Count-based circuit breaker for one downstream.
+ *
+ * CLOSED records the outcome of the last {@code windowSize} calls and opens once at least {@code minimumCalls}
+ * have been seen and the failure rate reaches {@code failureRateThreshold}. OPEN rejects every call until
+ * {@code openDuration} has passed, then HALF_OPEN lets {@code halfOpenPermits} trial calls through: if all succeed
+ * the breaker closes, any failure opens it again. Thread safe.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenPermits;
+
+    private State state = State.CLOSED;
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failuresInWindow;
+    private long openedAtNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private long rejectedCount;
+    private long openedCount;
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration openDuration, int halfOpenPermits) {
+        this.name = name;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenPermits = Math.max(1, halfOpenPermits);
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Claims permission for one call. Returns false when the breaker is open or all half-open trials are taken.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                rejectedCount++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenPermits) {
+                rejectedCount++;
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenPermits) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && (double) failuresInWindow / recorded >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit for a call whose outcome says nothing about the downstream's health,
+     * e.g. a request rejected as invalid.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    /**
+     * Time until an open breaker will admit a trial call.
+     */
+    synchronized Duration remainingOpen() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openNanos - (System.nanoTime() - openedAtNanos)));
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) {
+                failuresInWindow--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failuresInWindow++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        openedCount++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failuresInWindow = 0;
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", state.name());
+        snapshot.put("failureRate", recorded == 0 ? 0.0 : (double) failuresInWindow / recorded);
+        snapshot.put("callsInWindow", recorded);
+        snapshot.put("rejectedCount", rejectedCount);
+        snapshot.put("openedCount", openedCount);
+        snapshot.put("remainingOpenMillis", state == State.OPEN
+            ? Math.max(0, (openNanos - (System.nanoTime() - openedAtNanos)) / 1_000_000) : 0);
+        return snapshot;
+    }
+}
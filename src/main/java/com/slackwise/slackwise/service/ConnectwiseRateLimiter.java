@@ -0,0 +1,301 @@
+package com.slackwise.slackwise.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Client-side throttle for outbound ConnectWise calls, one limiter per tenant and API credential.
+ *
+ * Each limiter combines a token bucket (steady request rate with a burst allowance) with an AIMD concurrency
+ * limit: every successful call raises the limit a little, every 429 halves it. A 429 also pauses the limiter
+ * for the server's {@code Retry-After} before the call is retried. Webhook-driven calls are always let through
+ * ahead of queued dashboard calls.
+ */
+@Service
+public class ConnectwiseRateLimiter implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(ConnectwiseRateLimiter.class);
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final long MAX_WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    /**
+     * Which caller a request is made on behalf of. Webhook calls keep Slack in sync and always go first.
+     */
+    public enum Priority {
+        WEBHOOK,
+        DASHBOARD
+    }
+
+    /**
+     * Outbound call guarded by the limiter.
+     */
+    @FunctionalInterface
+    public interface RemoteCall<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    // Inheritable so virtual threads started for enrichment and page prefetch keep the caller's priority
+    private static final InheritableThreadLocal<Priority> CURRENT_PRIORITY = new InheritableThreadLocal<>();
+
+    @Value("${connectwise.rate-limit.requests-per-second:10}")
+    private double requestsPerSecond;
+
+    @Value("${connectwise.rate-limit.burst:20}")
+    private int burst;
+
+    @Value("${connectwise.rate-limit.initial-concurrency:8}")
+    private int initialConcurrency;
+
+    @Value("${connectwise.rate-limit.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${connectwise.rate-limit.max-retries:3}")
+    private int maxRetries;
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code call} with the given priority applied to every ConnectWise request it makes,
+     * including requests made from threads it starts.
+     */
+    public static <T> T withPriority(Priority priority, RemoteCall<T> call) throws IOException, InterruptedException {
+        Priority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            return call.call();
+        } finally {
+            if (previous == null) {
+                CURRENT_PRIORITY.remove();
+            } else {
+                CURRENT_PRIORITY.set(previous);
+            }
+        }
+    }
+
+    public static Priority currentPriority() {
+        Priority priority = CURRENT_PRIORITY.get();
+        return priority != null ? priority : Priority.WEBHOOK;
+    }
+
+    /**
+     * Sends a request through the limiter for {@code key}. A 429 response pauses the limiter for the
+     * {@code Retry-After} duration and the request is retried up to {@code connectwise.rate-limit.max-retries} times;
+     * if it is still throttled the last 429 response is returned to the caller.
+     *
+     * @param key tenant and credential the request is billed against
+     * @param send performs the HTTP exchange
+     * @return the HTTP response
+     */
+    public <T> HttpResponse<T> execute(String key, RemoteCall<HttpResponse<T>> send) throws IOException, InterruptedException {
+        Limiter limiter = limiters.computeIfAbsent(key, k -> new Limiter());
+        Priority priority = currentPriority();
+
+        for (int attempt = 0; ; attempt++) {
+            limiter.acquire(priority);
+            HttpResponse<T> response;
+            try {
+                response = send.call();
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                limiter.release(false, null);
+                throw e;
+            }
+
+            if (response.statusCode() != 429) {
+                limiter.release(true, null);
+                return response;
+            }
+
+            Duration retryAfter = parseRetryAfter(response);
+            limiter.release(false, retryAfter);
+            log.warn("ConnectWise throttled request for key={} (attempt {}), pausing {} ms", key, attempt + 1, retryAfter.toMillis());
+
+            if (attempt >= maxRetries) {
+                return response;
+            }
+            discardBody(response);
+        }
+    }
+
+    static Duration parseRetryAfter(HttpResponse<?> response) {
+        String header = response.headers().firstValue("Retry-After").orElse(null);
+        if (header == null || header.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        String value = header.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds; try an HTTP date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration until = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return until.isNegative() ? Duration.ZERO : until;
+        } catch (DateTimeParseException e) {
+            return DEFAULT_RETRY_AFTER;
+        }
+    }
+
+    static void discardBody(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.debug("Failed to close throttled response body", e);
+            }
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "connectwiseRateLimiter";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        limiters.forEach((key, limiter) -> snapshot.put(key, limiter.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * Token bucket plus AIMD concurrency window for one tenant/credential.
+     */
+    private class Limiter {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private double tokens = burst;
+        private long lastRefillNanos = System.nanoTime();
+        private double concurrencyLimit = Math.max(1, Math.min(initialConcurrency, maxConcurrency));
+        private int inFlight;
+        private long pausedUntilNanos;
+        private final int[] waiting = new int[Priority.values().length];
+        private long throttledCount;
+
+        // Per-second request counts over the last RATE_WINDOW_SECONDS
+        private final long[] windowCounts = new long[RATE_WINDOW_SECONDS];
+        private final long[] windowSeconds = new long[RATE_WINDOW_SECONDS];
+
+        void acquire(Priority priority) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                waiting[priority.ordinal()]++;
+                try {
+                    while (true) {
+                        long now = System.nanoTime();
+                        refill(now);
+
+                        long waitNanos;
+                        if (pausedUntilNanos - now > 0) {
+                            waitNanos = pausedUntilNanos - now;
+                        } else if (priority == Priority.DASHBOARD && waiting[Priority.WEBHOOK.ordinal()] > 0) {
+                            waitNanos = MAX_WAIT_SLICE_NANOS;
+                        } else if (inFlight >= (int) concurrencyLimit) {
+                            waitNanos = MAX_WAIT_SLICE_NANOS;
+                        } else if (tokens < 1) {
+                            waitNanos = (long) ((1 - tokens) / requestsPerSecond * 1_000_000_000L);
+                        } else {
+                            tokens -= 1;
+                            inFlight++;
+                            recordRequest(now);
+                            return;
+                        }
+                        changed.awaitNanos(Math.max(1, Math.min(waitNanos, MAX_WAIT_SLICE_NANOS)));
+                    }
+                } finally {
+                    waiting[priority.ordinal()]--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(boolean success, Duration retryAfter) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (success) {
+                    // Additive increase: roughly +1 per window's worth of successful calls
+                    concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+                } else if (retryAfter != null) {
+                    // Multiplicative decrease on throttling
+                    throttledCount++;
+                    concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+                    long until = System.nanoTime() + retryAfter.toNanos();
+                    if (until - pausedUntilNanos > 0) {
+                        pausedUntilNanos = until;
+                    }
+                    tokens = Math.min(tokens, 0);
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill(long now) {
+            double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+            if (elapsedSeconds > 0) {
+                tokens = Math.min(burst, tokens + elapsedSeconds * requestsPerSecond);
+                lastRefillNanos = now;
+            }
+        }
+
+        private void recordRequest(long now) {
+            long second = TimeUnit.NANOSECONDS.toSeconds(now);
+            int slot = (int) (second % RATE_WINDOW_SECONDS);
+            if (windowSeconds[slot] != second) {
+                windowSeconds[slot] = second;
+                windowCounts[slot] = 0;
+            }
+            windowCounts[slot]++;
+        }
+
+        Map<String, Object> snapshot() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                refill(now);
+                long currentSecond = TimeUnit.NANOSECONDS.toSeconds(now);
+                long recent = 0;
+                for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                    if (currentSecond - windowSeconds[i] < RATE_WINDOW_SECONDS) {
+                        recent += windowCounts[i];
+                    }
+                }
+
+                Map<String, Object> snapshot = new LinkedHashMap<>();
+                snapshot.put("configuredRatePerSecond", requestsPerSecond);
+                snapshot.put("currentRatePerSecond", (double) recent / RATE_WINDOW_SECONDS);
+                snapshot.put("availableTokens", tokens);
+                snapshot.put("concurrencyLimit", (int) concurrencyLimit);
+                snapshot.put("inFlight", inFlight);
+                snapshot.put("queuedWebhook", waiting[Priority.WEBHOOK.ordinal()]);
+                snapshot.put("queuedDashboard", waiting[Priority.DASHBOARD.ordinal()]);
+                snapshot.put("throttledCount", throttledCount);
+                snapshot.put("pausedForMillis", Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - now)));
+                return snapshot;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
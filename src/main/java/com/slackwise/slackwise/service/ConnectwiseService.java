@@ -1,40 +1,60 @@
 package com.slackwise.slackwise.service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.slack.api.Slack;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.slack.api.methods.SlackApiException;
-import com.slack.api.methods.response.chat.ChatPostMessageResponse;
 import com.slackwise.slackwise.model.Note;
+import com.slackwise.slackwise.model.TenantConfig;
 import com.slackwise.slackwise.model.Ticket;
 import com.slackwise.slackwise.model.TimeEntry;
+import com.slackwise.slackwise.util.JsonCodec;
 import com.slackwise.slackwise.util.TextFormatTranslator;
 
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class ConnectwiseService {
     private static final Logger log = LoggerFactory.getLogger(ConnectwiseService.class);
@@ -65,15 +85,53 @@ public class ConnectwiseService {
     @Value("${slack.channel.id}")
     private String slackChannelId;
     
-    private final Slack slack = Slack.getInstance();
     
     private DateTimeFormatter PAYLOAD_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneId.of("UTC"));
 
     // Base URL for ConnectWise API
     private String baseUrl = "https://na.myconnectwise.net/v4_6_release/apis/3.0";
 
-    // Create a single HttpClient instance
-    HttpClient client = HttpClient.newHttpClient();
+    // Max notes / time entries returned per history request (ConnectWise maximum)
+    private static final int HISTORY_PAGE_SIZE = 1000;
+
+    private static final String OPEN_TICKET_FIELDS = "id,summary,board,status,contact,contactPhoneNumber,contactEmailAddress,type,subType,closedFlag,resources,actualHours,_info";
+
+    // Tickets requested per page; ConnectWise caps pageSize at 1000
+    @Value("${connectwise.page.size:100}")
+    private int ticketPageSize;
+
+    @Value("${connectwise.delta-sync.enabled:true}")
+    private boolean deltaSyncEnabled;
+
+    @Value("${connectwise.delta-sync.full-resync-minutes:30}")
+    private long fullResyncMinutes;
+
+    // Open ticket snapshots per company, refreshed incrementally by syncOpenTicketsByCompanyId
+    private final Map<String, OpenTicketSnapshot> openTicketSnapshots = new ConcurrentHashMap<>();
+
+    // Request timeouts: single-record reads, ticket list pages, and writes
+    @Value("${connectwise.timeout.read-ms:10000}")
+    private long readTimeoutMillis;
+
+    @Value("${connectwise.timeout.page-ms:30000}")
+    private long pageTimeoutMillis;
+
+    @Value("${connectwise.timeout.write-ms:15000}")
+    private long writeTimeoutMillis;
+
+    // Overall deadline for async calls, including rate limit waits and retries
+    @Value("${connectwise.async.timeout-ms:30000}")
+    private long asyncTimeoutMillis;
+
+    // Runs the async API; each call gets its own virtual thread
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Connections opened at startup so the first webhook does not pay the TLS handshake
+    @Value("${connectwise.http.warmup-connections:2}")
+    private int warmUpConnections;
+
+    @Autowired
+    private ConnectwiseTransport transport;
     
     // Cache of current open tickets
     public List<Ticket> tickets;
@@ -81,6 +139,28 @@ public class ConnectwiseService {
     @Autowired
     private com.slackwise.slackwise.service.AmazonService amazonService;
 
+    @Autowired
+    private TenantConfigCache tenantConfigs;
+
+    @Autowired
+    private TicketEnrichmentEngine enrichmentEngine;
+
+    @Autowired
+    private ConnectwiseRateLimiter rateLimiter;
+
+    @Autowired
+    private ResilienceService resilience;
+
+    @Autowired
+    private SlackGateway slackGateway;
+
+    @Autowired
+    private RequestHedger hedger;
+
+    // Default max parallel enrichment calls per tenant, overridable per tenant via TenantConfig
+    @Value("${connectwise.enrichment.concurrency:8}")
+    private int defaultEnrichmentConcurrency;
+
 
     
     // Authorization token for ConnectWise API (Base64 encoded "publicKey:privateKey")
@@ -90,10 +170,29 @@ public class ConnectwiseService {
         return "Basic " + encodedAuth;
     }
 
+    /**
+     * Opens ConnectWise connections once the application is up, using the lightweight system info endpoint.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpConnections() {
+        if (warmUpConnections <= 0) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/system/info"))
+            .timeout(Duration.ofMillis(readTimeoutMillis))
+            .header("Authorization", buildAuthHeader())
+            .header("clientId", clientId)
+            .GET()
+            .build();
+        transport.warmUp(request, warmUpConnections);
+    }
+
     /**
      * 
      * Fetches all open tickets for a given company ID from ConnectWise. 
      * This method constructs a query to retrieve tickets that are not closed and belong to the specified company.
+     * Pages are read with {@link #openTicketPages(String)}; each page is enriched while the next one is downloading.
      * 
      * @param companyId2
      * @return
@@ -101,17 +200,162 @@ public class ConnectwiseService {
      * @throws InterruptedException
      */
     public List<Ticket> fetchOpenTicketsByCompanyId(String companyId2) throws IOException, InterruptedException {
+        return ConnectwiseRateLimiter.withPriority(ConnectwiseRateLimiter.Priority.DASHBOARD,
+            () -> fetchAndEnrichOpenTickets(companyId2));
+    }
+
+    private List<Ticket> fetchAndEnrichOpenTickets(String companyId2) throws IOException, InterruptedException {
+
+        List<Ticket> openTickets = new ArrayList<>();
+        int concurrency = resolveEnrichmentConcurrency();
+        int failures = 0;
+
+        try (TicketPageReader pages = openTicketPages(companyId2)) {
+            while (pages.hasNext()) {
+                List<Ticket> page = pages.next();
+
+                // Populate each ticket's details, time entries and notes in parallel
+                List<TicketEnrichmentEngine.Outcome<Ticket>> outcomes = enrichmentEngine.enrichAll(
+                    companyId, page, concurrency, this::enrichTicket);
+
+                for (TicketEnrichmentEngine.Outcome<Ticket> outcome : outcomes) {
+                    if (!outcome.isSuccess()) {
+                        failures++;
+                        log.warn("Failed to enrich ticketId={}", outcome.getItem().getId(), outcome.getError());
+                    }
+                }
+                openTickets.addAll(page);
+            }
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof InterruptedIOException) {
+                throw new InterruptedException(e.getCause().getMessage());
+            }
+            throw e.getCause();
+        }
+
+        if (failures > 0) {
+            log.warn("Enrichment failed for {} of {} open tickets for company={}", failures, openTickets.size(), companyId2);
+        }
+
+        tickets = openTickets;
+        return openTickets;
+    }
+
+    /**
+     * Returns the open tickets for a company from a locally held snapshot, refreshing it with only the tickets whose
+     * {@code _info.lastUpdated} is at or after the snapshot watermark. Changed tickets are re-enriched, closed ones are
+     * evicted, and a full fetch is done on first use and every {@code connectwise.delta-sync.full-resync-minutes}
+     * to pick up deletions and tickets moved to another company.
+     * 
+     * @param companyId2
+     * @return open tickets ordered by id descending
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public List<Ticket> syncOpenTicketsByCompanyId(String companyId2) throws IOException, InterruptedException {
+        return ConnectwiseRateLimiter.withPriority(ConnectwiseRateLimiter.Priority.DASHBOARD,
+            () -> syncOpenTickets(companyId2));
+    }
+
+    private List<Ticket> syncOpenTickets(String companyId2) throws IOException, InterruptedException {
+        if (!deltaSyncEnabled) {
+            return fetchOpenTicketsByCompanyId(companyId2);
+        }
+
+        OpenTicketSnapshot snapshot = openTicketSnapshots.computeIfAbsent(companyId2.trim(), k -> new OpenTicketSnapshot());
+        synchronized (snapshot) {
+            Instant now = Instant.now();
+            if (snapshot.needsFullSync(now, Duration.ofMinutes(fullResyncMinutes))) {
+                snapshot.replaceAll(fetchOpenTicketsByCompanyId(companyId2), now);
+                log.info("Full open ticket sync for company={} watermark={}", companyId2, snapshot.getWatermark());
+                return snapshot.tickets();
+            }
+
+            // Inclusive so tickets updated within the same second as the watermark are not missed;
+            // tickets whose lastUpdated has not moved are skipped below.
+            String conditions = buildCompanyFilterCondition(companyId2)
+                + " AND lastUpdated >= [" + PAYLOAD_FORMATTER.format(snapshot.getWatermark()) + "]";
+
+            List<Ticket> changed = new ArrayList<>();
+            List<Ticket> closed = new ArrayList<>();
+            try (TicketPageReader pages = new TicketPageReader((page, pageSize) -> fetchTicketPage(conditions, page, pageSize), ticketPageSize)) {
+                while (pages.hasNext()) {
+                    for (Ticket ticket : pages.next()) {
+                        if (ticket.isClosedFlag()) {
+                            closed.add(ticket);
+                        } else if (snapshot.isChanged(ticket)) {
+                            changed.add(ticket);
+                        }
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                if (e.getCause() instanceof InterruptedIOException) {
+                    throw new InterruptedException(e.getCause().getMessage());
+                }
+                throw e.getCause();
+            }
+
+            List<TicketEnrichmentEngine.Outcome<Ticket>> outcomes = enrichmentEngine.enrichAll(
+                companyId, changed, resolveEnrichmentConcurrency(), this::enrichTicket);
+            for (TicketEnrichmentEngine.Outcome<Ticket> outcome : outcomes) {
+                if (outcome.isSuccess()) {
+                    snapshot.upsert(outcome.getItem());
+                } else {
+                    // Keep the previous copy; the watermark may move past this ticket, so fall back to a full sync next time
+                    log.warn("Failed to enrich changed ticketId={}", outcome.getItem().getId(), outcome.getError());
+                    snapshot.requestFullSync();
+                }
+            }
+            closed.forEach(snapshot::evict);
+
+            log.info("Delta sync for company={} changed={} closed={} watermark={}",
+                companyId2, changed.size(), closed.size(), snapshot.getWatermark());
+            return snapshot.tickets();
+        }
+    }
+
+    /**
+     * Lazily streams open tickets for a company without enriching them. Pages are only requested
+     * as the stream is consumed; close the stream to cancel an outstanding prefetch.
+     * 
+     * @param companyId2
+     * @return stream of open tickets ordered by id descending
+     */
+    public Stream<Ticket> streamOpenTicketsByCompanyId(String companyId2) {
+        TicketPageReader pages = openTicketPages(companyId2);
+        Iterable<List<Ticket>> iterable = () -> pages;
+        return StreamSupport.stream(iterable.spliterator(), false)
+            .flatMap(List::stream)
+            .onClose(pages::close);
+    }
+
+    /**
+     * Opens a page reader over the open tickets for a company. The first page is requested immediately.
+     * 
+     * @param companyId2
+     * @return reader that yields one page of tickets at a time
+     */
+    public TicketPageReader openTicketPages(String companyId2) {
+        String conditions = buildCompanyFilterCondition(companyId2) + " AND closedFlag=false";
+        return new TicketPageReader((page, pageSize) -> fetchTicketPage(conditions, page, pageSize), ticketPageSize);
+    }
+
+    /**
+     * Fetches one page of tickets matching the given conditions, parsing the response straight from the body stream.
+     */
+    private List<Ticket> fetchTicketPage(String rawConditions, int page, int pageSize) throws IOException, InterruptedException {
 
         // Prepare the request to be sent to ConnectWise API
-        String conditions = URLEncoder.encode(buildCompanyFilterCondition(companyId2) + " AND closedFlag=false", StandardCharsets.UTF_8);
-        String fields = URLEncoder.encode("id,summary,board,status,contact,contactPhoneNumber,contactEmailAddress,type,subType,closedFlag,resources,actualHours,_info", StandardCharsets.UTF_8);
+        String conditions = URLEncoder.encode(rawConditions, StandardCharsets.UTF_8);
+        String fields = URLEncoder.encode(OPEN_TICKET_FIELDS, StandardCharsets.UTF_8);
         String orderBy = URLEncoder.encode("id desc", StandardCharsets.UTF_8);    
 
         String endpoint = "/service/tickets";
 
-        // Send the HTTP GET request to fetch ALL open tickets from companyId2
         HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(baseUrl + endpoint + "?conditions=" + conditions + "&fields=" + fields + "&orderBy=" + orderBy))
+            .uri(URI.create(baseUrl + endpoint + "?conditions=" + conditions + "&fields=" + fields + "&orderBy=" + orderBy
+                + "&page=" + page + "&pageSize=" + pageSize))
+            .timeout(Duration.ofMillis(pageTimeoutMillis))
             .header("Authorization", buildAuthHeader())
             .header("clientId", clientId)
             .header("Content-Type", "application/json")
@@ -119,39 +363,71 @@ public class ConnectwiseService {
             .build();
         
         // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        int statusCode = response.statusCode();
-        String jsonResponse = response.body();
-        if (statusCode < 200 || statusCode >= 300) {
-            throw new IOException("ConnectWise ticket fetch failed with HTTP " + statusCode + ". Body: " + safeBodySnippet(jsonResponse));
+        HttpResponse<InputStream> response = send(request, transport.ofInputStream());
+        try (InputStream body = response.body()) {
+            requireSuccess(response, body, "ticket fetch");
+            List<Ticket> pageTickets = readTicketArray(body);
+            log.debug("Fetched ticket page={} size={}", page, pageTickets.size());
+            return pageTickets;
         }
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(jsonResponse);
+    /**
+     * Reads a ticket list from a response body. ConnectWise returns an array for success;
+     * some environments return an object wrapper with an {@code items} array.
+     */
+    private static List<Ticket> readTicketArray(InputStream body) throws IOException {
+        try (JsonParser parser = JsonCodec.factory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    token = parser.nextToken();
+                    if ("items".equals(field) && token == JsonToken.START_ARRAY) {
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            }
 
-        // ConnectWise returns an array for success; some environments return an object wrapper.
-        if (root.isArray()) {
-            tickets = mapper.convertValue(root, new TypeReference<List<Ticket>>() {});
-        } else if (root.isObject() && root.has("items") && root.get("items").isArray()) {
-            tickets = mapper.convertValue(root.get("items"), new TypeReference<List<Ticket>>() {});
-        } else {
-            throw new IOException("Unexpected ConnectWise ticket response shape: " + root.getNodeType()
-                + ". Body: " + safeBodySnippet(jsonResponse));
-        }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Unexpected ConnectWise ticket response shape: " + token);
+            }
 
-        // For each ticket, populate its time entries and notes
-        for (Ticket ticket : tickets) {
-            
-            Ticket fullTicket = fetchTicketById(companyId2, String.valueOf(ticket.getId()));
-            ticket.setCompany(fullTicket.getCompany());
-            ticket.setSeverity(fullTicket.getSeverity());
-            ticket.setPriority(fullTicket.getPriority());
-            ticket.setTimeEntries(fetchTimeEntriesByTicketId(String.valueOf(ticket.getId())));
-            ticket.setNotes(fetchNotesByTicketId(String.valueOf(ticket.getId())));
-            ticket.setDiscussion(ticket.getDiscussion());
+            List<Ticket> result = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                result.add(JsonCodec.TICKET.readValue(parser));
+            }
+            return result;
         }
+    }
+
+    /**
+     * Populates company, severity, priority, time entries and notes on a ticket returned by the open ticket query.
+     */
+    private void enrichTicket(Ticket ticket) throws IOException, InterruptedException {
+        String ticketId = String.valueOf(ticket.getId());
+
+        Ticket fullTicket = fetchTicketHeaderById(ticketId);
+        ticket.setCompany(fullTicket.getCompany());
+        ticket.setSeverity(fullTicket.getSeverity());
+        ticket.setPriority(fullTicket.getPriority());
+        ticket.setTimeEntries(fetchTimeEntriesByTicketId(ticketId));
+        ticket.setNotes(fetchNotesByTicketId(ticketId));
+        ticket.setDiscussion(ticket.getDiscussion());
+    }
 
-        return tickets;
+    private int resolveEnrichmentConcurrency() throws InterruptedException {
+        try {
+            TenantConfig config = tenantConfigs.get(companyId).getConfig();
+            if (config != null && config.getEnrichmentConcurrency() != null && config.getEnrichmentConcurrency() > 0) {
+                return config.getEnrichmentConcurrency();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not load tenant config for tenantId={}, using default enrichment concurrency", companyId, e);
+        }
+        return defaultEnrichmentConcurrency;
     }
 
     private String buildCompanyFilterCondition(String companyValue) {
@@ -181,6 +457,55 @@ public class ConnectwiseService {
         return compact.substring(0, maxLength) + "...";
     }
 
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        return send(request, handler, null);
+    }
+
+    /**
+     * Sends a request through the circuit breaker and the rate limiter for this tenant's ConnectWise credential.
+     * Requests without their own timeout get the read or write timeout; GETs are retried on transient failures and,
+     * when {@code hedgeOperation} is given, hedged once they run past that operation's p95.
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler, String hedgeOperation)
+            throws IOException, InterruptedException {
+        boolean idempotent = "GET".equals(request.method());
+        HttpRequest timed = request.timeout().isPresent() ? request
+            : HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofMillis(idempotent ? readTimeoutMillis : writeTimeoutMillis))
+                .build();
+
+        ConnectwiseRateLimiter.RemoteCall<HttpResponse<T>> attempt =
+            () -> rateLimiter.execute(rateLimitKey(), () -> transport.send(timed, handler));
+        if (idempotent && hedgeOperation != null) {
+            return resilience.exchange(true, () -> hedger.execute(hedgeOperation, attempt));
+        }
+        return resilience.exchange(idempotent, attempt);
+    }
+
+    // Identifies the tenant and API key pair without exposing the key itself in metrics
+    private String rateLimitKey() {
+        return companyId + "/" + clientId + "/" + Integer.toHexString(publicKey.hashCode());
+    }
+
+    /**
+     * Sends a request and decodes the JSON response body straight from the response stream.
+     */
+    private <T> T sendForJson(HttpRequest request, ObjectReader reader, String operation) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = send(request, transport.ofInputStream(), operation);
+        try (InputStream body = response.body()) {
+            requireSuccess(response, body, operation);
+            return reader.readValue(body);
+        }
+    }
+
+    private static void requireSuccess(HttpResponse<?> response, InputStream body, String operation) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            String snippet = new String(body.readNBytes(2048), StandardCharsets.UTF_8);
+            throw new IOException("ConnectWise " + operation + " failed with HTTP " + statusCode + ". Body: " + safeBodySnippet(snippet));
+        }
+    }
+
     private static String normalizeMessageLineEndings(String value) {
         if (value == null) return null;
         // Normalize mixed line endings first, then emit CRLF for ConnectWise/email rendering.
@@ -197,33 +522,45 @@ public class ConnectwiseService {
      * @throws InterruptedException
      */
     public List<TimeEntry> fetchTimeEntriesByTicketId(String ticketId) throws IOException, InterruptedException {
+        return fetchTimeEntriesByTicketId(ticketId, 0);
+    }
+
+    /**
+     * Fetches time entries for a ticket with an ID greater than {@code afterTimeEntryId}, oldest first.
+     * Pass 0 to fetch the full history.
+     * 
+     * @param ticketId
+     * @param afterTimeEntryId highest time entry ID already known
+     * @return time entries for the ticket newer than the given ID
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public List<TimeEntry> fetchTimeEntriesByTicketId(String ticketId, int afterTimeEntryId) throws IOException, InterruptedException {
 
         // Prepare the request to be sent to ConnectWise API
-        String conditions = URLEncoder.encode("chargeToId=" + ticketId, StandardCharsets.UTF_8);
+        String rawConditions = "chargeToId=" + ticketId;
+        if (afterTimeEntryId > 0) {
+            rawConditions += " AND id>" + afterTimeEntryId;
+        }
+        String conditions = URLEncoder.encode(rawConditions, StandardCharsets.UTF_8);
         String fields = URLEncoder.encode("id,company,chargeToId,chargeToType,member,timeStart,timeEnd,actualHours,notes,addToDetailDescriptionFlag,addToInternalAnalysisFlag,addToResolutionFlag,emailCcFlag,emailCc,dateEntered,ticket,ticketBoard,ticketStatus,_info", StandardCharsets.UTF_8);
+        String orderBy = URLEncoder.encode("id asc", StandardCharsets.UTF_8);
 
         String endpoint = "/time/entries";
-        // Send the HTTP GET request to fetch time entries for the ticket
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(baseUrl + endpoint + "?conditions=" + conditions + "&fields=" + fields))
-            .header("Authorization", buildAuthHeader())
-            .header("clientId", clientId)
-            .header("Content-Type", "application/json")
-            .GET()
-            .build();
-        
-        // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        String jsonResponse = response.body();
-        ObjectMapper mapper = new ObjectMapper();
-
-        // Parse the API response JSON into a List<TimeEntry>
-        List<TimeEntry> timeEntries = mapper.readValue(
-            jsonResponse,
-            new TypeReference<List<TimeEntry>>() {}
-        );        
-
-        return timeEntries;
+        // Send the HTTP GET request for each page of time entries until a short page comes back
+        return fetchAllHistoryPages(page -> {
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + endpoint + "?conditions=" + conditions + "&fields=" + fields + "&orderBy=" + orderBy
+                    + "&page=" + page + "&pageSize=" + HISTORY_PAGE_SIZE))
+                .header("Authorization", buildAuthHeader())
+                .header("clientId", clientId)
+                .header("Content-Type", "application/json")
+                .GET()
+                .build();
+
+            // Receive and parse the response JSON into a List<TimeEntry>
+            return sendForJson(request, JsonCodec.TIME_ENTRY_LIST, "time entry fetch");
+        });
     }
 
     /**
@@ -235,30 +572,67 @@ public class ConnectwiseService {
      * @throws InterruptedException
      */
     public List<Note> fetchNotesByTicketId(String ticketId) throws IOException, InterruptedException {
+        return fetchNotesByTicketId(ticketId, 0);
+    }
+
+    /**
+     * Fetches notes for a ticket with an ID greater than {@code afterNoteId}, oldest first.
+     * Pass 0 to fetch the full history.
+     * 
+     * @param ticketId
+     * @param afterNoteId highest note ID already known
+     * @return notes for the ticket newer than the given ID
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public List<Note> fetchNotesByTicketId(String ticketId, int afterNoteId) throws IOException, InterruptedException {
 
         // Prepare the request to be sent to ConnectWise API
         String endpoint = "/service/tickets/" + ticketId + "/notes";
+        String query = "?orderBy=" + URLEncoder.encode("id asc", StandardCharsets.UTF_8) + "&pageSize=" + HISTORY_PAGE_SIZE;
+        if (afterNoteId > 0) {
+            query += "&conditions=" + URLEncoder.encode("id>" + afterNoteId, StandardCharsets.UTF_8);
+        }
 
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(baseUrl + endpoint))
-            .header("Authorization", buildAuthHeader())
-            .header("clientId", clientId)
-            .header("Content-Type", "application/json")
-            .GET()
-            .build();
-
-        // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        String jsonResponse = response.body();
-        ObjectMapper mapper = new ObjectMapper();
+        String baseQuery = query;
+        return fetchAllHistoryPages(page -> {
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + endpoint + baseQuery + "&page=" + page))
+                .header("Authorization", buildAuthHeader())
+                .header("clientId", clientId)
+                .header("Content-Type", "application/json")
+                .GET()
+                .build();
+
+            // Receive and parse the response JSON into a List<Note>
+            return sendForJson(request, JsonCodec.NOTE_LIST, "note fetch");
+        });
+    }
 
-        // Parse the API response JSON into a List<Note>
-        List<Note> notes = mapper.readValue(
-            jsonResponse,
-            new TypeReference<List<Note>>() {}
-        );
+    /**
+     * Fetches one 1-based page of a ticket's notes or time entries.
+     */
+    @FunctionalInterface
+    private interface HistoryPageFetcher<T> {
+        List<T> fetch(int page) throws IOException, InterruptedException;
+    }
 
-        return notes;
+    /**
+     * Requests pages of {@link #HISTORY_PAGE_SIZE} in order and concatenates them, stopping at the first page that
+     * comes back shorter than the page size, the same way {@link TicketPageReader} does.
+     */
+    private static <T> List<T> fetchAllHistoryPages(HistoryPageFetcher<T> fetcher) throws IOException, InterruptedException {
+        List<T> all = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            List<T> items = fetcher.fetch(page);
+            if (items == null) {
+                return all;
+            }
+            all.addAll(items);
+            if (items.size() < HISTORY_PAGE_SIZE) {
+                return all;
+            }
+        }
     }
 
     /**
@@ -271,6 +645,137 @@ public class ConnectwiseService {
      * @throws InterruptedException
      */
     public Ticket fetchTicketById(String companyId2, String ticketId) throws IOException, InterruptedException {
+        return await(fetchTicketByIdAsync(ticketId));
+    }
+
+    /**
+     * Fetches a ticket with its time entries and notes, sending the three requests concurrently so the latency is
+     * roughly that of the slowest one. If any request fails the others are cancelled.
+     * 
+     * @param ticketId
+     * @return future completed with the populated ticket
+     */
+    public CompletableFuture<Ticket> fetchTicketByIdAsync(String ticketId) {
+        CompletableFuture<Ticket> header = fetchTicketHeaderByIdAsync(ticketId);
+        CompletableFuture<List<TimeEntry>> timeEntries = fetchTimeEntriesByTicketIdAsync(ticketId, 0);
+        CompletableFuture<List<Note>> notes = fetchNotesByTicketIdAsync(ticketId, 0);
+
+        CompletableFuture<Ticket> ticket = header
+            .thenCombine(timeEntries, (t, entries) -> {
+                t.setTimeEntries(entries);
+                return t;
+            })
+            .thenCombine(notes, (t, ticketNotes) -> {
+                // Populate the ticket's notes and discussion
+                t.setNotes(ticketNotes);
+                t.setDiscussion(t.getDiscussion());
+                return t;
+            });
+
+        // Failure, timeout or cancellation of the combined result stops whatever is still in flight
+        ticket.whenComplete((result, error) -> {
+            if (error != null) {
+                header.cancel(true);
+                timeEntries.cancel(true);
+                notes.cancel(true);
+            }
+        });
+        // A failed sub-request fails the combined result straight away instead of after its siblings finish
+        for (CompletableFuture<?> part : List.of(header, timeEntries, notes)) {
+            part.whenComplete((result, error) -> {
+                if (error != null) {
+                    ticket.completeExceptionally(error);
+                }
+            });
+        }
+        return ticket;
+    }
+
+    /**
+     * Async form of {@link #fetchTicketHeaderById(String)}.
+     */
+    public CompletableFuture<Ticket> fetchTicketHeaderByIdAsync(String ticketId) {
+        return callAsync(() -> fetchTicketHeaderById(ticketId));
+    }
+
+    /**
+     * Async form of {@link #fetchNotesByTicketId(String, int)}.
+     */
+    public CompletableFuture<List<Note>> fetchNotesByTicketIdAsync(String ticketId, int afterNoteId) {
+        return callAsync(() -> fetchNotesByTicketId(ticketId, afterNoteId));
+    }
+
+    /**
+     * Async form of {@link #fetchTimeEntriesByTicketId(String, int)}.
+     */
+    public CompletableFuture<List<TimeEntry>> fetchTimeEntriesByTicketIdAsync(String ticketId, int afterTimeEntryId) {
+        return callAsync(() -> fetchTimeEntriesByTicketId(ticketId, afterTimeEntryId));
+    }
+
+    /**
+     * Runs a ConnectWise call on its own virtual thread. The returned future times out after
+     * {@code connectwise.async.timeout-ms}; cancelling it, or a timeout, interrupts the call, which aborts the HTTP
+     * exchange or the wait for a rate limit permit.
+     */
+    private <T> CompletableFuture<T> callAsync(ConnectwiseRateLimiter.RemoteCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = asyncExecutor.submit(() -> {
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return future.orTimeout(asyncTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for an async call, rethrowing its failure the way the blocking methods do. Interrupting the waiting
+     * thread cancels the call.
+     */
+    private <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new HttpTimeoutException("ConnectWise call did not complete within " + asyncTimeoutMillis + " ms");
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdownNow();
+    }
+
+    /**
+     * Fetches a ticket by its ID without its time entries or notes.
+     * 
+     * @param ticketId
+     * @return the ticket as returned by ConnectWise
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Ticket fetchTicketHeaderById(String ticketId) throws IOException, InterruptedException {
 
         // Prepare the request to be sent to ConnectWise API
         String endpoint = "/service/tickets/" + ticketId;
@@ -285,23 +790,8 @@ public class ConnectwiseService {
             .GET()
             .build();
 
-        // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        String jsonResponse = response.body();
-        ObjectMapper mapper = new ObjectMapper();
-
-        // Parse the API response JSON into a Ticket object
-        Ticket ticket = mapper.readValue(
-            jsonResponse,
-            new TypeReference<Ticket>() {}
-        );
-
-        // Populate the ticket's time entries, notes, and discussion
-        ticket.setTimeEntries(fetchTimeEntriesByTicketId(ticketId));
-        ticket.setNotes(fetchNotesByTicketId(ticketId));
-        ticket.setDiscussion(ticket.getDiscussion());
-
-        return ticket;
+        // Receive and parse the response JSON into a Ticket object
+        return sendForJson(request, JsonCodec.TICKET, "ticket fetch");
     }
 
      /**
@@ -314,7 +804,7 @@ public class ConnectwiseService {
      */
     public String getContactNameByTicketId(String ticketId) throws IOException, InterruptedException {
         
-        Ticket ticket = fetchTicketById(companyId, ticketId);
+        Ticket ticket = fetchTicketHeaderById(ticketId);
 
         return ticket.getContact().getName();
     }
@@ -361,17 +851,9 @@ public class ConnectwiseService {
             .GET()
             .build();   
 
-        // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        String jsonResponse = response.body();
-        ObjectMapper mapper = new ObjectMapper();
-
+        // Receive and parse the response JSON into a Note
+        Note note = sendForJson(request, JsonCodec.NOTE, "note fetch");
         log.debug("Fetched note payload for ticketId={} noteId={}", ticketId, noteId);
-        // Parse the API response JSON into a List<Note>
-        Note note = mapper.readValue(
-            jsonResponse,
-            new TypeReference<Note>() {}
-        );
 
         return note;
 
@@ -431,9 +913,7 @@ public class ConnectwiseService {
 
             String slackTs = (String) event.getOrDefault("ts", java.time.Instant.now().toString());
             String jsonResponse = addTimeEntryToTicket(companyId, ticketId, timeEntry);
-            ObjectMapper mapper = new ObjectMapper();
-
-            TimeEntry created = mapper.readValue(jsonResponse, TimeEntry.class);
+            TimeEntry created = JsonCodec.TIME_ENTRY.readValue(jsonResponse);
 
             try {
                 if (created != null) {
@@ -473,9 +953,7 @@ public class ConnectwiseService {
 
             String slackTs = (String) event.getOrDefault("ts", java.time.Instant.now().toString());
             String jsonResponse = addTimeEntryToTicket(companyId, ticketId, timeEntry);
-            ObjectMapper mapper = new ObjectMapper();
-
-            TimeEntry created = mapper.readValue(jsonResponse, TimeEntry.class);
+            TimeEntry created = JsonCodec.TIME_ENTRY.readValue(jsonResponse);
 
             try {
                 if (created != null) {
@@ -537,16 +1015,14 @@ public class ConnectwiseService {
                 log.debug("Set CC recipients for ticketId={}", timeEntry.getTicketId());
             
             } else if (command.equals("am")) {
-                Ticket ticket = fetchTicketById(companyId, String.valueOf(timeEntry.getTicketId()));
-
                 this.assignTicketTo(userId, userIdentifier, timeEntry.getTicketId());
             } else {
                 
-                ChatPostMessageResponse response = slack.methods(slackBotToken).chatPostMessage(req -> req
+                SlackGateway.await(slackGateway.chatPostMessage(slackBotToken, req -> req
                     .channel(slackChannelId)
                     .text("ERR0R: The command $" + command + " is not recognized. Supported commands are: $actualHours=<hours>, $internal, $resolution, $ninja, $emailCc, $cc=<email1>;<email2>;<email3>, $am")
                     .mrkdwn(true)
-                );                
+                ));
                 
                 throw new IOException("The command $" + command + " is not recognized.");
             }
@@ -566,7 +1042,7 @@ public class ConnectwiseService {
     public String addTimeEntryToTicket(String companyId2, String ticketId, TimeEntry timeEntry) throws IOException, InterruptedException {
         java.util.Map<String, Object> payload = new java.util.HashMap<>();
 
-        Ticket ticket = fetchTicketById(companyId2, ticketId);
+        Ticket ticket = fetchTicketHeaderById(ticketId);
 
         payload.put("company", ticket.getCompany());
         payload.put("companyType", "Client");
@@ -588,8 +1064,7 @@ public class ConnectwiseService {
         payload.put("invoiceReady", 1);
 
         // Prepare to send the request to ConnectWise API
-        ObjectMapper mapper = new ObjectMapper();
-        String json = mapper.writeValueAsString(payload);
+        byte[] json = JsonCodec.writeBytes(payload);
 
         String endpoint = "/time/entries";
 
@@ -599,11 +1074,11 @@ public class ConnectwiseService {
             .header("Authorization", buildAuthHeader())
             .header("clientId", clientId)
             .header("Content-Type", "application/json")
-            .POST(BodyPublishers.ofString(json))
+            .POST(BodyPublishers.ofByteArray(json))
             .build();
         
         // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request, transport.ofString());
         String jsonResponse = response.body();
 
         return jsonResponse;
@@ -638,8 +1113,7 @@ public class ConnectwiseService {
         payload.put("sentimentScore", 1);
 
         // Prepare to send the request to ConnectWise API
-        ObjectMapper mapper = new ObjectMapper();
-        String json = mapper.writeValueAsString(payload);
+        byte[] json = JsonCodec.writeBytes(payload);
 
         String endpoint = "/service/tickets/" + ticketId + "/notes";
 
@@ -648,15 +1122,15 @@ public class ConnectwiseService {
             .header("Authorization", buildAuthHeader())
             .header("clientId", clientId)
             .header("Content-Type", "application/json")
-            .POST(BodyPublishers.ofString(json))
+            .POST(BodyPublishers.ofByteArray(json))
             .build();
 
         // Receive and process the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request, transport.ofString());
         String jsonResponse = response.body();
 
         // Parse the API response JSON into a Note object
-        //Note createdNote = mapper.readValue(jsonResponse, Note.class);
+        //Note createdNote = JsonCodec.NOTE.readValue(jsonResponse);
 
         //Ticket ticket = fetchTicketById(companyId2, ticketId);
 
@@ -698,8 +1172,7 @@ public class ConnectwiseService {
         ownerOp.put("value", ownerVal);
         ops.add(ownerOp);
 
-        ObjectMapper mapper = new ObjectMapper();
-        String json = mapper.writeValueAsString(ops);
+        byte[] json = JsonCodec.writeBytes(ops);
 
         String endpoint = "/service/tickets/" + ticketId;
 
@@ -708,10 +1181,10 @@ public class ConnectwiseService {
             .header("Authorization", buildAuthHeader())
             .header("clientId", clientId)
             .header("Content-Type", "application/json") // try application/json-patch+json if needed
-            .method("PATCH", BodyPublishers.ofString(json))
+            .method("PATCH", BodyPublishers.ofByteArray(json))
             .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request, transport.ofString());
         log.info("Assigned ticketId={} to user={}", ticketId, userIdentifier);
     }
 
@@ -742,14 +1215,7 @@ public class ConnectwiseService {
             .GET()
             .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        int statusCode = response.statusCode();
-        if (statusCode < 200 || statusCode >= 300) {
-            throw new IOException("ConnectWise member lookup failed with HTTP " + statusCode + ". Body: " + safeBodySnippet(response.body()));
-        }
-
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(response.body());
+        JsonNode root = sendForJson(request, JsonCodec.TREE, "member lookup");
         if (!root.isArray() || root.isEmpty()) {
             return null;
         }
@@ -785,8 +1251,7 @@ public class ConnectwiseService {
         statusOp.put("value", statusVal);
         ops.add(statusOp);
 
-        ObjectMapper mapper = new ObjectMapper();
-        String json = mapper.writeValueAsString(ops);
+        byte[] json = JsonCodec.writeBytes(ops);
         String endpoint = "/service/tickets/" + ticketId;
 
         HttpRequest request = HttpRequest.newBuilder()
@@ -794,10 +1259,10 @@ public class ConnectwiseService {
             .header("Authorization", buildAuthHeader())
             .header("clientId", clientId)
             .header("Content-Type", "application/json")
-            .method("PATCH", BodyPublishers.ofString(json))
+            .method("PATCH", BodyPublishers.ofByteArray(json))
             .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request, transport.ofString());
         int statusCode = response.statusCode();
         if (statusCode < 200 || statusCode >= 300) {
             throw new IOException("ConnectWise ticket status update failed with HTTP " + statusCode + ". Body: " + safeBodySnippet(response.body()));
@@ -0,0 +1,281 @@
+package com.slackwise.slackwise.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * HTTP transport for the ConnectWise API.
+ *
+ * One shared HttpClient prefers HTTP/2 (negotiated over TLS, falling back to HTTP/1.1 keep-alive) so concurrent
+ * enrichment calls reuse pooled connections instead of handshaking per request. Every request advertises
+ * {@code Accept-Encoding: gzip, deflate} and the body handlers here decode the response transparently, counting
+ * bytes on the wire against decoded bytes.
+ */
+@Service
+public class ConnectwiseTransport implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(ConnectwiseTransport.class);
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    @Value("${connectwise.timeout.connect-ms:3000}")
+    private long connectTimeoutMillis;
+
+    // 0 runs the client's async work on virtual threads; otherwise a fixed pool of this size
+    @Value("${connectwise.http.executor-threads:0}")
+    private int executorThreads;
+
+    @Value("${connectwise.http.prefer-http2:true}")
+    private boolean preferHttp2;
+
+    private ExecutorService executor;
+    private HttpClient client;
+
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private final Map<String, AtomicLong> responsesByEncoding = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> responsesByVersion = new ConcurrentHashMap<>();
+    private volatile String lastWarmUp = "not run";
+
+    @PostConstruct
+    public void init() {
+        executor = executorThreads > 0
+            ? Executors.newFixedThreadPool(executorThreads, Thread.ofPlatform().name("connectwise-http-", 0).daemon().factory())
+            : Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+            .version(preferHttp2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+            .executor(executor)
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        client.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends a request, asking for a compressed response.
+     *
+     * @param request the request
+     * @param handler one of {@link #ofInputStream()} or {@link #ofString()} to get a decoded body
+     * @return the response
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        return client.send(withAcceptEncoding(request), handler);
+    }
+
+    /**
+     * Opens {@code connections} requests in parallel so TLS handshakes and HTTP/2 negotiation happen before the
+     * first real call. Failures are logged, never thrown.
+     */
+    public CompletableFuture<Void> warmUp(HttpRequest request, int connections) {
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<InputStream>>> calls = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, connections); i++) {
+            calls.add(client.sendAsync(withAcceptEncoding(request), ofInputStream()));
+        }
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+            .handle((ignored, error) -> {
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                if (error != null) {
+                    lastWarmUp = "failed after " + elapsedMillis + " ms: " + error.getMessage();
+                    log.warn("ConnectWise connection warm-up failed after {} ms", elapsedMillis, error);
+                } else {
+                    HttpResponse<InputStream> first = calls.get(0).join();
+                    lastWarmUp = first.version() + " status " + first.statusCode() + " in " + elapsedMillis + " ms";
+                    log.info("ConnectWise connections warmed: {}", lastWarmUp);
+                }
+                calls.forEach(call -> call.thenAccept(ConnectwiseRateLimiter::discardBody));
+                return null;
+            });
+    }
+
+    private static HttpRequest withAcceptEncoding(HttpRequest request) {
+        return HttpRequest.newBuilder(request, (name, value) -> !name.equalsIgnoreCase("Accept-Encoding"))
+            .header("Accept-Encoding", ACCEPT_ENCODING)
+            .build();
+    }
+
+    /**
+     * Body handler that yields the decoded response as a stream. Decompression happens as the stream is read.
+     */
+    public HttpResponse.BodyHandler<InputStream> ofInputStream() {
+        return info -> {
+            String encoding = recordResponse(info);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                raw -> decode(raw, encoding));
+        };
+    }
+
+    /**
+     * Body handler that yields the decoded response as a UTF-8 string.
+     */
+    public HttpResponse.BodyHandler<String> ofString() {
+        return info -> {
+            String encoding = recordResponse(info);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+                try (InputStream in = decode(new ByteArrayInputStream(bytes), encoding)) {
+                    return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    private String recordResponse(HttpResponse.ResponseInfo info) {
+        String encoding = info.headers().firstValue("Content-Encoding").orElse("identity").trim().toLowerCase(Locale.ROOT);
+        responsesByEncoding.computeIfAbsent(encoding, k -> new AtomicLong()).incrementAndGet();
+        responsesByVersion.computeIfAbsent(info.version().name(), k -> new AtomicLong()).incrementAndGet();
+        return encoding;
+    }
+
+    private InputStream decode(InputStream raw, String encoding) {
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new LazyDecodingInputStream(() -> new CountingInputStream(
+                new GZIPInputStream(new CountingInputStream(raw, wireBytes), 8192), decodedBytes), raw);
+            case "deflate" -> new LazyDecodingInputStream(() -> new CountingInputStream(
+                new InflaterInputStream(new CountingInputStream(raw, wireBytes)), decodedBytes), raw);
+            // Uncompressed: every byte on the wire is also a decoded byte
+            default -> new CountingInputStream(raw, wireBytes, decodedBytes);
+        };
+    }
+
+    private interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Defers building the decompressing stream to the first read. GZIPInputStream reads the header in its
+     * constructor, which must not happen on the HTTP client's thread when the body handler is set up.
+     */
+    private static class LazyDecodingInputStream extends InputStream {
+        private final StreamOpener opener;
+        private final InputStream raw;
+        private InputStream decoded;
+
+        LazyDecodingInputStream(StreamOpener opener, InputStream raw) {
+            this.opener = opener;
+            this.raw = raw;
+        }
+
+        private InputStream decoded() throws IOException {
+            if (decoded == null) {
+                try {
+                    decoded = opener.open();
+                } catch (EOFException e) {
+                    // Empty body despite a Content-Encoding header
+                    decoded = InputStream.nullInputStream();
+                }
+            }
+            return decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return decoded().read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoded != null) {
+                decoded.close();
+            }
+            raw.close();
+        }
+    }
+
+    /**
+     * Adds every byte read to the given counters.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong[] counters;
+
+        CountingInputStream(InputStream in, AtomicLong... counters) {
+            super(in);
+            this.counters = counters;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            for (AtomicLong counter : counters) {
+                counter.addAndGet(n);
+            }
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "connectwiseTransport";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long wire = wireBytes.get();
+        long decoded = decodedBytes.get();
+        snapshot.put("wireBytes", wire);
+        snapshot.put("decodedBytes", decoded);
+        snapshot.put("compressionRatio", wire == 0 ? 1.0 : (double) decoded / wire);
+        Map<String, Long> encodings = new LinkedHashMap<>();
+        responsesByEncoding.forEach((k, v) -> encodings.put(k, v.get()));
+        snapshot.put("responsesByEncoding", encodings);
+        Map<String, Long> versions = new LinkedHashMap<>();
+        responsesByVersion.forEach((k, v) -> versions.put(k, v.get()));
+        snapshot.put("responsesByVersion", versions);
+        snapshot.put("lastWarmUp", lastWarmUp);
+        return snapshot;
+    }
+}
@@ -0,0 +1,29 @@
+package com.slackwise.slackwise.service;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown without calling out when a downstream's circuit breaker is open. Surfaces as 503 if it reaches a controller.
+ */
+public class DownstreamUnavailableException extends ResponseStatusException {
+
+    private final String downstream;
+    private final Duration retryAfter;
+
+    public DownstreamUnavailableException(String downstream, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, downstream + " is unavailable (circuit open)");
+        this.downstream = downstream;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,162 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.util.EventJournal;
+import com.slackwise.slackwise.util.JsonCodec;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-ahead journal for inbound webhooks, so an event that was acknowledged to its sender survives a restart.
+ *
+ * Each source has its own {@link EventJournal} stream under {@code journal.directory}. Callers {@link #record} an
+ * event before acknowledging it, {@link #acknowledge} it once processing has finished (successfully or not), and
+ * {@link #replay} whatever was left unacknowledged when the application starts. Delivery is at-least-once: an event
+ * that finished just before a crash, ahead of the next checkpoint, is processed again.
+ *
+ * With {@code journal.enabled=false} nothing is written, {@link #record} returns -1 and replay finds nothing.
+ */
+@Service
+public class InboundEventJournal implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(InboundEventJournal.class);
+
+    public static final String CONNECTWISE = "connectwise";
+    public static final String SLACK = "slack";
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.directory:data/journal}")
+    private String directory;
+
+    @Value("${journal.segment-bytes:16777216}")
+    private int segmentBytes;
+
+    @Value("${journal.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMillis;
+
+    @Value("${journal.retained-segments:1}")
+    private int retainedSegments;
+
+    @Value("${journal.sync-timeout-ms:2000}")
+    private long syncTimeoutMillis;
+
+    private final Map<String, EventJournal> streams = new ConcurrentHashMap<>();
+
+    /**
+     * Receives one unacknowledged event during replay.
+     */
+    public interface ReplayHandler {
+        void handle(long sequence, Map<String, Object> event) throws InterruptedException;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            log.info("Inbound event journal disabled");
+            return;
+        }
+        for (String stream : new String[] { CONNECTWISE, SLACK }) {
+            EventJournal journal = new EventJournal(Path.of(directory, stream), segmentBytes, checkpointIntervalMillis, retainedSegments);
+            streams.put(stream, journal);
+            log.info("Opened {} event journal at {}: {}", stream, Path.of(directory, stream).toAbsolutePath(), journal.snapshot());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        streams.values().forEach(EventJournal::close);
+    }
+
+    /**
+     * Writes an event and waits until it is on disk.
+     *
+     * @param stream {@link #CONNECTWISE} or {@link #SLACK}
+     * @param event JSON-serializable event
+     * @return sequence to pass to {@link #acknowledge}, or -1 when the journal is disabled
+     * @throws IOException if the event could not be made durable in time; the sender should retry
+     */
+    public long record(String stream, Map<String, Object> event) throws IOException {
+        EventJournal journal = streams.get(stream);
+        if (journal == null) {
+            return -1;
+        }
+        try {
+            return journal.append(JsonCodec.writeBytes(event)).get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + stream + " journal sync");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to sync " + stream + " journal", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out after " + syncTimeoutMillis + " ms waiting for " + stream + " journal sync");
+        }
+    }
+
+    /**
+     * Marks an event as processed so it is not replayed. Ignores -1.
+     */
+    public void acknowledge(String stream, long sequence) {
+        EventJournal journal = streams.get(stream);
+        if (journal != null && sequence >= 0) {
+            journal.acknowledge(sequence);
+        }
+    }
+
+    /**
+     * Hands every unacknowledged event of a stream to {@code handler}, oldest first.
+     *
+     * @return number of events replayed
+     */
+    public int replay(String stream, ReplayHandler handler) throws IOException, InterruptedException {
+        EventJournal journal = streams.get(stream);
+        if (journal == null) {
+            return 0;
+        }
+        int replayed = 0;
+        for (EventJournal.Record record : journal.replay()) {
+            Map<String, Object> event;
+            try {
+                event = JsonCodec.MAP.readValue(record.getPayload());
+            } catch (IOException e) {
+                log.error("Skipping unreadable {} journal record sequence={}", stream, record.getSequence(), e);
+                journal.acknowledge(record.getSequence());
+                continue;
+            }
+            handler.handle(record.getSequence(), event);
+            replayed++;
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} unacknowledged {} events from the journal", replayed, stream);
+        }
+        return replayed;
+    }
+
+    @Override
+    public String metricsName() {
+        return "inboundJournal";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        streams.forEach((stream, journal) -> snapshot.put(stream, journal.snapshot()));
+        return snapshot;
+    }
+}
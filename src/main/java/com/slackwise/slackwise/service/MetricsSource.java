@@ -0,0 +1,19 @@
+package com.slackwise.slackwise.service;
+
+import java.util.Map;
+
+/**
+ * Component that reports runtime counters through {@code GET /api/metrics}.
+ */
+public interface MetricsSource {
+
+    /**
+     * Key the snapshot is published under.
+     */
+    String metricsName();
+
+    /**
+     * Point-in-time view of the component's counters. Must be cheap and safe to call from any thread.
+     */
+    Map<String, Object> metricsSnapshot();
+}
@@ -0,0 +1,100 @@
+package com.slackwise.slackwise.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.slackwise.slackwise.model.Ticket;
+
+/**
+ * Locally held copy of a company's open tickets, ordered by id descending like the ConnectWise query.
+ * Tracks the newest {@code _info.lastUpdated} seen so later refreshes only need tickets changed since then.
+ * Not thread safe; callers synchronize on the snapshot.
+ */
+class OpenTicketSnapshot {
+
+    private final Map<Integer, Ticket> ticketsById = new TreeMap<>(Comparator.reverseOrder());
+    private Instant watermark;
+    private Instant lastFullSync;
+
+    /**
+     * A full query is needed on first use, after the resync interval, or while no ticket timestamps have been seen.
+     * The watermark only ever comes from ConnectWise timestamps, so clock skew with the local host does not matter.
+     */
+    boolean needsFullSync(Instant now, Duration fullSyncInterval) {
+        return lastFullSync == null || watermark == null || now.isAfter(lastFullSync.plus(fullSyncInterval));
+    }
+
+    void requestFullSync() {
+        lastFullSync = null;
+    }
+
+    /**
+     * Replaces the snapshot with the result of a full open ticket query that started at {@code startedAt}.
+     */
+    void replaceAll(Collection<Ticket> openTickets, Instant startedAt) {
+        ticketsById.clear();
+        watermark = null;
+        for (Ticket ticket : openTickets) {
+            ticketsById.put(ticket.getId(), ticket);
+            advanceWatermark(ticket);
+        }
+        lastFullSync = startedAt;
+    }
+
+    /**
+     * Whether a ticket returned by a delta query differs from the copy already held.
+     */
+    boolean isChanged(Ticket ticket) {
+        Ticket existing = ticketsById.get(ticket.getId());
+        if (existing == null) {
+            return true;
+        }
+        String before = lastUpdatedOf(existing);
+        String after = lastUpdatedOf(ticket);
+        return before == null || after == null || !before.equals(after);
+    }
+
+    void upsert(Ticket ticket) {
+        ticketsById.put(ticket.getId(), ticket);
+        advanceWatermark(ticket);
+    }
+
+    void evict(Ticket ticket) {
+        ticketsById.remove(ticket.getId());
+        advanceWatermark(ticket);
+    }
+
+    Instant getWatermark() {
+        return watermark;
+    }
+
+    List<Ticket> tickets() {
+        return new ArrayList<>(ticketsById.values());
+    }
+
+    private void advanceWatermark(Ticket ticket) {
+        String lastUpdated = lastUpdatedOf(ticket);
+        if (lastUpdated == null) {
+            return;
+        }
+        try {
+            Instant updated = Instant.parse(lastUpdated);
+            if (watermark == null || updated.isAfter(watermark)) {
+                watermark = updated;
+            }
+        } catch (DateTimeParseException e) {
+            // Leave the watermark alone; the next full sync will pick the ticket up again
+        }
+    }
+
+    private static String lastUpdatedOf(Ticket ticket) {
+        return ticket.getInfo() != null ? ticket.getInfo().getLastUpdated() : null;
+    }
+}
@@ -0,0 +1,290 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hedges idempotent ConnectWise reads to cut tail latency.
+ *
+ * The primary request is sent straight away. If it has not answered by the operation's recent p95 latency, a second
+ * copy is sent and whichever succeeds first is returned; the other is interrupted and its body discarded. Hedges are
+ * paid for from a budget that grows by {@code connectwise.hedge.budget-percent} of each request, so hedging never adds
+ * more than that share of extra load.
+ */
+@Service
+public class RequestHedger implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(RequestHedger.class);
+
+    // Latencies kept per operation for the p95 estimate
+    private static final int LATENCY_WINDOW = 256;
+    // Samples needed before an operation's p95 is trusted
+    private static final int MIN_SAMPLES = 20;
+    // Cap on saved-up hedge credits so a quiet period cannot fund a burst of hedges
+    private static final double MAX_BUDGET = 10.0;
+
+    @Value("${connectwise.hedge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${connectwise.hedge.budget-percent:5}")
+    private double budgetPercent;
+
+    @Value("${connectwise.hedge.min-delay-ms:50}")
+    private long minDelayMillis;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private final Object budgetLock = new Object();
+    private double budget;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesSkipped = new AtomicLong();
+
+    /**
+     * Sends a read, hedging it once if the primary is slower than the operation's p95.
+     *
+     * @param operation name latencies are tracked under
+     * @param send performs one exchange; must be safe to run twice concurrently
+     * @return the first successful response, or the primary's failure if both attempts fail
+     */
+    public <T> HttpResponse<T> execute(String operation, ConnectwiseRateLimiter.RemoteCall<HttpResponse<T>> send)
+            throws IOException, InterruptedException {
+        if (!enabled) {
+            return send.call();
+        }
+
+        requests.incrementAndGet();
+        synchronized (budgetLock) {
+            budget = Math.min(MAX_BUDGET, budget + budgetPercent / 100.0);
+        }
+
+        LatencyWindow window = latencies.computeIfAbsent(operation, k -> new LatencyWindow());
+        long thresholdMillis = window.p95Millis();
+
+        Race<T> race = new Race<>();
+        Attempt<T> primary = race.start(send, window, false);
+
+        // Too few samples to know what "slow" is yet; just wait for the primary
+        if (thresholdMillis < 0) {
+            return race.await(primary, null);
+        }
+
+        try {
+            return primary.result.get(Math.max(minDelayMillis, thresholdMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Primary is in its tail; hedge if the budget allows
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            primary.cancel();
+            throw e;
+        }
+
+        if (!tryConsumeBudget()) {
+            hedgesSkipped.incrementAndGet();
+            return race.await(primary, null);
+        }
+
+        hedgesFired.incrementAndGet();
+        log.debug("Hedging {} after {} ms", operation, Math.max(minDelayMillis, thresholdMillis));
+        Attempt<T> hedge = race.start(send, window, true);
+        return race.await(primary, hedge);
+    }
+
+    private boolean tryConsumeBudget() {
+        synchronized (budgetLock) {
+            if (budget >= 1.0) {
+                budget -= 1.0;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Rethrows an attempt's failure as-is when it is unchecked, I/O or interruption; anything else is wrapped.
+     */
+    private static IOException rethrow(Throwable cause) throws IOException, InterruptedException {
+        if (cause instanceof IOException e) {
+            throw e;
+        }
+        if (cause instanceof InterruptedException e) {
+            throw e;
+        }
+        if (cause instanceof RuntimeException e) {
+            throw e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * One in-flight copy of the request.
+     */
+    private static class Attempt<T> {
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        final boolean hedge;
+        Future<?> task;
+
+        Attempt(boolean hedge) {
+            this.hedge = hedge;
+        }
+
+        void cancel() {
+            if (task != null) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Primary and hedge racing for one logical request. The first success wins; a response that arrives
+     * after the race is decided is discarded so its connection is released.
+     */
+    private class Race<T> {
+        private final AtomicBoolean decided = new AtomicBoolean();
+        private final CompletableFuture<Attempt<T>> winner = new CompletableFuture<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile int started;
+
+        Attempt<T> start(ConnectwiseRateLimiter.RemoteCall<HttpResponse<T>> send, LatencyWindow window, boolean hedge) {
+            Attempt<T> attempt = new Attempt<>(hedge);
+            started++;
+            attempt.task = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<T> response = send.call();
+                    window.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    attempt.result.complete(response);
+                    if (decided.compareAndSet(false, true)) {
+                        winner.complete(attempt);
+                    } else {
+                        ConnectwiseRateLimiter.discardBody(response);
+                    }
+                } catch (Throwable e) {
+                    attempt.result.completeExceptionally(e);
+                    if (failures.incrementAndGet() >= started && decided.compareAndSet(false, true)) {
+                        winner.completeExceptionally(e);
+                    }
+                }
+            });
+            return attempt;
+        }
+
+        HttpResponse<T> await(Attempt<T> primary, Attempt<T> hedge) throws IOException, InterruptedException {
+            try {
+                Attempt<T> won = winner.get();
+                if (won.hedge) {
+                    hedgesWon.incrementAndGet();
+                    primary.cancel();
+                } else if (hedge != null) {
+                    hedge.cancel();
+                }
+                return won.result.get();
+            } catch (ExecutionException e) {
+                // Both copies failed; report the primary's error
+                Throwable cause = primary.result.isCompletedExceptionally() ? causeOf(primary) : e.getCause();
+                throw rethrow(cause);
+            } catch (InterruptedException e) {
+                primary.cancel();
+                if (hedge != null) {
+                    hedge.cancel();
+                }
+                throw e;
+            }
+        }
+
+        private Throwable causeOf(Attempt<T> attempt) {
+            try {
+                attempt.result.get();
+                return null;
+            } catch (ExecutionException | InterruptedException e) {
+                return e instanceof ExecutionException ? e.getCause() : e;
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of recent successful latencies for one operation.
+     */
+    private static class LatencyWindow {
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private int count;
+        private int next;
+        private long cachedP95 = -1;
+        private int sinceRecompute;
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % LATENCY_WINDOW;
+            count = Math.min(LATENCY_WINDOW, count + 1);
+            // Re-sorting on every call is wasteful; a slightly stale p95 is fine
+            if (++sinceRecompute >= 16 || cachedP95 < 0) {
+                sinceRecompute = 0;
+                cachedP95 = count < MIN_SAMPLES ? -1 : percentile(0.95);
+            }
+        }
+
+        synchronized long p95Millis() {
+            return cachedP95;
+        }
+
+        private long percentile(double p) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(p * count) - 1)];
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String metricsName() {
+        return "connectwiseHedging";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long total = requests.get();
+        long fired = hedgesFired.get();
+        snapshot.put("enabled", enabled);
+        snapshot.put("requests", total);
+        snapshot.put("hedgesFired", fired);
+        snapshot.put("hedgesWon", hedgesWon.get());
+        snapshot.put("hedgesSkippedForBudget", hedgesSkipped.get());
+        snapshot.put("extraLoadPercent", total == 0 ? 0.0 : 100.0 * fired / total);
+        Map<String, Object> thresholds = new LinkedHashMap<>();
+        latencies.forEach((operation, window) -> thresholds.put(operation, window.p95Millis()));
+        snapshot.put("p95MillisByOperation", thresholds);
+        return snapshot;
+    }
+}
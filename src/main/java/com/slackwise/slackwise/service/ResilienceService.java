@@ -0,0 +1,275 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slack.api.methods.SlackApiException;
+
+import jakarta.annotation.PostConstruct;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+/**
+ * Circuit breakers and retry policy for the three downstreams: ConnectWise, Slack and DynamoDB.
+ *
+ * Every call takes a permit from the downstream's breaker first, so once a downstream is failing, callers get a
+ * {@link DownstreamUnavailableException} immediately instead of waiting out a timeout. Only idempotent ConnectWise
+ * GETs are retried here, with decorrelated jitter between attempts; DynamoDB retries are left to the AWS SDK and
+ * Slack posts are never retried because they are not idempotent.
+ */
+@Service
+public class ResilienceService implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(ResilienceService.class);
+
+    public enum Downstream {
+        CONNECTWISE,
+        SLACK,
+        DYNAMODB
+    }
+
+    /**
+     * Work whose downstream calls are counted by {@link #tallyCalls}.
+     */
+    @FunctionalInterface
+    public interface TalliedTask<T> {
+        T run() throws Exception;
+    }
+
+    // Inheritable so calls made from threads the task starts (e.g. the ticket fetch fan-out) count towards it too
+    private static final InheritableThreadLocal<AtomicInteger> CALL_TALLY = new InheritableThreadLocal<>();
+
+    @Value("${resilience.breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${resilience.breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${resilience.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${resilience.breaker.open-seconds:30}")
+    private long breakerOpenSeconds;
+
+    @Value("${resilience.breaker.half-open-calls:3}")
+    private int breakerHalfOpenCalls;
+
+    @Value("${resilience.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${resilience.retry.base-delay-ms:100}")
+    private long retryBaseDelayMillis;
+
+    @Value("${resilience.retry.max-delay-ms:2000}")
+    private long retryMaxDelayMillis;
+
+    private final Map<Downstream, CircuitBreaker> breakers = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, AtomicLong> retries = new EnumMap<>(Downstream.class);
+
+    @PostConstruct
+    public void init() {
+        for (Downstream downstream : Downstream.values()) {
+            breakers.put(downstream, new CircuitBreaker(downstream.name().toLowerCase(), breakerWindowSize, breakerMinimumCalls,
+                breakerFailureRate, Duration.ofSeconds(breakerOpenSeconds), breakerHalfOpenCalls));
+            retries.put(downstream, new AtomicLong());
+        }
+    }
+
+    /**
+     * Runs {@code task}, adding every downstream call attempt it makes to {@code tally}.
+     */
+    public static <T> T tallyCalls(AtomicInteger tally, TalliedTask<T> task) throws Exception {
+        AtomicInteger previous = CALL_TALLY.get();
+        CALL_TALLY.set(tally);
+        try {
+            return task.run();
+        } finally {
+            if (previous == null) {
+                CALL_TALLY.remove();
+            } else {
+                CALL_TALLY.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Sends a ConnectWise request through the breaker. Idempotent requests are retried on I/O errors and
+     * 502/503/504 responses; the last response is returned once attempts run out so callers still see the status.
+     *
+     * @param idempotent whether the request may safely be sent more than once
+     * @param send performs one HTTP exchange
+     * @return the HTTP response
+     * @throws DownstreamUnavailableException if the ConnectWise breaker is open
+     */
+    public <T> HttpResponse<T> exchange(boolean idempotent, ConnectwiseRateLimiter.RemoteCall<HttpResponse<T>> send)
+            throws IOException, InterruptedException {
+        CircuitBreaker breaker = breakers.get(Downstream.CONNECTWISE);
+        int maxAttempts = idempotent ? Math.max(1, retryMaxAttempts) : 1;
+        long delayMillis = retryBaseDelayMillis;
+
+        for (int attempt = 1; ; attempt++) {
+            acquire(breaker);
+            HttpResponse<T> response;
+            try {
+                response = send.call();
+            } catch (InterruptedException | InterruptedIOException e) {
+                breaker.onIgnored();
+                throw e;
+            } catch (IOException e) {
+                breaker.onFailure();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("ConnectWise request failed (attempt {}), retrying", attempt, e);
+                delayMillis = backoff(Downstream.CONNECTWISE, delayMillis);
+                continue;
+            } catch (RuntimeException e) {
+                breaker.onIgnored();
+                throw e;
+            }
+
+            int status = response.statusCode();
+            if (status >= 500) {
+                breaker.onFailure();
+            } else if (status == 429) {
+                // Throttling is the rate limiter's concern, not a sign the service is down
+                breaker.onIgnored();
+            } else {
+                breaker.onSuccess();
+            }
+
+            if (!isRetryableStatus(status) || attempt >= maxAttempts) {
+                return response;
+            }
+            log.debug("ConnectWise returned {} (attempt {}), retrying", status, attempt);
+            ConnectwiseRateLimiter.discardBody(response);
+            delayMillis = backoff(Downstream.CONNECTWISE, delayMillis);
+        }
+    }
+
+    /**
+     * Runs an asynchronous Slack Web API call through the Slack breaker. The breaker records the outcome when the
+     * returned future completes.
+     *
+     * @param call starts the API call
+     * @return the call's future
+     * @throws DownstreamUnavailableException if the Slack breaker is open
+     */
+    public <T> CompletableFuture<T> slack(Supplier<CompletableFuture<T>> call) {
+        CircuitBreaker breaker = breakers.get(Downstream.SLACK);
+        acquire(breaker);
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            breaker.onIgnored();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null) {
+                breaker.onSuccess();
+            } else if (cause instanceof SlackApiException e) {
+                // Non-200 from Slack; only server errors count against the breaker
+                if (e.getResponse() != null && e.getResponse().code() >= 500) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onIgnored();
+                }
+            } else if (cause instanceof IOException && !(cause instanceof InterruptedIOException)) {
+                breaker.onFailure();
+            } else {
+                breaker.onIgnored();
+            }
+        });
+    }
+
+    /**
+     * Runs a DynamoDB call through the DynamoDB breaker. Client errors such as failed conditions do not count
+     * as failures; timeouts, throttling and 5xx do.
+     *
+     * @param call the DynamoDB call
+     * @return its result
+     * @throws DownstreamUnavailableException if the DynamoDB breaker is open
+     */
+    public <T> T dynamo(Supplier<T> call) {
+        CircuitBreaker breaker = breakers.get(Downstream.DYNAMODB);
+        acquire(breaker);
+        try {
+            T result = call.get();
+            breaker.onSuccess();
+            return result;
+        } catch (SdkClientException e) {
+            breaker.onFailure();
+            throw e;
+        } catch (AwsServiceException e) {
+            if (e.statusCode() >= 500 || e.isThrottlingException()) {
+                breaker.onFailure();
+            } else {
+                breaker.onIgnored();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onIgnored();
+            throw e;
+        }
+    }
+
+    private static void acquire(CircuitBreaker breaker) {
+        if (!breaker.tryAcquire()) {
+            throw new DownstreamUnavailableException(breaker.getName(), breaker.remainingOpen());
+        }
+        AtomicInteger tally = CALL_TALLY.get();
+        if (tally != null) {
+            tally.incrementAndGet();
+        }
+    }
+
+    private static boolean isRetryableStatus(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Sleeps with decorrelated jitter: a random delay between the base and three times the previous delay, capped.
+     *
+     * @return the delay that was slept, to seed the next one
+     */
+    private long backoff(Downstream downstream, long previousDelayMillis) throws InterruptedException {
+        long upper = Math.max(retryBaseDelayMillis + 1, previousDelayMillis * 3);
+        long delay = Math.min(retryMaxDelayMillis, ThreadLocalRandom.current().nextLong(retryBaseDelayMillis, upper));
+        retries.get(downstream).incrementAndGet();
+        Thread.sleep(delay);
+        return delay;
+    }
+
+    @Override
+    public String metricsName() {
+        return "resilience";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Downstream downstream : Downstream.values()) {
+            Map<String, Object> stats = breakers.get(downstream).snapshot();
+            stats.put("retries", retries.get(downstream).get());
+            snapshot.put(downstream.name().toLowerCase(), stats);
+        }
+        return snapshot;
+    }
+}
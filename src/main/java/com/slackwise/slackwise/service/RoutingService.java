@@ -26,6 +26,10 @@ public class RoutingService {
         return defaultChannelId;
     }
 
+    public RoutingRule resolveRule(TicketContext context) {
+        return resolveRule(context.getTenantId(), context.getTicket());
+    }
+
     public RoutingRule resolveRule(String tenantId, Ticket ticket) {
         List<RoutingRule> rules = amazonService.getRoutingRules(tenantId);
         for (RoutingRule rule : rules) {
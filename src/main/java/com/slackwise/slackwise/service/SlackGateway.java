@@ -0,0 +1,161 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slack.api.RequestConfigurator;
+import com.slack.api.Slack;
+import com.slack.api.SlackConfig;
+import com.slack.api.methods.AsyncMethodsClient;
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.chat.ChatDeleteRequest;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatDeleteResponse;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The one way out to the Slack Web API. Holds a single timeout-configured {@link Slack} instance and one
+ * {@link AsyncMethodsClient} per bot token, created on first use and reused afterwards, so tenants with their own
+ * tokens share the same connection pool and no call builds a new client.
+ *
+ * Calls return futures completed on the Slack SDK's own executor, so the caller's thread is not held for the HTTP
+ * exchange; callers that need the answer right away use {@link #await(CompletableFuture)}. Every call goes through
+ * the Slack circuit breaker in {@link ResilienceService}.
+ */
+@Service
+public class SlackGateway implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(SlackGateway.class);
+
+    @Autowired
+    private ResilienceService resilience;
+
+    @Value("${slack.timeout.read-ms:10000}")
+    private int readTimeoutMillis;
+
+    @Value("${slack.timeout.write-ms:10000}")
+    private int writeTimeoutMillis;
+
+    @Value("${slack.timeout.call-ms:15000}")
+    private int callTimeoutMillis;
+
+    // Threads the SDK runs a workspace's calls on
+    @Value("${slack.gateway.threads-per-workspace:8}")
+    private int threadsPerWorkspace;
+
+    private Slack slack;
+    private final Map<String, AsyncMethodsClient> clients = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        SlackConfig config = new SlackConfig();
+        config.setHttpClientReadTimeoutMillis(readTimeoutMillis);
+        config.setHttpClientWriteTimeoutMillis(writeTimeoutMillis);
+        config.setHttpClientCallTimeoutMillis(callTimeoutMillis);
+        config.getMethodsConfig().setDefaultThreadPoolSize(Math.max(1, threadsPerWorkspace));
+        slack = Slack.getInstance(config);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            slack.close();
+        } catch (Exception e) {
+            log.debug("Failed to close Slack client", e);
+        }
+    }
+
+    public CompletableFuture<ChatPostMessageResponse> chatPostMessage(String token,
+            RequestConfigurator<ChatPostMessageRequest.ChatPostMessageRequestBuilder> request) {
+        return call("chat.postMessage", token, methods -> methods.chatPostMessage(request));
+    }
+
+    public CompletableFuture<ChatUpdateResponse> chatUpdate(String token,
+            RequestConfigurator<ChatUpdateRequest.ChatUpdateRequestBuilder> request) {
+        return call("chat.update", token, methods -> methods.chatUpdate(request));
+    }
+
+    public CompletableFuture<ChatDeleteResponse> chatDelete(String token,
+            RequestConfigurator<ChatDeleteRequest.ChatDeleteRequestBuilder> request) {
+        return call("chat.delete", token, methods -> methods.chatDelete(request));
+    }
+
+    private <T> CompletableFuture<T> call(String method, String token, Function<AsyncMethodsClient, CompletableFuture<T>> call) {
+        calls.computeIfAbsent(method, key -> new AtomicLong()).incrementAndGet();
+        AsyncMethodsClient methods = clients.computeIfAbsent(token, slack::methodsAsync);
+        return resilience.slack(() -> call.apply(methods)).whenComplete((response, error) -> {
+            if (error != null) {
+                failures.computeIfAbsent(method, key -> new AtomicLong()).incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Waits for a Slack call and rethrows its failure as the checked exception the blocking client would have thrown.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException, SlackApiException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) throws IOException, SlackApiException {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException io) {
+            throw io;
+        }
+        if (cause instanceof SlackApiException slackError) {
+            throw slackError;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    @Override
+    public String metricsName() {
+        return "slackGateway";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> methods = new TreeMap<>();
+        calls.forEach((method, count) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("calls", count.get());
+            AtomicLong failed = failures.get(method);
+            stats.put("failures", failed != null ? failed.get() : 0L);
+            methods.put(method, stats);
+        });
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("cachedClients", clients.size());
+        snapshot.put("methods", methods);
+        return snapshot;
+    }
+}
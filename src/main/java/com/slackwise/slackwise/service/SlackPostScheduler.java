@@ -0,0 +1,298 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.SlackApiTextResponse;
+import com.slackwise.slackwise.util.KeyedExecutor;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Paces outbound Slack posts to stay inside the Web API rate limits instead of failing when they are hit.
+ *
+ * Every post takes a token from its channel's bucket ({@code slack.post.channel-per-second}, roughly Slack's one
+ * message per second per channel) and from its workspace's bucket ({@code slack.post.workspace-per-second}). Posts
+ * to the same thread, and top-level posts to the same channel, go out one at a time in the order they were
+ * scheduled. A {@code rate_limited} answer pauses the channel for the server's {@code Retry-After} and the post is
+ * sent again, up to {@code slack.post.max-retries} times. New-ticket posts are always let through ahead of waiting
+ * note backfill.
+ */
+@Service
+public class SlackPostScheduler implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(SlackPostScheduler.class);
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final long MAX_WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * What a post is for. Top-level ticket posts open the thread later posts need, so they go first.
+     */
+    public enum Priority {
+        TOP_LEVEL,
+        BACKFILL
+    }
+
+    @Value("${slack.post.channel-per-second:1}")
+    private double channelPerSecond;
+
+    @Value("${slack.post.channel-burst:3}")
+    private int channelBurst;
+
+    @Value("${slack.post.workspace-per-second:5}")
+    private double workspacePerSecond;
+
+    @Value("${slack.post.workspace-burst:20}")
+    private int workspaceBurst;
+
+    @Value("${slack.post.max-retries:3}")
+    private int maxRetries;
+
+    private final Map<String, Bucket> channels = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> workspaces = new ConcurrentHashMap<>();
+    private final KeyedExecutor<String> threadLanes = new KeyedExecutor<>();
+
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong gaveUp = new AtomicLong();
+
+    /**
+     * Sends a post once its channel and workspace have capacity, after earlier posts to the same thread.
+     * Blocks until the post has been answered.
+     *
+     * @param token bot token, which identifies the workspace
+     * @param channel channel posted to
+     * @param threadTs thread posted in, or null for a top-level post
+     * @param priority whether the post opens a ticket or backfills notes
+     * @param call starts the post, normally through {@link SlackGateway}
+     * @return Slack's answer; still {@code rate_limited} if every retry was throttled
+     * @throws SlackApiException if Slack answered with a non-200 other than 429, or with 429 on the last retry
+     */
+    public <T> T post(String token, String channel, String threadTs, Priority priority, Supplier<CompletableFuture<T>> call)
+            throws IOException, InterruptedException, SlackApiException {
+        String lane = channel + "|" + (threadTs != null ? threadTs : "top");
+        try {
+            return threadLanes.submit(lane, () -> send(token, channel, priority, call)).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof SlackApiException slack) {
+                throw slack;
+            }
+            if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> T send(String token, String channel, Priority priority, Supplier<CompletableFuture<T>> call)
+            throws IOException, InterruptedException, SlackApiException {
+        Bucket channelBucket = channels.computeIfAbsent(channel, key -> new Bucket(channelPerSecond, channelBurst));
+        Bucket workspaceBucket = workspaces.computeIfAbsent(workspaceKey(token), key -> new Bucket(workspacePerSecond, workspaceBurst));
+
+        for (int attempt = 0; ; attempt++) {
+            // Channel first: it is the tighter limit, so a workspace token is not held while waiting on it
+            channelBucket.acquire(priority);
+            workspaceBucket.acquire(priority);
+
+            T response;
+            try {
+                response = SlackGateway.await(call.get());
+            } catch (SlackApiException e) {
+                if (e.getResponse() == null || e.getResponse().code() != 429 || attempt >= maxRetries) {
+                    if (e.getResponse() != null && e.getResponse().code() == 429) {
+                        gaveUp.incrementAndGet();
+                    }
+                    throw e;
+                }
+                pause(channel, channelBucket, parseRetryAfter(e.getResponse().header("Retry-After")), attempt);
+                continue;
+            }
+
+            if (response instanceof SlackApiTextResponse text && !text.isOk() && isRateLimited(text.getError())) {
+                if (attempt >= maxRetries) {
+                    gaveUp.incrementAndGet();
+                    return response;
+                }
+                pause(channel, channelBucket, DEFAULT_RETRY_AFTER, attempt);
+                continue;
+            }
+            posted.incrementAndGet();
+            return response;
+        }
+    }
+
+    private void pause(String channel, Bucket bucket, Duration retryAfter, int attempt) {
+        rateLimited.incrementAndGet();
+        bucket.pause(retryAfter);
+        log.warn("Slack rate limited a post to channel={} (attempt {}), pausing {} ms", channel, attempt + 1, retryAfter.toMillis());
+    }
+
+    private static boolean isRateLimited(String error) {
+        return "ratelimited".equals(error) || "rate_limited".equals(error);
+    }
+
+    static Duration parseRetryAfter(String header) {
+        if (header == null || header.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException e) {
+            return DEFAULT_RETRY_AFTER;
+        }
+    }
+
+    // Tokens are secrets, so workspaces are told apart by a hash in metrics
+    private static String workspaceKey(String token) {
+        return "workspace-" + Integer.toHexString(String.valueOf(token).hashCode());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadLanes.close();
+    }
+
+    @Override
+    public String metricsName() {
+        return "slackPostScheduler";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> channelStats = new TreeMap<>();
+        channels.forEach((channel, bucket) -> channelStats.put(channel, bucket.snapshot()));
+        Map<String, Object> workspaceStats = new TreeMap<>();
+        workspaces.forEach((workspace, bucket) -> workspaceStats.put(workspace, bucket.snapshot()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("posted", posted.get());
+        snapshot.put("rateLimited", rateLimited.get());
+        snapshot.put("gaveUp", gaveUp.get());
+        snapshot.put("threadLanes", threadLanes.snapshot());
+        snapshot.put("channels", channelStats);
+        snapshot.put("workspaces", workspaceStats);
+        return snapshot;
+    }
+
+    /**
+     * Token bucket that can be paused for a Retry-After and serves top-level posts before backfill.
+     */
+    private static class Bucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private final double perSecond;
+        private final int burst;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+        private long pausedUntilNanos;
+        private final int[] waiting = new int[Priority.values().length];
+        private long throttledCount;
+        private long waitedNanos;
+
+        Bucket(double perSecond, int burst) {
+            this.perSecond = perSecond > 0 ? perSecond : 1;
+            this.burst = Math.max(1, burst);
+            this.tokens = this.burst;
+        }
+
+        void acquire(Priority priority) throws InterruptedException {
+            long start = System.nanoTime();
+            lock.lockInterruptibly();
+            try {
+                waiting[priority.ordinal()]++;
+                try {
+                    while (true) {
+                        long now = System.nanoTime();
+                        refill(now);
+
+                        long waitNanos;
+                        if (pausedUntilNanos - now > 0) {
+                            waitNanos = pausedUntilNanos - now;
+                        } else if (priority == Priority.BACKFILL && waiting[Priority.TOP_LEVEL.ordinal()] > 0) {
+                            waitNanos = MAX_WAIT_SLICE_NANOS;
+                        } else if (tokens < 1) {
+                            waitNanos = (long) ((1 - tokens) / perSecond * 1_000_000_000L);
+                        } else {
+                            tokens -= 1;
+                            waitedNanos += now - start;
+                            changed.signalAll();
+                            return;
+                        }
+                        changed.awaitNanos(Math.max(1, Math.min(waitNanos, MAX_WAIT_SLICE_NANOS)));
+                    }
+                } finally {
+                    waiting[priority.ordinal()]--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void pause(Duration retryAfter) {
+            lock.lock();
+            try {
+                throttledCount++;
+                long until = System.nanoTime() + retryAfter.toNanos();
+                if (until - pausedUntilNanos > 0) {
+                    pausedUntilNanos = until;
+                }
+                tokens = Math.min(tokens, 0);
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill(long now) {
+            double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+            if (elapsedSeconds > 0) {
+                tokens = Math.min(burst, tokens + elapsedSeconds * perSecond);
+                lastRefillNanos = now;
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                refill(now);
+                Map<String, Object> snapshot = new LinkedHashMap<>();
+                snapshot.put("configuredRatePerSecond", perSecond);
+                snapshot.put("availableTokens", tokens);
+                snapshot.put("queuedTopLevel", waiting[Priority.TOP_LEVEL.ordinal()]);
+                snapshot.put("queuedBackfill", waiting[Priority.BACKFILL.ordinal()]);
+                snapshot.put("throttledCount", throttledCount);
+                snapshot.put("totalWaitMillis", TimeUnit.NANOSECONDS.toMillis(waitedNanos));
+                snapshot.put("pausedForMillis", Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - now)));
+                return snapshot;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.util.KeyedExecutor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Copies Slack thread replies to their ConnectWise ticket in the background, so the Slack event is acknowledged
+ * right away. Each reply is journaled before the acknowledgement and replayed after a restart if it had not finished.
+ *
+ * Replies run on a {@link KeyedExecutor} keyed by the Slack thread_ts, so replies in one thread reach the ticket in
+ * the order they were posted while different threads run in parallel on virtual threads. At most
+ * {@code slack.replies.max-in-flight} replies are queued or running at once; beyond that new replies are refused so
+ * Slack redelivers them later, and journal replay waits for room instead. Replay runs on its own thread once the
+ * application is ready, and a new reply in a thread that still has replayed replies waiting is held back until they
+ * are queued. Held replies give up their slot, so replay cannot wait on them, and are capped at the same limit.
+ */
+@Service
+public class SlackReplyDispatcher implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(SlackReplyDispatcher.class);
+
+    @Autowired
+    private ConnectwiseService connectwiseService;
+
+    @Autowired
+    private InboundEventJournal journal;
+
+    @Value("${slack.replies.max-in-flight:256}")
+    private int maxInFlight;
+
+    private Semaphore permits;
+    private final KeyedExecutor<String> threadLanes = new KeyedExecutor<>();
+    private Thread replayer;
+
+    // Replies left unfinished by the last run, read before Slack events are taken and started by the replayer
+    private final List<Reply> replayBacklog = new ArrayList<>();
+
+    // Slack threads with replayed replies not yet queued, and the new replies held back behind them; guarded by itself
+    private final Map<String, ReplayFence> replayFences = new HashMap<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicInteger heldBehindReplay = new AtomicInteger();
+
+    /**
+     * A journaled reply waiting for its turn in its Slack thread.
+     */
+    private static class Reply {
+        private final long sequence;
+        private final String tenantId;
+        private final String ticketId;
+        private final String threadTs;
+        private final String text;
+        private final Map<String, Object> event;
+
+        Reply(long sequence, String tenantId, String ticketId, String threadTs, String text, Map<String, Object> event) {
+            this.sequence = sequence;
+            this.tenantId = tenantId;
+            this.ticketId = ticketId;
+            this.threadTs = threadTs;
+            this.text = text;
+            this.event = event;
+        }
+    }
+
+    /**
+     * Replayed replies of one Slack thread that are not queued yet, and new replies held back until they are.
+     */
+    private static class ReplayFence {
+        private int replayedLeft;
+        private final ArrayDeque<Reply> held = new ArrayDeque<>();
+    }
+
+    @PostConstruct
+    public void init() throws IOException, InterruptedException {
+        permits = new Semaphore(Math.max(1, maxInFlight));
+        loadReplayBacklog();
+    }
+
+    /**
+     * Journals a reply and queues it behind earlier replies in the same Slack thread.
+     *
+     * @param tenantId tenant the thread belongs to
+     * @param ticketId ConnectWise ticket mapped to the thread
+     * @param threadTs Slack thread the reply was posted in; replies with the same value run in order
+     * @param text message text
+     * @param event raw Slack message event
+     * @return false if too many replies are in flight and this one was not journaled or queued
+     * @throws IOException if the reply could not be journaled; it was not dispatched
+     */
+    public boolean dispatch(String tenantId, String ticketId, String threadTs, String text, Map<String, Object> event) throws IOException {
+        if (heldBehindReplay.get() >= Math.max(1, maxInFlight) || !permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            log.warn("Slack reply queue full ({}), rejecting reply for ticketId={} thread_ts={}", maxInFlight, ticketId, threadTs);
+            return false;
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("tenantId", tenantId);
+        entry.put("ticketId", ticketId);
+        entry.put("threadTs", threadTs);
+        entry.put("text", text);
+        entry.put("event", event);
+        long sequence;
+        try {
+            sequence = journal.record(InboundEventJournal.SLACK, entry);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        Reply reply = new Reply(sequence, tenantId, ticketId, threadTs, text, event);
+        synchronized (replayFences) {
+            ReplayFence fence = replayFences.get(threadTs);
+            if (fence != null) {
+                // Replay needs the slot to make progress; the held reply takes one again when it is queued
+                fence.held.addLast(reply);
+                heldBehindReplay.incrementAndGet();
+                permits.release();
+                return true;
+            }
+        }
+        start(reply);
+        return true;
+    }
+
+    /**
+     * Reads the replies that were journaled but not finished before the last shutdown and fences their threads. This
+     * runs before Slack events are taken, so the backlog holds only replies from the last run.
+     */
+    private void loadReplayBacklog() throws IOException, InterruptedException {
+        journal.replay(InboundEventJournal.SLACK, (sequence, entry) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> event = (Map<String, Object>) entry.get("event");
+            String ticketId = String.valueOf(entry.get("ticketId"));
+            // Entries journaled before thread keys were recorded are ordered per ticket instead
+            String threadTs = entry.get("threadTs") != null ? String.valueOf(entry.get("threadTs")) : "ticket:" + ticketId;
+            replayBacklog.add(new Reply(sequence, String.valueOf(entry.get("tenantId")), ticketId, threadTs, (String) entry.get("text"), event));
+            synchronized (replayFences) {
+                replayFences.computeIfAbsent(threadTs, key -> new ReplayFence()).replayedLeft++;
+            }
+        });
+    }
+
+    /**
+     * Restarts the replies read by {@link #loadReplayBacklog} in journal order, on a thread of its own: a backlog larger
+     * than {@code slack.replies.max-in-flight} waits for room, and that must not hold up the other ready listeners.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        if (replayBacklog.isEmpty()) {
+            return;
+        }
+        replayer = Thread.ofPlatform().name("slack-reply-replay").daemon().start(() -> {
+            try {
+                for (Reply reply : replayBacklog) {
+                    // Already acknowledged to Slack, so wait for room rather than drop it
+                    permits.acquire();
+                    start(reply);
+                    replayed.incrementAndGet();
+                    releaseFence(reply.threadTs);
+                }
+                log.info("Restarted {} journaled Slack replies", replayed.get());
+            } catch (InterruptedException e) {
+                // Shutting down: whatever was not processed is still unacknowledged and comes back on the next start
+                Thread.currentThread().interrupt();
+            } finally {
+                replayBacklog.clear();
+            }
+        });
+    }
+
+    /**
+     * Counts one replayed reply of a thread as queued. Once none are left, the replies held back for the thread are
+     * queued behind them, and the thread stays fenced until that is done so a newer reply cannot slip in between.
+     */
+    private void releaseFence(String threadTs) throws InterruptedException {
+        synchronized (replayFences) {
+            if (--replayFences.get(threadTs).replayedLeft > 0) {
+                return;
+            }
+        }
+        while (true) {
+            List<Reply> held;
+            synchronized (replayFences) {
+                ReplayFence fence = replayFences.get(threadTs);
+                if (fence.held.isEmpty()) {
+                    replayFences.remove(threadTs);
+                    return;
+                }
+                held = new ArrayList<>(fence.held);
+                fence.held.clear();
+            }
+            for (Reply reply : held) {
+                permits.acquire();
+                start(reply);
+                heldBehindReplay.decrementAndGet();
+            }
+        }
+    }
+
+    private void start(Reply reply) {
+        accepted.incrementAndGet();
+        threadLanes.submit(reply.threadTs, () -> {
+            try {
+                connectwiseService.addSlackReplyToTicket(reply.tenantId, reply.ticketId, reply.text, reply.event);
+                completed.incrementAndGet();
+            } catch (InterruptedException e) {
+                // Shutting down: leave it unacknowledged so it is replayed
+                log.warn("Slack reply for ticketId={} interrupted, will replay on restart", reply.ticketId);
+                return null;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.error("Failed to process Slack reply for ticketId={}", reply.ticketId, e);
+            } finally {
+                permits.release();
+            }
+            journal.acknowledge(InboundEventJournal.SLACK, reply.sequence);
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (replayer != null) {
+            replayer.interrupt();
+        }
+        // Unfinished replies stay unacknowledged in the journal and are replayed on the next start
+        threadLanes.close();
+    }
+
+    @Override
+    public String metricsName() {
+        return "slackReplies";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("inFlight", Math.max(1, maxInFlight) - permits.availablePermits());
+        snapshot.put("maxInFlight", maxInFlight);
+        snapshot.put("accepted", accepted.get());
+        snapshot.put("rejected", rejected.get());
+        snapshot.put("completed", completed.get());
+        snapshot.put("failed", failed.get());
+        snapshot.put("replayed", replayed.get());
+        snapshot.put("heldBehindReplay", heldBehindReplay.get());
+        snapshot.put("threadLanes", threadLanes.snapshot());
+        snapshot.put("longestThreadQueues", threadLanes.longestQueues(10));
+        return snapshot;
+    }
+}
@@ -1,10 +1,11 @@
 package com.slackwise.slackwise.service;
 
 import com.slackwise.slackwise.model.Note;
+import com.slackwise.slackwise.model.NoteWatermark;
 import com.slackwise.slackwise.model.Tenant;
 import com.slackwise.slackwise.model.Ticket;
+import com.slackwise.slackwise.model.TimeEntry;
 
-import com.slack.api.Slack;
 import com.slack.api.methods.SlackApiException;
 import com.slack.api.methods.response.chat.ChatPostMessageResponse;
 import com.slack.api.model.block.ImageBlock;
@@ -37,26 +38,31 @@ public class SlackService {
 
 
 
-    // Slack client instance
-    private final Slack slack = Slack.getInstance();
+    // Slack calls go through the shared per-token clients and the Slack circuit breaker
+    @Autowired
+    private SlackGateway slackGateway;
 
     @Autowired
     private AmazonService amazonService;
 
+    // Posts are paced per channel and workspace so a backlog waits instead of failing on rate limits
     @Autowired
-    private ConnectwiseService connectwiseService;
+    private SlackPostScheduler postScheduler;
 
      /**
-     * Handles posting a NEW ticket to Slack.
+     * Handles posting a NEW ticket to Slack. The contact and summary come from the event's ticket context, so no
+     * further ConnectWise calls are made here.
      * 
-     * @param ticketId
-     * @param summary
+     * @param context ticket the event is about
      * @return response from Slack API
      * @throws IOException
      * @throws SlackApiException
      * @throws InterruptedException 
      */
-    public ChatPostMessageResponse postNewTicket(String tenantId, String ticketId, String summary, String slackChannelId, String slackBotToken) throws IOException, InterruptedException {
+    public ChatPostMessageResponse postNewTicket(TicketContext context, String slackChannelId, String slackBotToken) throws IOException, InterruptedException {
+
+        String tenantId = context.getTenantId();
+        String ticketId = context.getTicketId();
 
 
         // Attempt to create the ticket item if it doesn't exist yet. This avoids races where multiple
@@ -67,40 +73,40 @@ public class SlackService {
             return null;
         }
 
-        // Get the contact name for a new ticket
-        String contactName = "N\\A";
-        if (connectwiseService.getContactNameByTicketId(ticketId) == null) {
-            Ticket ticket = connectwiseService.fetchTicketById("", ticketId);
-            if (ticket.getContact() != null) {
-                contactName = connectwiseService.getContactNameByTicketId(ticketId);
-            }
-        } else {
-            contactName = connectwiseService.getContactNameByTicketId(ticketId);
-        }
-
-        final String finalContactName = contactName;
+        final String finalContactName = context.getContactName();
+        String summary = context.getSummary();
         String slackSummary = summary != null ? TextFormatTranslator.connectwiseToSlack(summary) : "";
 
         try {
 
             // Post to Slack
-            ChatPostMessageResponse response = slack.methods(slackBotToken).chatPostMessage(req -> req
+            ChatPostMessageResponse response = postScheduler.post(slackBotToken, slackChannelId, null, SlackPostScheduler.Priority.TOP_LEVEL,
+                () -> slackGateway.chatPostMessage(slackBotToken, req -> req
                     .channel(slackChannelId)
                     .text("🆔" + ticketId + "    👤" + finalContactName + "\n📝: " + slackSummary)
                     .mrkdwn(true)
-            );
+            ));
 
+            if (!response.isOk()) {
+                log.error("Failed posting new ticket to Slack for ticketId={}: {}", ticketId, response.getError());
+                return null;
+            }
             String postedTs = response.getTs();
 
             // Attempt to set the thread_ts in DynamoDB. If this fails, it means another process
             // has already set it, so we delete the duplicate Slack message we just posted.
             if (!amazonService.setThreadTs(tenantId, ticketId, postedTs)) {
-                slack.methods(slackBotToken).chatDelete(req -> req
+                // Nothing waits on the delete; a failure only leaves a stray message behind
+                slackGateway.chatDelete(slackBotToken, req -> req
                         .channel(slackChannelId)
                         .ts(postedTs)
-                );
+                ).whenComplete((deleted, error) -> {
+                    if (error != null || !deleted.isOk()) {
+                        log.warn("Failed to delete duplicate Slack message ts={} for ticketId={}", postedTs, ticketId, error);
+                    }
+                });
 
-                log.info("Another process set ts_thread for ticketId={}, deleted duplicate Slack message", ticketId);
+                log.info("Another process set ts_thread for ticketId={}, deleting duplicate Slack message", ticketId);
                 return null;
             }
 
@@ -118,43 +124,88 @@ public class SlackService {
         
     }
 
+    /**
+     * Update Slack thread for a ticket with notes and time entries added since the last sync.
+     * Only entries newer than the ticket's note watermark are fetched from ConnectWise; when the ticket has
+     * no watermark yet (new ticket or ledger written before watermarks existed) the full history is fetched.
+     * 
+     * @param context ticket the event is about; notes and time entries are fetched through it
+     * @return list of Slack responses for each posted note
+     * @throws InterruptedException 
+     * @throws IOException 
+     * @throws SlackApiException 
+     */
+    public List<ChatPostMessageResponse> updateTicketThread(TicketContext context, String slackChannelId, String slackBotToken) throws IOException, InterruptedException, SlackApiException {
+
+        String tenantId = context.getTenantId();
+        String ticketId = context.getTicketId();
+
+        Map<String, AttributeValue> ticket = amazonService.getTicket(tenantId, ticketId);
+        NoteWatermark storedWatermark = amazonService.getNoteWatermark(ticket);
+        if (storedWatermark == null) {
+            log.debug("No note watermark for ticketId={}, fetching full history", ticketId);
+        }
+        NoteWatermark watermark = storedWatermark != null ? storedWatermark : new NoteWatermark(0, 0);
+
+        List<Note> notes = context.getNotesAfter(watermark.getNoteId());
+        List<TimeEntry> timeEntries = context.getTimeEntriesAfter(watermark.getTimeEntryId());
+
+        List<ChatPostMessageResponse> responses = postMissingNotes(context, ticket,
+            Ticket.buildDiscussion(notes, timeEntries), slackChannelId, slackBotToken);
+
+        // Only move the watermark once everything fetched is in the thread; a failed post is retried next time
+        if (responses != null) {
+            NoteWatermark advanced = watermark.advancedTo(notes, timeEntries);
+            if (!advanced.equals(storedWatermark)) {
+                amazonService.advanceNoteWatermark(tenantId, ticketId, advanced);
+            }
+        }
+        return responses;
+    }
+
     /**
      * Update Slack thread for a ticket with new notes
      * 
-     * @param ticketId
+     * @param context
      * @param discussion
      * @return list of Slack responses for each posted note
      * @throws InterruptedException 
      * @throws IOException 
      * @throws SlackApiException 
      */
-    public List<ChatPostMessageResponse> updateTicketThread(String tenantId, String ticketId, List<Note> discussion, String summary, String slackChannelId, String slackBotToken) throws IOException, InterruptedException, SlackApiException {
-
-        // Implement logic to update the Slack thread for the ticket
-        // This could involve searching for the original message and posting a reply
-        List<ChatPostMessageResponse> responses = new java.util.ArrayList<>();
+    public List<ChatPostMessageResponse> updateTicketThread(TicketContext context, List<Note> discussion, String slackChannelId, String slackBotToken) throws IOException, InterruptedException, SlackApiException {
 
         // Fetch thread_ts and posted notes from DynamoDB
-        Map<String, AttributeValue> ticket = amazonService.getTicket(tenantId, ticketId);
+        Map<String, AttributeValue> ticket = amazonService.getTicket(context.getTenantId(), context.getTicketId());
+        return postMissingNotes(context, ticket, discussion, slackChannelId, slackBotToken);
+    }
+
+    private List<ChatPostMessageResponse> postMissingNotes(TicketContext context, Map<String, AttributeValue> ticket, List<Note> discussion, String slackChannelId, String slackBotToken) throws IOException, InterruptedException, SlackApiException {
+
+        String tenantId = context.getTenantId();
+        String ticketId = context.getTicketId();
+
+        List<ChatPostMessageResponse> responses = new java.util.ArrayList<>();
 
         // If Dynamo lookup fails, log and continue to attempt posting (fail open)
-        String tsThread = ticket != null && ticket.containsKey("ts_thread") ? ticket.get("ts_thread").s() : null;
+        String existingTsThread = ticket != null && ticket.containsKey("ts_thread") ? ticket.get("ts_thread").s() : null;
 
         // If we don't have a thread_ts, post a new top-level message first
         // This can happen if the initial ticket creation event failed to post to Slack
         // or if we missed that event entirely.
         // If posting the new ticket fails, abort the note posting. Don't want to spam Slack.
-        if (tsThread == null) {
+        if (existingTsThread == null) {
             log.warn("No thread_ts found for ticketId={}, posting top-level message", ticketId);
-            postNewTicket(tenantId, ticketId, summary, slackChannelId, slackBotToken);
+            postNewTicket(context, slackChannelId, slackBotToken);
             ticket = amazonService.getTicket(tenantId, ticketId);
 
-            String tsThread2 = ticket != null && ticket.containsKey("ts_thread") ? ticket.get("ts_thread").s() : null;
-            if (tsThread2 == null) {
+            existingTsThread = ticket != null && ticket.containsKey("ts_thread") ? ticket.get("ts_thread").s() : null;
+            if (existingTsThread == null) {
                 log.error("Failed to retrieve thread_ts after posting ticketId={}, aborting note posting", ticketId);
                 return null;
             }
         }
+        final String tsThread = existingTsThread;
 
         
         // Keep track of already posted note IDs to avoid duplicates
@@ -171,42 +222,63 @@ public class SlackService {
             }
         }
 
-        // Post each note that hasn't been posted yet
-        for (Note note : discussion) {
-            String noteIdStr = String.valueOf(note.getId());
-            String contactName = note.getContact() != null ? note.getContact().getName() : note.getMember().getName();
+        // Posted notes are written to the ledger in one append when the loop ends, including when it stops early
+        List<Map<String, String>> posted = new ArrayList<>();
+        Throwable loopFailure = null;
+        try {
+            // Post each note that hasn't been posted yet
+            for (Note note : discussion) {
+                String noteIdStr = String.valueOf(note.getId());
+                String contactName = note.getContact() != null ? note.getContact().getName() : note.getMember().getName();
 
-            // Only post if this note ID hasn't been posted yet
-            if (!postedNoteIds.contains(noteIdStr)) {
-                try {
+                // Only post if this note ID hasn't been posted yet
+                if (!postedNoteIds.contains(noteIdStr)) {
+                    try {
 
-                    String noteText = note.getText();
-                    String slackNoteText = TextFormatTranslator.connectwiseToSlack(noteText);
+                        String noteText = note.getText();
+                        String slackNoteText = TextFormatTranslator.connectwiseToSlack(noteText);
                     
-                    log.debug("Posting note text for ticketId={} noteId={}", ticketId, noteIdStr);
-
-                    ChatPostMessageResponse response = slack.methods(slackBotToken).chatPostMessage(req -> req
-                            .channel(slackChannelId)
-                            .text("🆔 " + note.getId() + "   👤 " + contactName + "\n\n" + slackNoteText)
-                            .threadTs(tsThread)
-                            .mrkdwn(true)
-                    );
-
-                    // If posting failed, log and skip adding to responses
-                    if (!response.isOk()) {
-                        log.error("Failed to post note to Slack for ticketId={} noteId={}: {}", ticketId, noteIdStr, response.getError());
+                        log.debug("Posting note text for ticketId={} noteId={}", ticketId, noteIdStr);
+
+                        ChatPostMessageResponse response = postScheduler.post(slackBotToken, slackChannelId, tsThread, SlackPostScheduler.Priority.BACKFILL,
+                            () -> slackGateway.chatPostMessage(slackBotToken, req -> req
+                                .channel(slackChannelId)
+                                .text("🆔 " + note.getId() + "   👤 " + contactName + "\n\n" + slackNoteText)
+                                .threadTs(tsThread)
+                                .mrkdwn(true)
+                        ));
+
+                        // If posting failed, log and skip adding to responses
+                        if (!response.isOk()) {
+                            log.error("Failed to post note to Slack for ticketId={} noteId={}: {}", ticketId, noteIdStr, response.getError());
+                            return null;
+
+                        // If successful, add to responses and queue the note for the ledger
+                        } else {
+                            responses.add(response);
+                            posted.add(Map.of("noteId", noteIdStr, "ts", response.getTs()));
+                            log.info("Posted noteId={} to Slack for ticketId={}", noteIdStr, ticketId);
+                        }
+                    } catch (IOException | SlackApiException e) {
+                        log.error("Failed posting note to Slack for ticketId={} noteId={}", ticketId, noteIdStr, e);
                         return null;
-
-                    // If successful, add to responses and save note in DynamoDB
-                    } else {
-                        responses.add(response);
-                        // Save noteId and ts in DynamoDB
-                        amazonService.addNoteToTicket(tenantId, ticketId, noteIdStr, response.getTs());
-                        log.info("Posted noteId={} to Slack for ticketId={}", noteIdStr, ticketId);
                     }
-                } catch (IOException | SlackApiException e) {
-                    log.error("Failed posting note to Slack for ticketId={} noteId={}", ticketId, noteIdStr, e);
-                    return null;
+                }
+            }
+        } catch (Throwable e) {
+            loopFailure = e;
+            throw e;
+        } finally {
+            if (!posted.isEmpty()) {
+                try {
+                    amazonService.appendNotesToTicket(tenantId, ticketId, posted);
+                } catch (RuntimeException e) {
+                    if (loopFailure == null) {
+                        throw e;
+                    }
+                    // Keep the failure that stopped the loop as the one reported
+                    log.error("Failed to record {} posted notes for ticketId={}", posted.size(), ticketId, e);
+                    loopFailure.addSuppressed(e);
                 }
             }
         }
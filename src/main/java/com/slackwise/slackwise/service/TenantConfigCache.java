@@ -0,0 +1,225 @@
+package com.slackwise.slackwise.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.model.CompiledTenantConfig;
+import com.slackwise.slackwise.model.TenantConfig;
+
+/**
+ * In-process cache of tenant configuration, stored in compiled form so the webhook path neither reads DynamoDB nor
+ * re-parses the delimited settings for every event.
+ *
+ * Entries expire after {@code tenant.config.cache-ttl-ms}, which bounds how long another node's write takes to show
+ * up here; writes made through this node call {@link #invalidate(String)} and are visible at once. Concurrent misses
+ * for the same tenant share one load, and a load that finishes after an invalidation is not kept.
+ */
+@Service
+public class TenantConfigCache implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(TenantConfigCache.class);
+    private static final int DEFAULT_AUTO_ASSIGNMENT_DELAY_MINUTES = 2;
+    private static final Set<String> DEFAULT_ASSIGNMENT_EXCLUSION_KEYWORDS = Set.of(
+        "compliance: set and review",
+        "info systems audits",
+        "internal system vulnerability",
+        "monitor firewall and report",
+        "routine security check",
+        "documentation for review of permissions"
+    );
+
+    @Autowired
+    private AmazonService amazonService;
+
+    @Value("${company.idnumber:19300}")
+    private String fallbackTrackedCompanyId;
+
+    @Value("${tenant.config.cache-ttl-ms:60000}")
+    private long ttlMillis;
+
+    // Defaults for tenants without their own ingestWeight / ingestConcurrency
+    @Value("${connectwise.ingest.tenant-weight:1}")
+    private int defaultIngestWeight;
+
+    @Value("${connectwise.ingest.tenant-concurrency:0}")
+    private int defaultIngestConcurrency;
+
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong totalLoadMicros = new AtomicLong();
+    private final AtomicLong maxLoadMicros = new AtomicLong();
+
+    private static class Entry {
+        private final CompiledTenantConfig config;
+        private final long loadedAtMillis;
+
+        Entry(CompiledTenantConfig config, long loadedAtMillis) {
+            this.config = config;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+
+    /**
+     * Compiled configuration for a tenant, with defaults applied when it has none stored.
+     *
+     * @throws RuntimeException if DynamoDB could not be read; nothing is cached in that case
+     */
+    public CompiledTenantConfig get(String tenantId) throws InterruptedException {
+        while (true) {
+            CompletableFuture<Entry> cached = entries.get(tenantId);
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                Entry entry = cached.join();
+                if (ttlMillis <= 0 || System.currentTimeMillis() - entry.loadedAtMillis < ttlMillis) {
+                    hits.incrementAndGet();
+                    return entry.config;
+                }
+                entries.remove(tenantId, cached);
+                continue;
+            }
+            if (cached != null) {
+                // Another thread is loading this tenant; wait for its result
+                hits.incrementAndGet();
+                return await(cached);
+            }
+
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            if (entries.putIfAbsent(tenantId, mine) != null) {
+                continue;
+            }
+            misses.incrementAndGet();
+            try {
+                Entry entry = new Entry(load(tenantId), System.currentTimeMillis());
+                mine.complete(entry);
+                return entry.config;
+            } catch (RuntimeException e) {
+                loadFailures.incrementAndGet();
+                entries.remove(tenantId, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Drops the cached entry so the next event reads the stored configuration again.
+     */
+    public void invalidate(String tenantId) {
+        if (entries.remove(tenantId) != null) {
+            invalidations.incrementAndGet();
+            log.info("Invalidated cached tenant config for tenantId={}", tenantId);
+        }
+    }
+
+    private CompiledTenantConfig load(String tenantId) {
+        long start = System.nanoTime();
+        TenantConfig config = amazonService.getTenantConfig(tenantId);
+        long micros = (System.nanoTime() - start) / 1_000;
+        loads.incrementAndGet();
+        totalLoadMicros.addAndGet(micros);
+        maxLoadMicros.accumulateAndGet(micros, Math::max);
+        return compile(tenantId, config);
+    }
+
+    private CompiledTenantConfig compile(String tenantId, TenantConfig config) {
+        Set<String> companyIds = parseDelimitedValues(config != null ? config.getTrackedCompanyIds() : null);
+        if (companyIds.isEmpty()) {
+            companyIds = Set.of(fallbackTrackedCompanyId != null && !fallbackTrackedCompanyId.isBlank()
+                ? fallbackTrackedCompanyId.trim() : "19300");
+        }
+        int[] trackedCompanyIds = companyIds.stream()
+            .filter(id -> {
+                if (id.matches("\\d{1,9}")) {
+                    return true;
+                }
+                log.warn("Ignoring non-numeric tracked company ID '{}' for tenantId={}", id, tenantId);
+                return false;
+            })
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        Set<String> keywords = parseDelimitedValues(config != null ? config.getAssignmentExclusionKeywords() : null)
+            .stream()
+            .map(String::toLowerCase)
+            .collect(Collectors.toSet());
+        if (keywords.isEmpty()) {
+            keywords = DEFAULT_ASSIGNMENT_EXCLUSION_KEYWORDS;
+        }
+
+        Integer configuredDelay = config != null ? config.getAutoAssignmentDelayMinutes() : null;
+        int delayMinutes = configuredDelay == null || configuredDelay < 0 ? DEFAULT_AUTO_ASSIGNMENT_DELAY_MINUTES : configuredDelay;
+
+        Integer configuredWeight = config != null ? config.getIngestWeight() : null;
+        int ingestWeight = configuredWeight != null && configuredWeight > 0 ? configuredWeight : Math.max(1, defaultIngestWeight);
+        Integer configuredConcurrency = config != null ? config.getIngestConcurrency() : null;
+        int ingestConcurrency = configuredConcurrency != null && configuredConcurrency >= 0
+            ? configuredConcurrency : Math.max(0, defaultIngestConcurrency);
+
+        return new CompiledTenantConfig(config, trackedCompanyIds, keywords, delayMinutes, ingestWeight, ingestConcurrency);
+    }
+
+    private static Set<String> parseDelimitedValues(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return Set.of();
+        }
+
+        Set<String> values = new HashSet<>();
+        String[] split = raw.split("[,;\\r\\n]+");
+        for (String entry : split) {
+            if (entry != null && !entry.isBlank()) {
+                values.add(entry.trim());
+            }
+        }
+        return values;
+    }
+
+    private static CompiledTenantConfig await(CompletableFuture<Entry> loading) throws InterruptedException {
+        try {
+            return loading.get().config;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "tenantConfig";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        long loaded = loads.get();
+        long lookups = hits.get() + misses.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("cachedTenants", entries.size());
+        snapshot.put("ttlMillis", ttlMillis);
+        snapshot.put("hits", hits.get());
+        snapshot.put("misses", misses.get());
+        snapshot.put("hitRate", lookups == 0 ? 0.0 : (double) hits.get() / lookups);
+        snapshot.put("loads", loaded);
+        snapshot.put("loadFailures", loadFailures.get());
+        snapshot.put("invalidations", invalidations.get());
+        snapshot.put("avgLoadMicros", loaded == 0 ? 0.0 : (double) totalLoadMicros.get() / loaded);
+        snapshot.put("maxLoadMicros", maxLoadMicros.get());
+        return snapshot;
+    }
+}
@@ -0,0 +1,84 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.slackwise.slackwise.model.Note;
+import com.slackwise.slackwise.model.Ticket;
+import com.slackwise.slackwise.model.TimeEntry;
+
+/**
+ * Everything one ticket event needs to know about the ticket, built once per event by {@link TicketContextFactory}.
+ * The header comes from the webhook's Entity when it is fresh enough, otherwise from one ConnectWise fetch. Notes and
+ * time entries are only fetched the first time they are asked for, and then reused for the rest of the event.
+ * Not thread safe; a context belongs to the thread processing its event.
+ */
+public class TicketContext {
+
+    private final ConnectwiseService connectwiseService;
+    private final String tenantId;
+    private final String ticketId;
+    private final Ticket ticket;
+    private final boolean fromEntity;
+
+    private int notesAfterId = -1;
+    private List<Note> notes;
+    private int timeEntriesAfterId = -1;
+    private List<TimeEntry> timeEntries;
+
+    TicketContext(ConnectwiseService connectwiseService, String tenantId, String ticketId, Ticket ticket, boolean fromEntity) {
+        this.connectwiseService = connectwiseService;
+        this.tenantId = tenantId;
+        this.ticketId = ticketId;
+        this.ticket = ticket;
+        this.fromEntity = fromEntity;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    public String getSummary() {
+        return ticket.getSummary();
+    }
+
+    // Contact shown on the top-level Slack post
+    public String getContactName() {
+        return ticket.getContact() != null && ticket.getContact().getName() != null ? ticket.getContact().getName() : "N\\A";
+    }
+
+    // Whether the header came from the webhook rather than a fetch
+    public boolean isFromEntity() {
+        return fromEntity;
+    }
+
+    /**
+     * Notes with an id above {@code afterNoteId}, fetched on first call.
+     */
+    public List<Note> getNotesAfter(int afterNoteId) throws IOException, InterruptedException {
+        if (notes == null || notesAfterId != afterNoteId) {
+            notes = connectwiseService.fetchNotesByTicketId(ticketId, afterNoteId);
+            notesAfterId = afterNoteId;
+        }
+        return notes;
+    }
+
+    /**
+     * Time entries with an id above {@code afterTimeEntryId}, fetched on first call.
+     */
+    public List<TimeEntry> getTimeEntriesAfter(int afterTimeEntryId) throws IOException, InterruptedException {
+        if (timeEntries == null || timeEntriesAfterId != afterTimeEntryId) {
+            timeEntries = connectwiseService.fetchTimeEntriesByTicketId(ticketId, afterTimeEntryId);
+            timeEntriesAfterId = afterTimeEntryId;
+        }
+        return timeEntries;
+    }
+}
@@ -0,0 +1,173 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.model.Ticket;
+import com.slackwise.slackwise.model.WebhookEnvelope;
+import com.slackwise.slackwise.util.JsonCodec;
+
+/**
+ * Builds the {@link TicketContext} for a ConnectWise event, using the ticket carried in the callback's Entity instead
+ * of fetching it again whenever the Entity can be trusted.
+ *
+ * The Entity is refetched when it is missing or lacks the fields we use, when its {@code _info.lastUpdated} is older
+ * than one already seen for the ticket (an event delivered or replayed out of order), or when it is older than
+ * {@code connectwise.entity.max-age-ms} (e.g. replayed from the journal after downtime).
+ */
+@Service
+public class TicketContextFactory implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(TicketContextFactory.class);
+
+    @Autowired
+    private ConnectwiseService connectwiseService;
+
+    @Value("${connectwise.entity.snapshot-enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${connectwise.entity.max-age-ms:300000}")
+    private long maxAgeMillis;
+
+    @Value("${connectwise.entity.tracked-tickets:10000}")
+    private int trackedTickets;
+
+    // Newest _info.lastUpdated seen per tenant and ticket, least recently used evicted first
+    private final Map<String, Instant> lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+            return size() > trackedTickets;
+        }
+    };
+
+    private final AtomicLong fromEntity = new AtomicLong();
+    private final AtomicLong fetched = new AtomicLong();
+    private final Map<String, AtomicLong> refetchReasons = new ConcurrentHashMap<>();
+
+    /**
+     * Context for a webhook event, from its Entity when fresh.
+     *
+     * @return the context, or null if the ticket had to be fetched and was not found
+     */
+    public TicketContext fromEvent(String tenantId, int ticketId, WebhookEnvelope event) throws IOException, InterruptedException {
+        String reason = "disabled";
+        if (snapshotEnabled) {
+            Ticket entity = readEntity(event);
+            reason = staleReason(tenantId, ticketId, entity);
+            if (reason == null) {
+                fromEntity.incrementAndGet();
+                return new TicketContext(connectwiseService, tenantId, String.valueOf(ticketId), entity, true);
+            }
+            log.debug("Refetching ticketId={} instead of using the webhook entity ({})", ticketId, reason);
+        }
+        refetchReasons.computeIfAbsent(reason, key -> new AtomicLong()).incrementAndGet();
+        return fetch(tenantId, ticketId);
+    }
+
+    /**
+     * Context with the header fetched from ConnectWise.
+     *
+     * @return the context, or null if the ticket was not found
+     */
+    public TicketContext fetch(String tenantId, int ticketId) throws IOException, InterruptedException {
+        Ticket ticket = connectwiseService.fetchTicketHeaderById(String.valueOf(ticketId));
+        fetched.incrementAndGet();
+        if (ticket == null) {
+            return null;
+        }
+        Instant updated = lastUpdatedOf(ticket);
+        if (updated != null) {
+            remember(tenantId + "#" + ticketId, updated);
+        }
+        return new TicketContext(connectwiseService, tenantId, String.valueOf(ticketId), ticket, false);
+    }
+
+    private static Ticket readEntity(WebhookEnvelope event) {
+        if (!event.hasEntity()) {
+            return null;
+        }
+        try {
+            return event.readEntity(JsonCodec.TICKET);
+        } catch (IOException e) {
+            log.debug("Webhook entity does not decode as a ticket", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return why the entity cannot be used, or null if it is fresh
+     */
+    private String staleReason(String tenantId, int ticketId, Ticket entity) {
+        if (entity == null || entity.getId() != ticketId || entity.getSummary() == null) {
+            return "incomplete";
+        }
+        Instant updated = lastUpdatedOf(entity);
+        if (updated == null) {
+            return "noTimestamp";
+        }
+        if (maxAgeMillis > 0 && updated.isBefore(Instant.now().minusMillis(maxAgeMillis))) {
+            return "aged";
+        }
+        // Equal timestamps are the same revision delivered twice, which is still current
+        if (!remember(tenantId + "#" + ticketId, updated)) {
+            return "superseded";
+        }
+        return null;
+    }
+
+    /**
+     * Records {@code updated} for the ticket unless a newer revision was already seen.
+     *
+     * @return false if a newer revision was already seen
+     */
+    private boolean remember(String key, Instant updated) {
+        synchronized (lastSeen) {
+            Instant seen = lastSeen.get(key);
+            if (seen != null && seen.isAfter(updated)) {
+                return false;
+            }
+            lastSeen.put(key, updated);
+            return true;
+        }
+    }
+
+    private static Instant lastUpdatedOf(Ticket ticket) {
+        if (ticket.getInfo() == null || ticket.getInfo().getLastUpdated() == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(ticket.getInfo().getLastUpdated());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "ticketContext";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> reasons = new LinkedHashMap<>();
+        refetchReasons.forEach((reason, count) -> reasons.put(reason, count.get()));
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("fromEntity", fromEntity.get());
+        snapshot.put("fetched", fetched.get());
+        snapshot.put("refetchReasons", reasons);
+        synchronized (lastSeen) {
+            snapshot.put("trackedTickets", lastSeen.size());
+        }
+        return snapshot;
+    }
+}
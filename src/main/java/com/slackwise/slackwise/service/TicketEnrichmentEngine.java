@@ -0,0 +1,158 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs per-ticket enrichment work (ticket details, notes, time entries) on virtual threads.
+ * Each tenant gets its own concurrency ceiling so one large board cannot monopolize the
+ * ConnectWise API.
+ */
+@Service
+public class TicketEnrichmentEngine {
+    private static final Logger log = LoggerFactory.getLogger(TicketEnrichmentEngine.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Semaphore per tenant, resized in place whenever the configured ceiling changes
+    private final Map<String, TenantPermits> tenantPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Enriches every item in parallel, never running more than {@code concurrency} tasks at once for the tenant.
+     *
+     * @param tenantId tenant the work is accounted against
+     * @param items items to enrich, in the order results should be returned
+     * @param concurrency max in-flight tasks for the tenant
+     * @param task enrichment to apply to each item
+     * @return one outcome per item, in the same order as {@code items}
+     * @throws InterruptedException if the caller is interrupted while waiting; outstanding tasks are cancelled
+     */
+    public <T> List<Outcome<T>> enrichAll(String tenantId, List<T> items, int concurrency, Task<T> task) throws InterruptedException {
+        Semaphore permits = permitsFor(tenantId, Math.max(1, concurrency));
+
+        List<Future<T>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    task.enrich(item);
+                    return item;
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<Outcome<T>> outcomes = new ArrayList<>(items.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                T item = items.get(i);
+                try {
+                    futures.get(i).get();
+                    outcomes.add(new Outcome<>(item, null));
+                } catch (ExecutionException e) {
+                    outcomes.add(new Outcome<>(item, e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        log.debug("Enriched {} items for tenantId={} with concurrency={}", items.size(), tenantId, concurrency);
+        return outcomes;
+    }
+
+    private Semaphore permitsFor(String tenantId, int concurrency) {
+        String key = tenantId != null ? tenantId : "";
+        TenantPermits permits = tenantPermits.computeIfAbsent(key, k -> new TenantPermits(concurrency));
+        permits.resize(concurrency);
+        return permits.semaphore;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Enrichment applied to a single item.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        void enrich(T item) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Result of enriching one item. {@code error} is null when enrichment succeeded.
+     */
+    public static class Outcome<T> {
+        private final T item;
+        private final Throwable error;
+
+        Outcome(T item, Throwable error) {
+            this.item = item;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * A tenant's single semaphore. Resizing adds or withdraws permits rather than swapping the semaphore, so tasks
+     * still holding permits count against the new ceiling; after a shrink, new tasks wait until enough are returned.
+     */
+    private static class TenantPermits {
+        private int limit;
+        private final ResizableSemaphore semaphore;
+
+        TenantPermits(int limit) {
+            this.limit = limit;
+            this.semaphore = new ResizableSemaphore(limit);
+        }
+
+        synchronized void resize(int newLimit) {
+            if (newLimit > limit) {
+                semaphore.release(newLimit - limit);
+            } else if (newLimit < limit) {
+                semaphore.reducePermits(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+    }
+
+    private static class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.slackwise.slackwise.model.Ticket;
+
+/**
+ * Iterates over a paginated ConnectWise ticket query one page at a time. As soon as page N is handed
+ * to the caller, page N+1 is requested on a virtual thread so it is ready by the time page N has been processed.
+ * Iteration stops at the first page that comes back shorter than the page size.
+ */
+public class TicketPageReader implements Iterator<List<Ticket>>, AutoCloseable {
+
+    /**
+     * Fetches a single 1-based page of tickets.
+     */
+    @FunctionalInterface
+    public interface PageFetcher {
+        List<Ticket> fetch(int page, int pageSize) throws IOException, InterruptedException;
+    }
+
+    private final PageFetcher fetcher;
+    private final int pageSize;
+    private int nextPage = 1;
+    private CompletableFuture<List<Ticket>> pending;
+
+    public TicketPageReader(PageFetcher fetcher, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.pending = prefetch(nextPage);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null;
+    }
+
+    /**
+     * Returns the next page, blocking until it has arrived, and starts fetching the one after it.
+     *
+     * @throws UncheckedIOException wrapping the IOException from the page fetch, or an InterruptedIOException if interrupted
+     */
+    @Override
+    public List<Ticket> next() {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+
+        List<Ticket> page;
+        try {
+            page = pending.get();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for ticket page " + nextPage));
+        } catch (ExecutionException e) {
+            pending = null;
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new UncheckedIOException(new IOException("Ticket page " + nextPage + " failed", cause));
+        }
+
+        nextPage++;
+        pending = page.size() >= pageSize ? prefetch(nextPage) : null;
+        return page;
+    }
+
+    /**
+     * Cancels any in-flight prefetch. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    private CompletableFuture<List<Ticket>> prefetch(int page) {
+        CompletableFuture<List<Ticket>> future = new CompletableFuture<>();
+        Thread thread = Thread.ofVirtual().name("cw-ticket-page-" + page).start(() -> {
+            try {
+                future.complete(fetcher.fetch(page, pageSize));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                thread.interrupt();
+            }
+        });
+        return future;
+    }
+}
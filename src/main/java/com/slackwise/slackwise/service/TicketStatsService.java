@@ -44,7 +44,7 @@ public class TicketStatsService {
         
         
         try {
-            List<Ticket> tickets = connectwiseService.fetchOpenTicketsByCompanyId(tenantId);
+            List<Ticket> tickets = connectwiseService.syncOpenTicketsByCompanyId(tenantId);
             // For simplicity, we'll just count open tickets and pending responses here.
             openTickets = tickets.size();
             
@@ -0,0 +1,115 @@
+package com.slackwise.slackwise.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.model.WebhookEnvelope;
+import com.slackwise.slackwise.util.IdempotencyWindow;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Drops ConnectWise redeliveries at the front door, before the event is journaled or any downstream call is made.
+ *
+ * A delivery is identified by {@code recordId}, {@code Action} and the entity's {@code _info.lastUpdated}, so a retry
+ * of the same callback matches while a later change to the same ticket does not. Keys are remembered for
+ * {@code connectwise.dedup.window-ms}, at most {@code connectwise.dedup.capacity} of them. Events without a
+ * lastUpdated cannot be told apart from new changes and always go through.
+ */
+@Service
+public class WebhookDeduplicator implements MetricsSource {
+
+    @Value("${connectwise.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${connectwise.dedup.window-ms:600000}")
+    private long windowMillis;
+
+    @Value("${connectwise.dedup.capacity:100000}")
+    private int capacity;
+
+    private IdempotencyWindow window;
+
+    private final AtomicLong unkeyed = new AtomicLong();
+    private final Map<String, TenantCounts> perTenant = new ConcurrentHashMap<>();
+
+    private static class TenantCounts {
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+    }
+
+    @PostConstruct
+    public void init() {
+        window = new IdempotencyWindow(windowMillis, capacity);
+    }
+
+    /**
+     * Claims a delivery.
+     *
+     * @return true if the same delivery was already accepted within the window and this one should be dropped
+     */
+    public boolean isRedelivery(String tenantId, String recordId, WebhookEnvelope event) {
+        TenantCounts counts = perTenant.computeIfAbsent(tenantId, key -> new TenantCounts());
+        counts.received.incrementAndGet();
+        String key = deliveryKey(recordId, event);
+        if (key == null) {
+            if (enabled) {
+                unkeyed.incrementAndGet();
+            }
+            return false;
+        }
+        if (window.claim(key, System.currentTimeMillis())) {
+            return false;
+        }
+        counts.duplicates.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Forgets a claimed delivery that was then refused, so ConnectWise's retry of it is accepted.
+     */
+    public void release(String recordId, WebhookEnvelope event) {
+        String key = deliveryKey(recordId, event);
+        if (key != null) {
+            window.release(key);
+        }
+    }
+
+    private String deliveryKey(String recordId, WebhookEnvelope event) {
+        if (!enabled || event.getEntityLastUpdated() == null) {
+            return null;
+        }
+        return recordId + "|" + event.getAction() + "|" + event.getEntityLastUpdated();
+    }
+
+    @Override
+    public String metricsName() {
+        return "webhookDedup";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        Map<String, Object> tenants = new TreeMap<>();
+        perTenant.forEach((tenantId, counts) -> {
+            long received = counts.received.get();
+            long duplicates = counts.duplicates.get();
+            Map<String, Object> tenant = new LinkedHashMap<>();
+            tenant.put("received", received);
+            tenant.put("duplicates", duplicates);
+            tenant.put("duplicateRate", received == 0 ? 0.0 : (double) duplicates / received);
+            tenants.put(tenantId, tenant);
+        });
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("unkeyed", unkeyed.get());
+        snapshot.put("tenants", tenants);
+        snapshot.put("window", window.snapshot());
+        return snapshot;
+    }
+}
@@ -0,0 +1,163 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.slack.api.methods.SlackApiException;
+import com.slackwise.slackwise.model.CompiledTenantConfig;
+import com.slackwise.slackwise.model.RoutingRule;
+import com.slackwise.slackwise.model.ScheduledAssignment;
+import com.slackwise.slackwise.model.Tenant;
+import com.slackwise.slackwise.model.WebhookEnvelope;
+import com.slackwise.slackwise.model.Ticket;
+
+/**
+ * Turns ConnectWise ticket webhooks into Slack posts and ticket assignments.
+ */
+@Service
+public class WebhookEventProcessor {
+    private static final Logger log = LoggerFactory.getLogger(WebhookEventProcessor.class);
+
+    @Autowired
+    private SlackService slackService;
+
+    @Autowired
+    private RoutingService routingService;
+
+    @Autowired
+    private TenantConfigCache tenantConfigs;
+
+    @Autowired
+    private AutoAssignmentScheduler assignmentScheduler;
+
+    @Autowired
+    private TicketContextFactory ticketContexts;
+
+    // Slack configuration properties
+    @Value("${slack.bot.token}")
+    private String slackBotToken;
+    
+    @Value("${slack.channel.id}")
+    private String slackChannelId;
+
+
+    /**
+     * Processes one ConnectWise ticket event: posts new tickets to Slack, syncs the ticket's thread, and schedules
+     * auto-assignment for new tickets. Events for the same ticket must not be processed concurrently.
+     * 
+     * @param recordId
+     * @param event decoded webhook body
+     * @return short description of the outcome, for logging
+     * @throws InterruptedException 
+     * @throws IOException 
+     * @throws SlackApiException 
+     */
+    public String process(String recordId, WebhookEnvelope event) throws IOException, InterruptedException, SlackApiException {
+
+        log.info("Processing ConnectWise action={} event for recordId={}", event.getAction(), recordId);
+
+        /*
+          
+          Get tenantId from payload
+         
+          */
+
+        if (event.getCompanyId() == null) {
+            log.warn("No CompanyId found in payload for recordId={}", recordId);
+            return "No CompanyId found in payload";
+        }
+
+        Tenant tenant = new Tenant(event.getCompanyId());
+        String tenantId = tenant.getTenantId();
+        
+        log.info("Extracted tenantId={}", tenantId);
+
+        CompiledTenantConfig tenantConfig = tenantConfigs.get(tenantId);
+
+        /*
+            Get ticket ID from payload
+        */ 
+        Integer ticketId = -1;
+
+        if (event.getId() != null) {
+            ticketId = Integer.valueOf(event.getId());
+            log.info("Extracted ticketId={}", ticketId);
+        } else  {
+            log.warn("No ticket ID found in payload for recordId={}", recordId);
+            return "No ticket ID found in payload";
+        }
+
+        /*
+            Get companyId from the entity (decoded up front; the rest of the entity is never parsed here)
+        */
+        if (!event.hasEntity()) {
+            log.warn("Entity is null for recordId={} (likely deleted). Skipping processing", recordId);
+            return "No Entity found in payload";
+        }
+        String companyId = event.getEntityCompanyId() != null ? event.getEntityCompanyId() : "";
+        log.info("Extracted companyId={}", companyId);
+
+        /*
+            Process ticket from payload
+        */
+        
+        // Only process if the companyId is in our tenant-config tracked list
+        if (tenantConfig.isTracked(companyId)) {
+            // Built from the webhook's Entity when it is fresh, otherwise fetched once; shared by everything below
+            TicketContext context = ticketContexts.fromEvent(tenantId, ticketId, event);
+
+            // If the ticket is available
+            if (context != null) {
+                Ticket ticket = context.getTicket();
+
+                // Only process if action is "added" or "updated"
+                if ("added".equals(event.getAction()) || "updated".equals(event.getAction())){
+
+                    RoutingRule matchedRule = routingService.resolveRule(context);
+                    String resolvedChannelId = slackChannelId;
+                    if (matchedRule != null
+                        && matchedRule.getTargetChannelId() != null
+                        && !matchedRule.getTargetChannelId().isBlank()) {
+                        resolvedChannelId = matchedRule.getTargetChannelId();
+                    }
+
+                    log.info("Posting new Slack message for ticketId={} summary={}", ticketId, ticket.getSummary());
+                    slackService.postNewTicket(context, resolvedChannelId, slackBotToken);
+
+                    log.info("Updating Slack thread for ticketId={}", ticketId);
+                    slackService.updateTicketThread(context, resolvedChannelId, slackBotToken);
+                    
+                    // Check later whether the ticket is still unassigned and assign it (with some exceptions for compliance/internal review tickets); the delay lets ConnectWise's own assignment rules run first
+                    if ("added".equals(event.getAction())) {
+                        assignmentScheduler.schedule(new ScheduledAssignment(tenantId, ticketId, companyId,
+                            matchedRule != null ? matchedRule.getTargetAssigneeIdentifier() : null,
+                            System.currentTimeMillis() + tenantConfig.getAutoAssignmentDelayMinutes() * 60000L));
+                    } else if (ticket.getOwner() != null) {
+                        // Someone took the ticket before the delay ran out
+                        assignmentScheduler.cancel(tenantId, ticketId);
+                    }
+
+                    log.info("Finished processing event for ticketId={} summary={}", ticketId, ticket.getSummary());
+
+                    return "Processed new ticket event for ticketId: " + ticketId;
+                } else {
+                    log.info("Ignoring ConnectWise action={}", event.getAction());
+                    return "Ignored event action: " + event.getAction();
+                }
+
+            } else {
+                log.warn("Failed to fetch ticketId={}", ticketId);
+                return "Failed to fetch ticket " + ticketId;
+            }
+        } else {
+            log.debug("Ignoring event from ticketId={} (companyId={} not tracked in {})", ticketId, companyId, tenantConfig.describeTrackedCompanyIds());
+        }
+
+        return "Received";
+    }
+}
@@ -0,0 +1,550 @@
+package com.slackwise.slackwise.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.slackwise.slackwise.model.CompiledTenantConfig;
+import com.slackwise.slackwise.model.Tenant;
+import com.slackwise.slackwise.model.WebhookEnvelope;
+import com.slackwise.slackwise.util.FairQueue;
+import com.slackwise.slackwise.util.KeyedExecutor;
+import com.slackwise.slackwise.util.WebhookEnvelopeDecoder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bounded in-memory queue between the ConnectWise webhook endpoint and {@link WebhookEventProcessor}.
+ *
+ * The endpoint only validates and offers the event, so ConnectWise gets its acknowledgement in milliseconds. A single
+ * dispatcher thread takes events and hands them to a {@link KeyedExecutor}, which keeps events for the same ticket
+ * sequential. At most {@code connectwise.ingest.workers} events are in processing at once; the rest wait in the queue,
+ * and once it is full new events are refused so the caller can retry later. An event taken for a ticket that already
+ * has one running is parked behind it without a worker slot and runs on that ticket's slot next, so a burst on one
+ * ticket holds one worker rather than all of them. Parked events count against the queue capacity.
+ *
+ * The queue is a {@link FairQueue} with one sub-queue per tenant, served in proportion to each tenant's
+ * {@code ingestWeight}, so a tenant replaying thousands of tickets delays the others by a few events rather than by its
+ * whole backlog. A tenant's {@code ingestConcurrency} caps how many workers its events hold at once, and
+ * {@code connectwise.ingest.tenant-queue-capacity} caps how much of the queue it can fill. Within a tenant events keep
+ * arrival order.
+ *
+ * Every accepted event is written to the {@link InboundEventJournal} before it is acknowledged and marked done once
+ * processed, so events still queued or in flight when the JVM stops are replayed on the next start. Replay runs on its
+ * own thread once the application is ready, and a new event for a ticket that still has replayed events waiting is
+ * held back until they are queued, so it never overtakes them.
+ *
+ * ConnectWise sends a burst of {@code updated} callbacks when a ticket's status, notes and time entries change
+ * together. An {@code updated} event therefore waits up to {@code connectwise.ingest.coalesce-window-ms} before it is
+ * queued, and any later update for the same ticket in that window replaces it, so the burst costs one processing
+ * pass with the latest payload. Every other action, {@code added} included, is queued immediately. Updates waiting
+ * out their window count against the queue capacity, and a window that closes while the queue is full retries shortly
+ * after rather than holding up every other ticket's window.
+ */
+@Service
+public class WebhookIngestionQueue implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(WebhookIngestionQueue.class);
+
+    // How soon a closed window whose update found the queue full tries again
+    private static final long FLUSH_RETRY_MILLIS = 100;
+
+    @Value("${connectwise.ingest.queue-capacity:1000}")
+    private int capacity;
+
+    // Most events one tenant may have queued; 0 lets a tenant use the whole queue
+    @Value("${connectwise.ingest.tenant-queue-capacity:0}")
+    private int tenantCapacity;
+
+    @Value("${connectwise.ingest.workers:16}")
+    private int workers;
+
+    // 0 queues updates immediately
+    @Value("${connectwise.ingest.coalesce-window-ms:3000}")
+    private long coalesceWindowMillis;
+
+    @Autowired
+    private WebhookEventProcessor processor;
+
+    @Autowired
+    private InboundEventJournal journal;
+
+    @Autowired
+    private TenantConfigCache tenantConfigs;
+
+    private FairQueue<Envelope> queue;
+    private Semaphore workerPermits;
+    private final KeyedExecutor<String> ticketLanes = new KeyedExecutor<>();
+    private Thread dispatcher;
+    private Thread replayer;
+
+    // Events left unacknowledged by the last run, read before the endpoint takes webhooks and queued by the replayer
+    private final List<Envelope> replayBacklog = new ArrayList<>();
+
+    // Tickets with replayed events not yet queued, and new events held back behind them; guarded by itself
+    private final Map<String, ReplayFence> replayFences = new HashMap<>();
+    private final AtomicInteger heldBehindReplay = new AtomicInteger();
+
+    // Tickets with an event running, and the events taken for them since, in arrival order; guarded by itself
+    private final Map<String, ArrayDeque<Envelope>> busyTickets = new HashMap<>();
+    private final AtomicInteger parked = new AtomicInteger();
+
+    // Latest pending update per ordering key, waiting for its coalescing window to close
+    private final Map<String, Envelope> pendingUpdates = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService coalesceTimer = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("connectwise-ingest-coalescer").daemon().factory());
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong deferredFlushes = new AtomicLong();
+    private final AtomicLong updatePasses = new AtomicLong();
+    private final AtomicLong updatePassCalls = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    private final AtomicLong totalProcessingMillis = new AtomicLong();
+
+    /**
+     * A webhook waiting to be processed.
+     */
+    public static class Envelope {
+        private final String recordId;
+        private final WebhookEnvelope event;
+        private final String key;
+        // Journal sequence, or -1 when the journal is disabled
+        private final long sequence;
+        private final long enqueuedAtNanos = System.nanoTime();
+
+        public Envelope(String recordId, WebhookEnvelope event, String key, long sequence) {
+            this.recordId = recordId;
+            this.event = event;
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        public String getRecordId() {
+            return recordId;
+        }
+
+        public WebhookEnvelope getEvent() {
+            return event;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
+    /**
+     * Replayed events of one ticket that are not queued yet, and new events for it held back until they are.
+     */
+    private static class ReplayFence {
+        private int replayedLeft;
+        private final ArrayDeque<Envelope> held = new ArrayDeque<>();
+    }
+
+    @PostConstruct
+    public void start() throws IOException, InterruptedException {
+        queue = new FairQueue<>(Math.max(1, capacity), tenantCapacity);
+        workerPermits = new Semaphore(Math.max(1, workers));
+        dispatcher = Thread.ofPlatform().name("connectwise-ingest-dispatcher").daemon().start(this::dispatch);
+        loadReplayBacklog();
+    }
+
+    /**
+     * Reads the events that were accepted but not finished before the last shutdown and fences their tickets. This
+     * runs before the endpoint takes webhooks, so the backlog holds only events from the last run.
+     */
+    private void loadReplayBacklog() throws IOException, InterruptedException {
+        journal.replay(InboundEventJournal.CONNECTWISE, (sequence, entry) -> {
+            WebhookEnvelope event;
+            try {
+                event = WebhookEnvelopeDecoder.decode(String.valueOf(entry.get("body")).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                log.error("Skipping undecodable journaled event for recordId={}", entry.get("recordId"), e);
+                journal.acknowledge(InboundEventJournal.CONNECTWISE, sequence);
+                return;
+            }
+            Envelope envelope = new Envelope(String.valueOf(entry.get("recordId")), event, String.valueOf(entry.get("key")), sequence);
+            replayBacklog.add(envelope);
+            synchronized (replayFences) {
+                replayFences.computeIfAbsent(envelope.getKey(), key -> new ReplayFence()).replayedLeft++;
+            }
+        });
+    }
+
+    /**
+     * Requeues the events read by {@link #loadReplayBacklog} in journal order, on a thread of its own: a backlog larger
+     * than the queue waits for the workers, and that must not hold up the other ready listeners.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        if (replayBacklog.isEmpty()) {
+            return;
+        }
+        replayer = Thread.ofPlatform().name("connectwise-ingest-replay").daemon().start(() -> {
+            try {
+                for (Envelope envelope : replayBacklog) {
+                    // Blocks while the queue is full, so a large backlog drains at the workers' pace
+                    put(envelope);
+                    replayed.incrementAndGet();
+                    releaseFence(envelope.getKey());
+                }
+                log.info("Requeued {} journaled ConnectWise events", replayed.get());
+            } catch (InterruptedException e) {
+                // Shutting down: whatever was not processed is still unacknowledged and comes back on the next start
+                Thread.currentThread().interrupt();
+            } finally {
+                replayBacklog.clear();
+            }
+        });
+    }
+
+    /**
+     * Counts one replayed event of a ticket as queued. Once none are left, the events held back for the ticket are
+     * queued behind them, and the ticket stays fenced until that is done so a newer event cannot slip in between.
+     */
+    private void releaseFence(String key) throws InterruptedException {
+        synchronized (replayFences) {
+            if (--replayFences.get(key).replayedLeft > 0) {
+                return;
+            }
+        }
+        while (true) {
+            List<Envelope> held;
+            synchronized (replayFences) {
+                ReplayFence fence = replayFences.get(key);
+                if (fence.held.isEmpty()) {
+                    replayFences.remove(key);
+                    return;
+                }
+                held = new ArrayList<>(fence.held);
+                fence.held.clear();
+            }
+            for (Envelope envelope : held) {
+                put(envelope);
+                heldBehindReplay.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Holds a new event back if its ticket still has replayed events waiting to be queued.
+     */
+    private boolean holdBehindReplay(Envelope envelope) {
+        synchronized (replayFences) {
+            ReplayFence fence = replayFences.get(envelope.getKey());
+            if (fence == null) {
+                return false;
+            }
+            fence.held.addLast(envelope);
+            heldBehindReplay.incrementAndGet();
+            return true;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.interrupt();
+        if (replayer != null) {
+            replayer.interrupt();
+        }
+        // Pending updates are still unacknowledged in the journal and come back on replay
+        coalesceTimer.shutdownNow();
+        ticketLanes.close();
+        if (queue.size() > 0) {
+            log.warn("Shutting down with {} ConnectWise events still queued", queue.size());
+        }
+    }
+
+    /**
+     * Journals and queues an event. Only waits for the journal sync, never for queue space.
+     *
+     * @param recordId ConnectWise record ID from the callback URL
+     * @param event decoded webhook body
+     * @param key ordering key; events with the same key are processed one at a time in arrival order
+     * @return false if the queue is full and the event was dropped
+     * @throws IOException if the event could not be journaled; it was not queued
+     */
+    public boolean offer(String recordId, WebhookEnvelope event, String key) throws IOException {
+        // Cheap early refusal so a full queue does not cost a journal write
+        if (queue.remainingCapacity() - parked.get() - pendingUpdates.size() - heldBehindReplay.get() <= 0) {
+            return reject(recordId);
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("recordId", recordId);
+        entry.put("key", key);
+        // The body as received; replay decodes it again
+        entry.put("body", new String(event.getBody(), StandardCharsets.UTF_8));
+        long sequence = journal.record(InboundEventJournal.CONNECTWISE, entry);
+        Envelope envelope = new Envelope(recordId, event, key, sequence);
+
+        if (holdBehindReplay(envelope)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        if (coalesceWindowMillis > 0 && isUpdate(envelope)) {
+            coalesce(envelope);
+            accepted.incrementAndGet();
+            return true;
+        }
+        Share share = share(envelope);
+        if (!queue.offer(share.tenantId, share.weight, share.maxInFlight, envelope)) {
+            // The sender is told to retry, so this copy must not be replayed
+            journal.acknowledge(InboundEventJournal.CONNECTWISE, sequence);
+            return reject(recordId);
+        }
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    private static boolean isUpdate(Envelope envelope) {
+        return "updated".equals(envelope.getEvent().getAction());
+    }
+
+    /**
+     * Holds an update for its ticket's window, replacing any update already waiting there.
+     */
+    private void coalesce(Envelope envelope) {
+        Envelope[] superseded = new Envelope[1];
+        pendingUpdates.compute(envelope.getKey(), (key, pending) -> {
+            superseded[0] = pending;
+            return envelope;
+        });
+        if (superseded[0] != null) {
+            // The newer payload carries the ticket's latest state, so the older one is done
+            coalesced.incrementAndGet();
+            journal.acknowledge(InboundEventJournal.CONNECTWISE, superseded[0].getSequence());
+            log.debug("Coalesced update for {} (recordId={})", envelope.getKey(), envelope.getRecordId());
+        } else {
+            // The window opens with the first update, so a steady stream still flushes once per window
+            coalesceTimer.schedule(() -> flush(envelope.getKey()), coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(String key) {
+        Envelope envelope = pendingUpdates.remove(key);
+        if (envelope == null) {
+            return;
+        }
+        Share share = share(envelope);
+        if (queue.offer(share.tenantId, share.weight, share.maxInFlight, envelope)) {
+            return;
+        }
+        // Already acknowledged to ConnectWise, so keep it rather than drop it, but never block the timer thread
+        boolean[] superseded = new boolean[1];
+        pendingUpdates.compute(key, (k, pending) -> {
+            superseded[0] = pending != null;
+            return pending != null ? pending : envelope;
+        });
+        if (superseded[0]) {
+            // A newer update arrived meanwhile and has its own window scheduled
+            coalesced.incrementAndGet();
+            journal.acknowledge(InboundEventJournal.CONNECTWISE, envelope.getSequence());
+        } else {
+            deferredFlushes.incrementAndGet();
+            coalesceTimer.schedule(() -> flush(key), FLUSH_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void put(Envelope envelope) throws InterruptedException {
+        Share share = share(envelope);
+        queue.put(share.tenantId, share.weight, share.maxInFlight, envelope);
+    }
+
+    /**
+     * Tenant an event is scheduled under and that tenant's weight and concurrency cap.
+     */
+    private static class Share {
+        private final String tenantId;
+        private final int weight;
+        private final int maxInFlight;
+
+        Share(String tenantId, int weight, int maxInFlight) {
+            this.tenantId = tenantId;
+            this.weight = weight;
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    private Share share(Envelope envelope) {
+        String companyId = envelope.getEvent().getCompanyId();
+        if (companyId == null) {
+            // Rejected by the processor straight away, so it just needs a lane of its own
+            return new Share("", 1, 0);
+        }
+        String tenantId = new Tenant(companyId).getTenantId();
+        try {
+            CompiledTenantConfig config = tenantConfigs.get(tenantId);
+            return new Share(tenantId, config.getIngestWeight(), config.getIngestConcurrency());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Could not load tenant config for tenantId={}, scheduling with default share", tenantId, e);
+        }
+        return new Share(tenantId, 1, 0);
+    }
+
+    private boolean reject(String recordId) {
+        rejected.incrementAndGet();
+        log.warn("Ingestion queue full ({}), rejecting event for recordId={}", capacity, recordId);
+        return false;
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                // Take a worker slot first so backlog stays in the bounded queue, not in the ticket lanes
+                workerPermits.acquire();
+                FairQueue.Lease<Envelope> lease;
+                try {
+                    lease = queue.take();
+                } catch (InterruptedException e) {
+                    workerPermits.release();
+                    throw e;
+                }
+                Envelope envelope = lease.getItem();
+                synchronized (busyTickets) {
+                    ArrayDeque<Envelope> waiting = busyTickets.get(envelope.getKey());
+                    if (waiting != null) {
+                        // Its ticket is already running; wait behind it without holding a worker or tenant slot
+                        waiting.addLast(envelope);
+                        parked.incrementAndGet();
+                        queue.done(lease.getTenantId());
+                        workerPermits.release();
+                        continue;
+                    }
+                    busyTickets.put(envelope.getKey(), new ArrayDeque<>());
+                }
+                ticketLanes.submit(envelope.getKey(), () -> {
+                    try {
+                        // Parked events for the ticket run next on the same worker and tenant slot
+                        for (Envelope next = envelope; next != null; next = nextParked(next.getKey())) {
+                            recordWait(next);
+                            run(next);
+                        }
+                    } finally {
+                        queue.done(lease.getTenantId());
+                        workerPermits.release();
+                    }
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Next event parked behind a ticket, or null once there is none and the ticket is no longer busy.
+     */
+    private Envelope nextParked(String key) {
+        synchronized (busyTickets) {
+            ArrayDeque<Envelope> waiting = busyTickets.get(key);
+            Envelope next = waiting != null ? waiting.pollFirst() : null;
+            if (next == null) {
+                busyTickets.remove(key);
+            } else {
+                parked.decrementAndGet();
+            }
+            return next;
+        }
+    }
+
+    private void run(Envelope envelope) {
+        long start = System.nanoTime();
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            String outcome = ResilienceService.tallyCalls(calls, () -> processor.process(envelope.getRecordId(), envelope.getEvent()));
+            processed.incrementAndGet();
+            if (isUpdate(envelope)) {
+                updatePasses.incrementAndGet();
+                updatePassCalls.addAndGet(calls.get());
+            }
+            log.debug("Processed recordId={}: {}", envelope.getRecordId(), outcome);
+            journal.acknowledge(InboundEventJournal.CONNECTWISE, envelope.getSequence());
+        } catch (InterruptedException e) {
+            // Shutting down: leave it unacknowledged so it is replayed
+            failed.incrementAndGet();
+            log.warn("Processing interrupted for recordId={}, will replay on restart", envelope.getRecordId());
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("Failed to process ConnectWise event for recordId={}", envelope.getRecordId(), e);
+            // Failures are logged, not retried, so they are acknowledged too
+            journal.acknowledge(InboundEventJournal.CONNECTWISE, envelope.getSequence());
+        } finally {
+            totalProcessingMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private void recordWait(Envelope envelope) {
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - envelope.enqueuedAtNanos);
+        dispatched.incrementAndGet();
+        totalWaitMillis.addAndGet(waitMillis);
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+    }
+
+    @Override
+    public String metricsName() {
+        return "connectwiseIngestion";
+    }
+
+    @Override
+    public Map<String, Object> metricsSnapshot() {
+        long waited = dispatched.get();
+        long finished = processed.get() + failed.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("depth", queue.size());
+        snapshot.put("capacity", capacity);
+        snapshot.put("inFlight", Math.max(1, workers) - workerPermits.availablePermits());
+        snapshot.put("parkedBehindTicket", parked.get());
+        snapshot.put("accepted", accepted.get());
+        snapshot.put("rejected", rejected.get());
+        snapshot.put("processed", processed.get());
+        snapshot.put("failed", failed.get());
+        snapshot.put("replayed", replayed.get());
+        snapshot.put("heldBehindReplay", heldBehindReplay.get());
+        snapshot.put("pendingUpdates", pendingUpdates.size());
+        snapshot.put("coalescedUpdates", coalesced.get());
+        snapshot.put("deferredFlushes", deferredFlushes.get());
+        // Downstream calls (ConnectWise, Slack, DynamoDB attempts) an update pass makes, times the passes saved
+        long passes = updatePasses.get();
+        double callsPerPass = passes == 0 ? 0.0 : (double) updatePassCalls.get() / passes;
+        snapshot.put("avgCallsPerUpdatePass", callsPerPass);
+        snapshot.put("estimatedCallsSaved", Math.round(coalesced.get() * callsPerPass));
+        snapshot.put("avgQueueWaitMillis", waited == 0 ? 0.0 : (double) totalWaitMillis.get() / waited);
+        snapshot.put("maxQueueWaitMillis", maxWaitMillis.get());
+        snapshot.put("avgProcessingMillis", finished == 0 ? 0.0 : (double) totalProcessingMillis.get() / finished);
+        snapshot.put("ticketLanes", ticketLanes.snapshot());
+        snapshot.put("fairQueue", queue.snapshot());
+        return snapshot;
+    }
+}
@@ -0,0 +1,107 @@
+package com.slackwise.slackwise.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded one-to-one mapping that can be looked up from either side, evicting the least recently used pair once full.
+ *
+ * Putting a pair replaces any pair that shared its key or its value, so each key maps to exactly one value and back.
+ * Thread safe; every operation takes the instance lock, which is fine for the small, hot sets this is meant for.
+ *
+ * @param <K> forward key, e.g. {@code tenantId#threadTs}
+ * @param <V> reverse key, e.g. {@code tenantId#ticketId}
+ */
+public class BidirectionalLruCache<K, V> {
+
+    private final int capacity;
+    private final LinkedHashMap<K, V> forward;
+    private final Map<V, K> reverse = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BidirectionalLruCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.forward = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= BidirectionalLruCache.this.capacity) {
+                    return false;
+                }
+                reverse.remove(eldest.getValue());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Value mapped to a key, or null.
+     */
+    public synchronized V getValue(K key) {
+        V value = forward.get(key);
+        count(value != null);
+        return value;
+    }
+
+    /**
+     * Key mapped to a value, or null.
+     */
+    public synchronized K getKey(V value) {
+        K key = reverse.get(value);
+        if (key != null) {
+            // Touch the forward entry so lookups from either side keep the pair recent
+            forward.get(key);
+        }
+        count(key != null);
+        return key;
+    }
+
+    /**
+     * Whether this exact pair is cached. Not counted as a lookup.
+     */
+    public synchronized boolean contains(K key, V value) {
+        V cached = forward.get(key);
+        return cached != null && cached.equals(value);
+    }
+
+    public synchronized void put(K key, V value) {
+        V previousValue = forward.remove(key);
+        if (previousValue != null) {
+            reverse.remove(previousValue);
+        }
+        K previousKey = reverse.remove(value);
+        if (previousKey != null) {
+            forward.remove(previousKey);
+        }
+        forward.put(key, value);
+        reverse.put(value, key);
+    }
+
+    public synchronized int size() {
+        return forward.size();
+    }
+
+    private void count(boolean hit) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        long lookups = hits + misses;
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("size", forward.size());
+        snapshot.put("capacity", capacity);
+        snapshot.put("hits", hits);
+        snapshot.put("misses", misses);
+        snapshot.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        snapshot.put("evictions", evictions);
+        return snapshot;
+    }
+}
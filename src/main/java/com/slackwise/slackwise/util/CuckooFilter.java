@@ -0,0 +1,151 @@
+package com.slackwise.slackwise.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cuckoo filter over 64-bit hashes: answers "definitely not added" or "maybe added", and unlike a Bloom filter
+ * supports removal. Each bucket holds four 16-bit fingerprints, and an item can live in either of two buckets derived
+ * from its hash, so about 0.01% of lookups for absent items come back as false positives.
+ *
+ * Not thread safe; callers synchronize.
+ */
+public class CuckooFilter {
+
+    private static final int SLOTS = 4;
+    private static final int MAX_KICKS = 500;
+    // Buckets are filled to at most this fraction of their slots for the expected item count
+    private static final double TARGET_LOAD = 0.9;
+
+    private final short[] table;
+    private final int bucketMask;
+    private int size;
+
+    /**
+     * @param expectedItems most items expected at once; inserts start failing somewhat above this
+     */
+    public CuckooFilter(int expectedItems) {
+        int buckets = Integer.highestOneBit(Math.max(1, (int) Math.ceil(expectedItems / (SLOTS * TARGET_LOAD))) * 2 - 1);
+        table = new short[buckets * SLOTS];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Adds a hash. Adding the same hash twice stores it twice.
+     *
+     * @return false if the filter is too full; one previously stored fingerprint may then have been dropped, so the
+     *         caller should rebuild a larger filter
+     */
+    public boolean add(long hash) {
+        short fingerprint = fingerprint(hash);
+        int first = index(hash);
+        int second = alternate(first, fingerprint);
+        if (insertInto(first, fingerprint) || insertInto(second, fingerprint)) {
+            size++;
+            return true;
+        }
+
+        // Both buckets full: evict a random fingerprint to its other bucket, and so on
+        int bucket = ThreadLocalRandom.current().nextBoolean() ? first : second;
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            int slot = bucket * SLOTS + ThreadLocalRandom.current().nextInt(SLOTS);
+            short evicted = table[slot];
+            table[slot] = fingerprint;
+            fingerprint = evicted;
+            bucket = alternate(bucket, fingerprint);
+            if (insertInto(bucket, fingerprint)) {
+                size++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean mightContain(long hash) {
+        short fingerprint = fingerprint(hash);
+        int first = index(hash);
+        return contains(first, fingerprint) || contains(alternate(first, fingerprint), fingerprint);
+    }
+
+    /**
+     * Removes one copy of a hash that was added earlier. Removing a hash that was never added can remove another
+     * item that shares its fingerprint, so only remove what was added.
+     */
+    public boolean remove(long hash) {
+        short fingerprint = fingerprint(hash);
+        int first = index(hash);
+        if (removeFrom(first, fingerprint) || removeFrom(alternate(first, fingerprint), fingerprint)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return table.length;
+    }
+
+    private boolean insertInto(int bucket, short fingerprint) {
+        for (int slot = bucket * SLOTS; slot < (bucket + 1) * SLOTS; slot++) {
+            if (table[slot] == 0) {
+                table[slot] = fingerprint;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(int bucket, short fingerprint) {
+        for (int slot = bucket * SLOTS; slot < (bucket + 1) * SLOTS; slot++) {
+            if (table[slot] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean removeFrom(int bucket, short fingerprint) {
+        for (int slot = bucket * SLOTS; slot < (bucket + 1) * SLOTS; slot++) {
+            if (table[slot] == fingerprint) {
+                table[slot] = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int index(long hash) {
+        return (int) hash & bucketMask;
+    }
+
+    // XOR with a hash of the fingerprint, so either bucket leads to the other
+    private int alternate(int bucket, short fingerprint) {
+        return (bucket ^ (fingerprint * 0x5bd1e995)) & bucketMask;
+    }
+
+    // Zero marks an empty slot, so fingerprints are never zero
+    private static short fingerprint(long hash) {
+        short fingerprint = (short) (hash >>> 48);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * 64-bit hash of a string (FNV-1a followed by a MurmurHash3 finalizer to spread the bits).
+     */
+    public static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,447 @@
+package com.slackwise.slackwise.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of opaque records with a single consumer checkpoint.
+ *
+ * Records are written into preallocated segment files named after the first sequence they hold and rolled once a
+ * segment is full. Each record is {@code [length][crc32c][sequence][payload]}; the length is written last, so a torn
+ * write at the tail is detected on reopen by a zero length, a bad checksum or a sequence gap, and the journal resumes
+ * after the last intact record.
+ *
+ * Durability uses group commit: {@link #append} copies the record into the mapping and returns a future that a single
+ * flusher thread completes after the next {@code force()}. Appends arriving while a force is running share the next
+ * one, so one fsync covers a whole batch and throughput grows with concurrency instead of being capped by disk latency.
+ *
+ * The consumer acknowledges sequences in any order. The checkpoint is the highest sequence below which everything is
+ * acknowledged; it is written periodically, {@link #replay} returns what comes after it, and segments that lie
+ * entirely below it are deleted (keeping the newest {@code retainedSegments} of them).
+ */
+public class EventJournal implements AutoCloseable {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    // length + crc + sequence
+    private static final int HEADER_BYTES = 16;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long checkpointIntervalMillis;
+    private final int retainedSegments;
+
+    // Base sequence of each segment file, oldest first
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    private final Object lock = new Object();
+    private MappedByteBuffer active;
+    private long nextSequence;
+    private List<CompletableFuture<Void>> unsynced = new ArrayList<>();
+    private boolean open = true;
+
+    // Acknowledged sequences above the checkpoint, waiting for the gap below them to close
+    private final TreeSet<Long> acknowledgedAhead = new TreeSet<>();
+    private long acknowledged;
+    private volatile long checkpoint;
+    private final Thread flusher;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong appendedBytes = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong totalSyncMicros = new AtomicLong();
+    private final AtomicLong maxSyncMicros = new AtomicLong();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLong recoveredRecords = new AtomicLong();
+    private final AtomicLong truncatedTails = new AtomicLong();
+    private final AtomicLong compactedSegments = new AtomicLong();
+
+    /**
+     * A record read back from the journal.
+     */
+    public static class Record {
+        private final long sequence;
+        private final byte[] payload;
+
+        Record(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code directory}, recovering the tail of the last segment.
+     *
+     * @param directory where segments and the checkpoint live
+     * @param segmentBytes preallocated size of each segment
+     * @param checkpointIntervalMillis how often the checkpoint is persisted and old segments compacted
+     * @param retainedSegments fully acknowledged segments to keep on disk
+     */
+    public EventJournal(Path directory, int segmentBytes, long checkpointIntervalMillis, int retainedSegments) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = Math.max(4096, segmentBytes);
+        this.checkpointIntervalMillis = Math.max(1, checkpointIntervalMillis);
+        this.retainedSegments = Math.max(0, retainedSegments);
+
+        Files.createDirectories(directory);
+        checkpoint = readCheckpoint();
+        acknowledged = checkpoint;
+        recover();
+        flusher = Thread.ofPlatform().name("journal-flusher-" + directory.getFileName()).daemon().start(this::flushLoop);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @return future completed with the record's sequence once it has been forced to disk
+     */
+    public CompletableFuture<Long> append(byte[] payload) throws IOException {
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (lock) {
+            if (!open) {
+                throw new IOException("Journal is closed: " + directory);
+            }
+            int size = HEADER_BYTES + payload.length;
+            // Keep room for the zero length that marks the end of the segment
+            if (active == null || active.remaining() < size + 4) {
+                roll(size + 4);
+            }
+            long sequence = nextSequence++;
+            int position = active.position();
+            active.putInt(position + 4, checksum(sequence, payload));
+            active.putLong(position + 8, sequence);
+            active.put(position + HEADER_BYTES, payload);
+            active.putInt(position + size, 0);
+            // Written last: a record only exists once its length is non-zero
+            active.putInt(position, payload.length);
+            active.position(position + size);
+
+            unsynced.add(durable);
+            appended.incrementAndGet();
+            appendedBytes.addAndGet(size);
+            lock.notifyAll();
+            return durable.thenApply(ignored -> sequence);
+        }
+    }
+
+    /**
+     * Marks a sequence as processed. Sequences may be acknowledged in any order.
+     */
+    public void acknowledge(long sequence) {
+        synchronized (acknowledgedAhead) {
+            if (sequence <= acknowledged) {
+                return;
+            }
+            acknowledgedAhead.add(sequence);
+            while (!acknowledgedAhead.isEmpty() && acknowledgedAhead.first() == acknowledged + 1) {
+                acknowledged = acknowledgedAhead.pollFirst();
+            }
+        }
+    }
+
+    /**
+     * Reads every record after the checkpoint that was appended before this call, oldest first.
+     */
+    public List<Record> replay() throws IOException {
+        long end;
+        synchronized (lock) {
+            end = nextSequence;
+        }
+        long from;
+        synchronized (acknowledgedAhead) {
+            from = acknowledged;
+        }
+        List<Record> records = new ArrayList<>();
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long nextBase = segments.higherKey(segment.getKey());
+            if (nextBase != null && nextBase - 1 <= from) {
+                continue;
+            }
+            scan(segment.getValue(), segment.getKey(), end, record -> {
+                if (record.getSequence() > from) {
+                    records.add(record);
+                }
+            });
+        }
+        return records;
+    }
+
+    /**
+     * Highest sequence at or below which every record has been acknowledged; persisted as the checkpoint at most
+     * one interval later.
+     */
+    public long acknowledgedThrough() {
+        synchronized (acknowledgedAhead) {
+            return acknowledged;
+        }
+    }
+
+    private void flushLoop() {
+        long nextCheckpointAt = System.nanoTime();
+        while (true) {
+            List<CompletableFuture<Void>> batch;
+            MappedByteBuffer segment;
+            boolean closing;
+            synchronized (lock) {
+                long waitMillis = TimeUnit.NANOSECONDS.toMillis(nextCheckpointAt - System.nanoTime());
+                if (open && unsynced.isEmpty() && waitMillis > 0) {
+                    try {
+                        lock.wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        open = false;
+                    }
+                }
+                batch = unsynced;
+                unsynced = new ArrayList<>();
+                segment = active;
+                closing = !open;
+            }
+
+            if (!batch.isEmpty()) {
+                sync(segment, batch);
+            }
+            if (closing || System.nanoTime() - nextCheckpointAt >= 0) {
+                try {
+                    writeCheckpoint();
+                    compact();
+                } catch (IOException e) {
+                    // Retried on the next interval; replay just starts from an older checkpoint meanwhile
+                }
+                nextCheckpointAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMillis);
+            }
+            if (closing) {
+                return;
+            }
+        }
+    }
+
+    private void sync(MappedByteBuffer segment, List<CompletableFuture<Void>> batch) {
+        long start = System.nanoTime();
+        try {
+            // Segments rolled before this batch were forced when they were rolled
+            segment.force();
+        } catch (UncheckedIOException e) {
+            batch.forEach(future -> future.completeExceptionally(e.getCause()));
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        syncs.incrementAndGet();
+        totalSyncMicros.addAndGet(micros);
+        maxSyncMicros.accumulateAndGet(micros, Math::max);
+        maxBatch.accumulateAndGet(batch.size(), Math::max);
+        batch.forEach(future -> future.complete(null));
+    }
+
+    private void roll(int minimumBytes) throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Path path = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+        active = map(path, Math.max(segmentBytes, minimumBytes), true);
+        segments.put(nextSequence, path);
+    }
+
+    private static MappedByteBuffer map(Path path, int size, boolean create) throws IOException {
+        try (FileChannel channel = create
+            ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end extends the file with zeros; the mapping outlives the channel
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, create ? size : channel.size());
+        }
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .forEach(path -> {
+                    String name = path.getFileName().toString();
+                    segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), path);
+                });
+        }
+        nextSequence = checkpoint + 1;
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        MappedByteBuffer buffer = map(last.getValue(), 0, false);
+        long[] expected = { last.getKey() };
+        int end = scan(buffer, expected, Long.MAX_VALUE, record -> recoveredRecords.incrementAndGet());
+        if (end + 4 <= buffer.capacity() && buffer.getInt(end) != 0) {
+            // Torn or stale bytes after the last intact record
+            buffer.putInt(end, 0);
+            truncatedTails.incrementAndGet();
+        }
+        buffer.position(end);
+        active = buffer;
+        if (expected[0] < nextSequence) {
+            // The checkpoint is ahead of what survived on disk; start a fresh segment so sequences stay consecutive
+            active = null;
+        }
+        nextSequence = Math.max(nextSequence, expected[0]);
+    }
+
+    private interface RecordVisitor {
+        void visit(Record record);
+    }
+
+    private void scan(Path path, long base, long endSequence, RecordVisitor visitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        scan(buffer, new long[] { base }, endSequence, visitor);
+    }
+
+    /**
+     * Visits intact, consecutive records starting at {@code expected[0]} and stops at the first gap.
+     *
+     * @return byte offset just past the last intact record; {@code expected[0]} is left at the next sequence
+     */
+    private static int scan(ByteBuffer buffer, long[] expected, long endSequence, RecordVisitor visitor) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity() && expected[0] < endSequence) {
+            int length = buffer.getInt(position);
+            // Compared without adding to the position, so a garbage length cannot overflow past the check
+            if (length <= 0 || length > buffer.capacity() - position - HEADER_BYTES) {
+                break;
+            }
+            long sequence = buffer.getLong(position + 8);
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            if (sequence != expected[0] || checksum(sequence, payload) != buffer.getInt(position + 4)) {
+                break;
+            }
+            visitor.visit(new Record(sequence, payload));
+            expected[0]++;
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim());
+    }
+
+    private void writeCheckpoint() throws IOException {
+        long current = acknowledgedThrough();
+        if (current == checkpoint) {
+            return;
+        }
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(current).getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = current;
+    }
+
+    /**
+     * Deletes segments whose every record is at or below the persisted checkpoint, keeping the newest
+     * {@code retainedSegments} of them. The active segment is never deleted.
+     */
+    private void compact() throws IOException {
+        List<Long> deletable = new ArrayList<>();
+        Iterator<Long> bases = segments.keySet().iterator();
+        Long base = bases.hasNext() ? bases.next() : null;
+        while (base != null && bases.hasNext()) {
+            Long nextBase = bases.next();
+            if (nextBase - 1 > checkpoint) {
+                break;
+            }
+            deletable.add(base);
+            base = nextBase;
+        }
+        for (int i = 0; i < deletable.size() - retainedSegments; i++) {
+            Path path = segments.remove(deletable.get(i));
+            Files.deleteIfExists(path);
+            compactedSegments.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long syncCount = syncs.get();
+        long next;
+        synchronized (lock) {
+            next = nextSequence;
+        }
+        long acked = acknowledgedThrough();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("directory", directory.toString());
+        snapshot.put("segments", segments.size());
+        snapshot.put("nextSequence", next);
+        snapshot.put("acknowledged", acked);
+        snapshot.put("persistedCheckpoint", checkpoint);
+        snapshot.put("unacknowledged", Math.max(0, next - 1 - acked));
+        snapshot.put("appended", appended.get());
+        snapshot.put("appendedBytes", appendedBytes.get());
+        snapshot.put("syncs", syncCount);
+        snapshot.put("avgRecordsPerSync", syncCount == 0 ? 0.0 : (double) appended.get() / syncCount);
+        snapshot.put("maxRecordsPerSync", maxBatch.get());
+        snapshot.put("avgSyncMicros", syncCount == 0 ? 0.0 : (double) totalSyncMicros.get() / syncCount);
+        snapshot.put("maxSyncMicros", maxSyncMicros.get());
+        snapshot.put("recoveredRecords", recoveredRecords.get());
+        snapshot.put("truncatedTails", truncatedTails.get());
+        snapshot.put("compactedSegments", compactedSegments.get());
+        return snapshot;
+    }
+
+    /**
+     * Syncs outstanding appends, persists the checkpoint and stops the flusher.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            open = false;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.slackwise.slackwise.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded multi-tenant queue served by deficit round robin, so a tenant with a large backlog cannot starve the others.
+ *
+ * Each tenant has its own FIFO sub-queue. Tenants with queued items take turns; a turn adds the tenant's weight to its
+ * deficit and lets it hand out that many items, so over time each busy tenant gets a share of dispatches proportional
+ * to its weight. A tenant that already has {@code maxInFlight} items taken and not yet {@link #done(String) done} is
+ * passed over until one finishes, so one tenant never holds every worker. Only tenants with queued items take part in
+ * the rotation; idle ones just keep their counters.
+ *
+ * Capacity is bounded overall and, optionally, per tenant, so a flood from one tenant is refused before it fills the
+ * space the others need.
+ *
+ * @param <T> queued item
+ */
+public class FairQueue<T> {
+
+    private final int capacity;
+    private final int tenantCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition eligible = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final Map<String, Tenant<T>> tenants = new HashMap<>();
+    // Tenants with queued items, in turn order; the head is the tenant whose turn it is
+    private final ArrayDeque<Tenant<T>> active = new ArrayDeque<>();
+    private int size;
+
+    private static class Node<T> {
+        private final T item;
+        private final long enqueuedAtNanos = System.nanoTime();
+
+        Node(T item) {
+            this.item = item;
+        }
+    }
+
+    private static class Tenant<T> {
+        private final String id;
+        private final ArrayDeque<Node<T>> queue = new ArrayDeque<>();
+        private int weight = 1;
+        private int maxInFlight;
+        private int deficit;
+        private boolean turnStarted;
+        private int inFlight;
+
+        private long dispatched;
+        private long rejected;
+        private long throttledTurns;
+        private long totalDelayMicros;
+        private long maxDelayMicros;
+
+        Tenant(String id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * An item handed out by {@link #take()}. Call {@link FairQueue#done(String)} with its tenant once processed.
+     */
+    public static class Lease<T> {
+        private final String tenantId;
+        private final T item;
+        private final long queueDelayMicros;
+
+        Lease(String tenantId, T item, long queueDelayMicros) {
+            this.tenantId = tenantId;
+            this.item = item;
+            this.queueDelayMicros = queueDelayMicros;
+        }
+
+        public String getTenantId() {
+            return tenantId;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getQueueDelayMicros() {
+            return queueDelayMicros;
+        }
+    }
+
+    /**
+     * @param capacity most items queued across all tenants
+     * @param tenantCapacity most items queued for one tenant; 0 for no limit beyond {@code capacity}
+     */
+    public FairQueue(int capacity, int tenantCapacity) {
+        this.capacity = Math.max(1, capacity);
+        this.tenantCapacity = tenantCapacity > 0 ? tenantCapacity : this.capacity;
+    }
+
+    /**
+     * Queues an item unless the queue or the tenant's share of it is full.
+     *
+     * @param weight the tenant's share of dispatches relative to other busy tenants, at least 1
+     * @param maxInFlight most of the tenant's items processed at once; 0 for no limit
+     * @return false if there was no room
+     */
+    public boolean offer(String tenantId, int weight, int maxInFlight, T item) {
+        lock.lock();
+        try {
+            Tenant<T> tenant = tenant(tenantId, weight, maxInFlight);
+            if (size >= capacity || tenant.queue.size() >= tenantCapacity) {
+                tenant.rejected++;
+                return false;
+            }
+            enqueue(tenant, item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an item, waiting for room if needed.
+     */
+    public void put(String tenantId, int weight, int maxInFlight, T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Tenant<T> tenant = tenant(tenantId, weight, maxInFlight);
+            while (size >= capacity || tenant.queue.size() >= tenantCapacity) {
+                notFull.await();
+            }
+            enqueue(tenant, item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the next item in fair order from a tenant below its in-flight limit.
+     */
+    public Lease<T> take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                Lease<T> lease = next();
+                if (lease != null) {
+                    notFull.signalAll();
+                    return lease;
+                }
+                eligible.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks one of the tenant's taken items as processed, letting the tenant be served again if it was at its limit.
+     */
+    public void done(String tenantId) {
+        lock.lock();
+        try {
+            Tenant<T> tenant = tenants.get(tenantId);
+            if (tenant == null) {
+                return;
+            }
+            tenant.inFlight--;
+            eligible.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Tenant<T> tenant(String tenantId, int weight, int maxInFlight) {
+        Tenant<T> tenant = tenants.computeIfAbsent(tenantId, Tenant::new);
+        // Latest settings win, so a config change applies from the next event on
+        tenant.weight = Math.max(1, weight);
+        tenant.maxInFlight = Math.max(0, maxInFlight);
+        return tenant;
+    }
+
+    private void enqueue(Tenant<T> tenant, T item) {
+        if (tenant.queue.isEmpty()) {
+            active.addLast(tenant);
+        }
+        tenant.queue.addLast(new Node<>(item));
+        size++;
+        eligible.signal();
+    }
+
+    /**
+     * One step of deficit round robin, skipping tenants at their in-flight limit.
+     *
+     * @return the next item, or null if every tenant with queued items is at its limit
+     */
+    private Lease<T> next() {
+        for (int visited = 0; visited < active.size(); visited++) {
+            Tenant<T> tenant = active.peekFirst();
+            if (tenant.maxInFlight > 0 && tenant.inFlight >= tenant.maxInFlight) {
+                // Keeps its remaining deficit for its next turn
+                tenant.throttledTurns++;
+                tenant.turnStarted = false;
+                active.addLast(active.pollFirst());
+                continue;
+            }
+            if (!tenant.turnStarted) {
+                tenant.deficit += tenant.weight;
+                tenant.turnStarted = true;
+            }
+            Node<T> node = tenant.queue.pollFirst();
+            size--;
+            tenant.deficit--;
+            tenant.inFlight++;
+            if (tenant.queue.isEmpty()) {
+                // An emptied tenant does not bank credit while idle
+                tenant.deficit = 0;
+                tenant.turnStarted = false;
+                active.pollFirst();
+            } else if (tenant.deficit <= 0) {
+                tenant.turnStarted = false;
+                active.addLast(active.pollFirst());
+            }
+
+            long delayMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - node.enqueuedAtNanos);
+            tenant.dispatched++;
+            tenant.totalDelayMicros += delayMicros;
+            tenant.maxDelayMicros = Math.max(tenant.maxDelayMicros, delayMicros);
+            return new Lease<>(tenant.id, node.item, delayMicros);
+        }
+        return null;
+    }
+
+    /**
+     * Queue depth, in-flight items, weight and queue delay for every tenant currently known.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> perTenant = new TreeMap<>();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Tenant<T> tenant : tenants.values()) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("queued", tenant.queue.size());
+                stats.put("inFlight", tenant.inFlight);
+                stats.put("weight", tenant.weight);
+                stats.put("maxInFlight", tenant.maxInFlight);
+                stats.put("dispatched", tenant.dispatched);
+                stats.put("rejected", tenant.rejected);
+                stats.put("throttledTurns", tenant.throttledTurns);
+                stats.put("avgQueueDelayMillis", tenant.dispatched == 0 ? 0.0 : tenant.totalDelayMicros / 1_000.0 / tenant.dispatched);
+                stats.put("maxQueueDelayMillis", tenant.maxDelayMicros / 1_000.0);
+                perTenant.put(tenant.id, stats);
+            }
+            snapshot.put("size", size);
+            snapshot.put("capacity", capacity);
+            snapshot.put("tenantCapacity", tenantCapacity);
+            snapshot.put("activeTenants", active.size());
+        } finally {
+            lock.unlock();
+        }
+        snapshot.put("tenants", perTenant);
+        return snapshot;
+    }
+}
@@ -0,0 +1,147 @@
+package com.slackwise.slackwise.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers keys for a bounded time window so repeated deliveries of the same event can be dropped.
+ *
+ * The exact set of keys, oldest first, is the authority: a key is only reported as seen if it is in it, so an event is
+ * never dropped because of a hash collision. A {@link CuckooFilter} of the same keys sits in front of it, and since
+ * most deliveries are new, most lookups end at the filter's "definitely not seen" without touching the exact set.
+ * Keys leave both when they are older than the window or when the set is over capacity, oldest first.
+ */
+public class IdempotencyWindow {
+
+    private final long windowMillis;
+    private final int capacity;
+
+    private final Object lock = new Object();
+    // Insertion order is arrival order, so the eldest entry is always the next to expire
+    private final LinkedHashMap<String, Entry> seen = new LinkedHashMap<>();
+    private CuckooFilter filter;
+
+    private long claims;
+    private long duplicates;
+    private long filterNegatives;
+    private long falsePositives;
+    private long expired;
+    private long evicted;
+    private long rebuilds;
+
+    private static class Entry {
+        private final long hash;
+        private final long seenAtMillis;
+
+        Entry(long hash, long seenAtMillis) {
+            this.hash = hash;
+            this.seenAtMillis = seenAtMillis;
+        }
+    }
+
+    /**
+     * @param windowMillis how long a key is remembered
+     * @param capacity most keys remembered at once; older ones are forgotten early beyond this
+     */
+    public IdempotencyWindow(long windowMillis, int capacity) {
+        this.windowMillis = windowMillis;
+        this.capacity = Math.max(1, capacity);
+        this.filter = new CuckooFilter(this.capacity);
+    }
+
+    /**
+     * Records a key unless it was already seen within the window.
+     *
+     * @return true if this is the first time the key is seen; false for a repeat
+     */
+    public boolean claim(String key, long nowMillis) {
+        long hash = CuckooFilter.hash(key);
+        synchronized (lock) {
+            claims++;
+            expire(nowMillis);
+            if (filter.mightContain(hash)) {
+                if (seen.containsKey(key)) {
+                    duplicates++;
+                    return false;
+                }
+                falsePositives++;
+            } else {
+                filterNegatives++;
+            }
+
+            seen.put(key, new Entry(hash, nowMillis));
+            if (!filter.add(hash)) {
+                rebuild(filter.capacity() * 2);
+            }
+            while (seen.size() > capacity) {
+                removeEldest();
+                evicted++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Forgets a claimed key, e.g. when the event could not be accepted and a redelivery must go through.
+     */
+    public void release(String key) {
+        synchronized (lock) {
+            Entry entry = seen.remove(key);
+            if (entry != null) {
+                filter.remove(entry.hash);
+            }
+        }
+    }
+
+    private void expire(long nowMillis) {
+        Iterator<Entry> eldest = seen.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (nowMillis - entry.seenAtMillis < windowMillis) {
+                return;
+            }
+            eldest.remove();
+            filter.remove(entry.hash);
+            expired++;
+        }
+    }
+
+    private void removeEldest() {
+        Iterator<Entry> eldest = seen.values().iterator();
+        Entry entry = eldest.next();
+        eldest.remove();
+        filter.remove(entry.hash);
+    }
+
+    // The filter ran out of room and may have dropped a fingerprint; rebuild it from the exact set
+    private void rebuild(int expectedItems) {
+        CuckooFilter larger = new CuckooFilter(expectedItems);
+        for (Entry entry : seen.values()) {
+            if (!larger.add(entry.hash)) {
+                rebuild(expectedItems * 2);
+                return;
+            }
+        }
+        filter = larger;
+        rebuilds++;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        synchronized (lock) {
+            snapshot.put("remembered", seen.size());
+            snapshot.put("capacity", capacity);
+            snapshot.put("windowMillis", windowMillis);
+            snapshot.put("claims", claims);
+            snapshot.put("duplicates", duplicates);
+            snapshot.put("filterNegatives", filterNegatives);
+            snapshot.put("falsePositives", falsePositives);
+            snapshot.put("expired", expired);
+            snapshot.put("evictedOverCapacity", evicted);
+            snapshot.put("filterRebuilds", rebuilds);
+            snapshot.put("filterSlots", filter.capacity());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,55 @@
+package com.slackwise.slackwise.util;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.slackwise.slackwise.model.Note;
+import com.slackwise.slackwise.model.Ticket;
+import com.slackwise.slackwise.model.TimeEntry;
+
+/**
+ * Shared JSON configuration for ConnectWise request and response bodies.
+ *
+ * One ObjectMapper is built once for the whole application and the readers for the types we decode are resolved
+ * up front, so deserializers are looked up and cached a single time. ObjectReader and ObjectWriter are immutable
+ * and safe to use from any thread.
+ */
+public final class JsonCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final ObjectReader TICKET = MAPPER.readerFor(Ticket.class);
+    public static final ObjectReader NOTE = MAPPER.readerFor(Note.class);
+    public static final ObjectReader TIME_ENTRY = MAPPER.readerFor(TimeEntry.class);
+    public static final ObjectReader TICKET_LIST = MAPPER.readerFor(new TypeReference<List<Ticket>>() {});
+    public static final ObjectReader NOTE_LIST = MAPPER.readerFor(new TypeReference<List<Note>>() {});
+    public static final ObjectReader TIME_ENTRY_LIST = MAPPER.readerFor(new TypeReference<List<TimeEntry>>() {});
+    public static final ObjectReader MAP = MAPPER.readerFor(new TypeReference<Map<String, Object>>() {});
+    public static final ObjectReader TREE = MAPPER.readerFor(JsonNode.class);
+
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private JsonCodec() {
+    }
+
+    /**
+     * Factory for streaming parsers that share the mapper's symbol tables and buffer recycling.
+     */
+    public static JsonFactory factory() {
+        return MAPPER.getFactory();
+    }
+
+    /**
+     * Serializes a request payload to UTF-8 bytes.
+     */
+    public static byte[] writeBytes(Object value) throws JsonProcessingException {
+        return WRITER.writeValueAsBytes(value);
+    }
+}
@@ -0,0 +1,146 @@
+package com.slackwise.slackwise.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs tasks in FIFO order per key and concurrently across keys.
+ *
+ * Each key with pending work has a lane; the first task submitted to an idle lane starts a virtual thread that drains
+ * it, and the lane is dropped once empty, so idle keys cost nothing. Lanes are only ever touched inside
+ * {@link ConcurrentHashMap#compute}, which makes enqueue, dequeue and removal atomic per key.
+ *
+ * @param <K> key type, e.g. {@code tenantId:ticketId}
+ */
+public class KeyedExecutor<K> implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<K, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+
+    private static class Lane {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues a task behind any earlier tasks for the same key.
+     *
+     * @param key ordering key
+     * @param task work to run
+     * @return future completed with the task's result or failure
+     */
+    public <T> CompletableFuture<T> submit(K key, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable run = () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        submitted.incrementAndGet();
+        queued.incrementAndGet();
+        boolean[] start = new boolean[1];
+        lanes.compute(key, (k, lane) -> {
+            if (lane == null) {
+                lane = new Lane();
+                start[0] = true;
+            }
+            lane.tasks.add(run);
+            return lane;
+        });
+        if (start[0]) {
+            executor.execute(() -> drain(key));
+        }
+        return result;
+    }
+
+    private void drain(K key) {
+        while (true) {
+            Runnable[] next = new Runnable[1];
+            lanes.compute(key, (k, lane) -> {
+                next[0] = lane.tasks.poll();
+                // Drop the lane when empty so the next submit starts a fresh drainer
+                return next[0] == null ? null : lane;
+            });
+            if (next[0] == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            next[0].run();
+            completed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Tasks waiting (not yet running) for a key.
+     */
+    public int queueLength(K key) {
+        int[] length = new int[1];
+        lanes.computeIfPresent(key, (k, lane) -> {
+            length[0] = lane.tasks.size();
+            return lane;
+        });
+        return length[0];
+    }
+
+    /**
+     * Waiting task counts for the keys with the most work queued, longest first.
+     *
+     * @param limit most keys to return
+     */
+    public Map<String, Integer> longestQueues(int limit) {
+        PriorityQueue<Map.Entry<K, Integer>> longest = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (K key : lanes.keySet()) {
+            int length = queueLength(key);
+            if (length == 0) {
+                continue;
+            }
+            longest.add(Map.entry(key, length));
+            if (longest.size() > limit) {
+                longest.poll();
+            }
+        }
+        List<Map.Entry<K, Integer>> ordered = new ArrayList<>(longest);
+        ordered.sort(Map.Entry.<K, Integer>comparingByValue().reversed());
+        Map<String, Integer> queues = new LinkedHashMap<>();
+        for (Map.Entry<K, Integer> entry : ordered) {
+            queues.put(String.valueOf(entry.getKey()), entry.getValue());
+        }
+        return queues;
+    }
+
+    public Map<String, Object> snapshot() {
+        int maxLane = 0;
+        for (K key : lanes.keySet()) {
+            maxLane = Math.max(maxLane, queueLength(key));
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("activeKeys", lanes.size());
+        snapshot.put("queued", queued.get());
+        snapshot.put("longestQueue", maxLane);
+        snapshot.put("submitted", submitted.get());
+        snapshot.put("completed", completed.get());
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,249 @@
+package com.slackwise.slackwise.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: schedules many timers on one thread with O(1) insert and cancel.
+ *
+ * Level 0 has {@code wheelSize} buckets of one tick each; every level above covers {@code wheelSize} times the span of
+ * the one below, and levels are added as far-off deadlines need them. A timer is placed on the lowest level whose
+ * span reaches its deadline. When time reaches the start of a higher-level bucket its timers cascade down to finer
+ * levels, and when a level-0 bucket comes due its timers are handed to the expiry callback. Timers fire up to one
+ * tick after their deadline, never before.
+ *
+ * The driver thread only moves timers and calls the callback, which should hand real work to an executor.
+ *
+ * @param <T> payload carried by each timer
+ */
+public class TimingWheel<T> implements AutoCloseable {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long startMillis;
+    private final Consumer<Timeout<T>> onExpire;
+
+    private final Object lock = new Object();
+    // levels.get(n)[i] holds the timers for bucket i of level n
+    private final List<Set<Timeout<T>>[]> levels = new ArrayList<>();
+    private long currentTick;
+    private int pending;
+    private boolean open = true;
+    private final Thread driver;
+
+    /**
+     * A scheduled timer.
+     */
+    public static class Timeout<T> {
+        private final T task;
+        private final long deadlineMillis;
+        private final long expiryTick;
+        private Set<Timeout<T>> bucket;
+        private volatile boolean cancelled;
+
+        Timeout(T task, long deadlineMillis, long expiryTick) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+            this.expiryTick = expiryTick;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * @param name name of the driver thread
+     * @param tickMillis resolution of the wheel
+     * @param wheelSize buckets per level
+     * @param onExpire called on the driver thread for each timer that comes due
+     */
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<Timeout<T>> onExpire) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.wheelSize = Math.max(2, wheelSize);
+        this.onExpire = onExpire;
+        this.startMillis = System.currentTimeMillis();
+        addLevel();
+        driver = Thread.ofPlatform().name(name).daemon().start(this::drive);
+    }
+
+    /**
+     * Schedules {@code task} for an absolute time. A deadline in the past fires on the next tick.
+     */
+    public Timeout<T> schedule(T task, long deadlineMillis) {
+        // Round up so a timer never fires before its deadline
+        long expiryTick = Math.max(0, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        Timeout<T> timeout = new Timeout<>(task, deadlineMillis, expiryTick);
+        synchronized (lock) {
+            if (!open) {
+                throw new IllegalStateException("Timing wheel is closed");
+            }
+            // Overdue timers go in the next bucket to come due
+            place(timeout, currentTick + 1);
+            pending++;
+        }
+        return timeout;
+    }
+
+    /**
+     * Cancels a timer that has not fired yet.
+     *
+     * @return false if it already fired or was cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        synchronized (lock) {
+            if (timeout.cancelled || timeout.bucket == null) {
+                return false;
+            }
+            timeout.cancelled = true;
+            timeout.bucket.remove(timeout);
+            timeout.bucket = null;
+            pending--;
+            return true;
+        }
+    }
+
+    public int pending() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
+
+    private void place(Timeout<T> timeout, long earliestTick) {
+        long expiryTick = Math.max(timeout.expiryTick, earliestTick);
+        long delta = expiryTick - currentTick;
+        int level = 0;
+        long span = 1;
+        while (delta >= span * wheelSize) {
+            level++;
+            span *= wheelSize;
+            if (level == levels.size()) {
+                addLevel();
+            }
+        }
+        Set<Timeout<T>> bucket = levels.get(level)[(int) ((expiryTick / span) % wheelSize)];
+        bucket.add(timeout);
+        timeout.bucket = bucket;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        Set<Timeout<T>>[] buckets = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new HashSet<>();
+        }
+        levels.add(buckets);
+    }
+
+    private void drive() {
+        while (true) {
+            List<Timeout<T>> expired = new ArrayList<>();
+            synchronized (lock) {
+                long nowTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+                if (pending == 0 && nowTick > currentTick) {
+                    // Nothing to move: skip the idle ticks
+                    currentTick = nowTick;
+                }
+                while (currentTick < nowTick) {
+                    advance(expired);
+                }
+                if (open && expired.isEmpty()) {
+                    long sleepMillis = startMillis + (currentTick + 1) * tickMillis - System.currentTimeMillis();
+                    try {
+                        lock.wait(Math.max(1, sleepMillis));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        open = false;
+                    }
+                }
+                if (!open) {
+                    return;
+                }
+            }
+            for (Timeout<T> timeout : expired) {
+                onExpire.accept(timeout);
+            }
+        }
+    }
+
+    /**
+     * Moves to the next tick: cascades higher-level buckets that start now, then expires the level-0 bucket.
+     */
+    private void advance(List<Timeout<T>> expired) {
+        currentTick++;
+        long span = 1;
+        List<Timeout<T>> cascading = new ArrayList<>();
+        for (int level = 1; level < levels.size(); level++) {
+            span *= wheelSize;
+            if (currentTick % span != 0) {
+                break;
+            }
+            Set<Timeout<T>> bucket = levels.get(level)[(int) ((currentTick / span) % wheelSize)];
+            cascading.addAll(bucket);
+            bucket.clear();
+        }
+        for (Timeout<T> timeout : cascading) {
+            // Timers due this very tick land in the level-0 bucket expired just below
+            place(timeout, currentTick);
+        }
+
+        Set<Timeout<T>> due = levels.get(0)[(int) (currentTick % wheelSize)];
+        for (Timeout<T> timeout : due) {
+            timeout.bucket = null;
+            expired.add(timeout);
+        }
+        pending -= due.size();
+        due.clear();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        synchronized (lock) {
+            snapshot.put("pending", pending);
+            snapshot.put("levels", levels.size());
+            snapshot.put("tickMillis", tickMillis);
+            snapshot.put("wheelSize", wheelSize);
+            List<Integer> perLevel = new ArrayList<>();
+            for (Set<Timeout<T>>[] buckets : levels) {
+                int count = 0;
+                for (Set<Timeout<T>> bucket : buckets) {
+                    count += bucket.size();
+                }
+                perLevel.add(count);
+            }
+            snapshot.put("pendingPerLevel", perLevel);
+            snapshot.put("maxHorizonSeconds", TimeUnit.MILLISECONDS.toSeconds(tickMillis * (long) Math.pow(wheelSize, levels.size())));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Stops the driver. Pending timers are dropped without firing.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            open = false;
+            lock.notifyAll();
+        }
+        try {
+            driver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.slackwise.slackwise.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.slackwise.slackwise.model.WebhookEnvelope;
+
+/**
+ * Streams a ConnectWise callback body once and pulls out {@code ID}, {@code Action}, {@code CompanyId},
+ * {@code Entity.company.id} and {@code Entity._info.lastUpdated} without building a tree. Everything else is skipped
+ * token by token; Entity is kept as raw bytes for {@link WebhookEnvelope#getEntity()}.
+ *
+ * ConnectWise sends Entity as a JSON-encoded string; an inline object is accepted too. For a string, the inner
+ * document is only read until both entity fields have been found.
+ */
+public final class WebhookEnvelopeDecoder {
+
+    private WebhookEnvelopeDecoder() {
+    }
+
+    /**
+     * @param body the request body
+     * @return the decoded envelope; absent fields are null
+     * @throws IOException if the body is not a JSON object
+     */
+    public static WebhookEnvelope decode(byte[] body) throws IOException {
+        String id = null;
+        String action = null;
+        String companyId = null;
+        String[] entityFields = new String[2];
+        byte[] entityBuffer = null;
+        int entityOffset = 0;
+        int entityLength = 0;
+
+        try (JsonParser parser = JsonCodec.factory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "ConnectWise callback body is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "ID" -> id = scalarText(parser);
+                    case "Action" -> action = scalarText(parser);
+                    case "CompanyId" -> companyId = scalarText(parser);
+                    case "Entity" -> {
+                        if (value == JsonToken.VALUE_STRING) {
+                            String text = parser.getText();
+                            if (text.isBlank() || "null".equals(text)) {
+                                continue;
+                            }
+                            entityBuffer = text.getBytes(StandardCharsets.UTF_8);
+                            entityLength = entityBuffer.length;
+                            entityFields = entityFields(entityBuffer);
+                        } else if (value == JsonToken.START_OBJECT) {
+                            entityBuffer = body;
+                            entityOffset = (int) parser.currentTokenLocation().getByteOffset();
+                            entityFields = readEntityFields(parser, false);
+                            entityLength = (int) parser.currentLocation().getByteOffset() - entityOffset;
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new WebhookEnvelope(body, id, action, companyId, entityFields[0], entityFields[1],
+            entityBuffer, entityOffset, entityLength);
+    }
+
+    // Entity sent as a string: read just far enough to find both fields
+    private static String[] entityFields(byte[] entity) throws IOException {
+        try (JsonParser parser = JsonCodec.factory().createParser(entity)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new String[2];
+            }
+            return readEntityFields(parser, true);
+        }
+    }
+
+    /**
+     * Reads {@code company.id} and {@code _info.lastUpdated} from the object the parser is at. Unless
+     * {@code stopWhenFound}, the parser is left on the object's END_OBJECT.
+     *
+     * @return company id and last updated timestamp, either null if absent
+     */
+    private static String[] readEntityFields(JsonParser parser, boolean stopWhenFound) throws IOException {
+        String[] fields = new String[2];
+        boolean companySeen = false;
+        boolean infoSeen = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("company".equals(name) && value == JsonToken.START_OBJECT) {
+                fields[0] = readNestedField(parser, "id");
+                companySeen = true;
+            } else if ("_info".equals(name) && value == JsonToken.START_OBJECT) {
+                fields[1] = readNestedField(parser, "lastUpdated");
+                infoSeen = true;
+            } else {
+                parser.skipChildren();
+                continue;
+            }
+            if (stopWhenFound && companySeen && infoSeen) {
+                return fields;
+            }
+        }
+        return fields;
+    }
+
+    // Reads one scalar field of the object the parser is at, leaving the parser on its END_OBJECT
+    private static String readNestedField(JsonParser parser, String wanted) throws IOException {
+        String found = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (wanted.equals(field)) {
+                found = scalarText(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found;
+    }
+
+    private static String scalarText(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,275 @@
+package com.slackwise.slackwise.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import com.slackwise.slackwise.model.Ticket;
+import com.slackwise.slackwise.service.AmazonService;
+import com.slackwise.slackwise.service.ConnectwiseService;
+import com.slackwise.slackwise.service.InboundEventJournal;
+import com.slackwise.slackwise.service.RoutingService;
+import com.slackwise.slackwise.service.SlackService;
+import com.slackwise.slackwise.service.TenantConfigCache;
+import com.slackwise.slackwise.service.TicketContext;
+import com.slackwise.slackwise.service.TicketContextFactory;
+import com.slackwise.slackwise.service.WebhookDeduplicator;
+import com.slackwise.slackwise.service.WebhookEventProcessor;
+import com.slackwise.slackwise.service.WebhookIngestionQueue;
+
+/**
+ * Load test for the ConnectWise webhook path: {@link ConnectwiseController#onNewEvent} acknowledgement latency and
+ * end-to-end processing throughput as the worker count and the simulated downstream latency grow. Each event makes
+ * two downstream calls (Slack post, thread update) that sleep for the given latency; the ticket itself comes from the
+ * callback's Entity, and a ticket fetch is only counted if the entity is rejected as stale. Events are
+ * journaled to a temporary directory before they are acknowledged, so ack latency includes the fsync.
+ *
+ * "one ticket" sends every event for the same ticket, which is what the old global lock did to all traffic;
+ * "distinct tickets" spreads events over many tickets and should scale with workers. Both run with update coalescing
+ * off; the next table sends bursts of updates per ticket with coalescing off and on and counts the downstream calls,
+ * and the last one delivers every event twice, as ConnectWise retries do, with front-door deduplication off and on.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.controller.WebhookLoadBenchmark
+ * Optional args: [events]
+ */
+public class WebhookLoadBenchmark {
+
+    private static final long[] LATENCIES_MILLIS = {5, 20};
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] workerCounts = IntStream.of(1, 2, 4, cores, cores * 2, 64).distinct().sorted().toArray();
+
+        System.out.printf("%d events per run, %d cores%n", events, cores);
+        System.out.printf("%10s %8s %18s %12s %14s%n", "latency", "workers", "keys", "events/s", "ack p99 (us)");
+
+        // Warm up class loading and JIT so the first row's ack latency is not skewed
+        run(1, events, 64, events);
+
+        for (long latency : LATENCIES_MILLIS) {
+            print(latency, 64, "one ticket", run(latency, events, 64, 1));
+            for (int workers : workerCounts) {
+                print(latency, workers, "distinct tickets", run(latency, events, workers, events));
+            }
+        }
+
+        System.out.printf("%nBursts: %d tickets x %d updates %d ms apart, 5 ms latency, 16 workers%n",
+            BURST_TICKETS, BURST_UPDATES, BURST_GAP_MILLIS);
+        System.out.printf("%10s %10s %16s %12s%n", "window", "passes", "downstream calls", "coalesced");
+        for (long window : new long[] { 0, 250 }) {
+            AtomicLong calls = new AtomicLong();
+            WebhookIngestionQueue queue = newQueue(5, BURST_TICKETS * BURST_UPDATES, 16, window, calls);
+            try {
+                ConnectwiseController controller = newController(queue);
+                for (int round = 0; round < BURST_UPDATES; round++) {
+                    for (int ticket = 0; ticket < BURST_TICKETS; ticket++) {
+                        controller.onNewEvent(String.valueOf(1000 + ticket), payload(1000 + ticket));
+                    }
+                    Thread.sleep(BURST_GAP_MILLIS);
+                }
+                Map<String, Object> metrics = queue.metricsSnapshot();
+                long coalesced = (Long) metrics.get("coalescedUpdates");
+                while (finished(queue) + coalesced < BURST_TICKETS * BURST_UPDATES) {
+                    Thread.sleep(1);
+                }
+                System.out.printf("%8dms %10d %16d %12d%n", window, finished(queue), calls.get(), coalesced);
+            } finally {
+                stop(queue);
+            }
+        }
+
+        System.out.printf("%nRedeliveries: %d events, each delivered twice, 5 ms latency, 16 workers%n", REDELIVERED_EVENTS);
+        System.out.printf("%10s %10s %16s %12s%n", "dedup", "passes", "downstream calls", "dropped");
+        for (boolean dedup : new boolean[] { false, true }) {
+            AtomicLong calls = new AtomicLong();
+            WebhookIngestionQueue queue = newQueue(5, REDELIVERED_EVENTS * 2, 16, 0, calls);
+            try {
+                ConnectwiseController controller = newController(queue, dedup);
+                long dropped = 0;
+                for (int i = 0; i < REDELIVERED_EVENTS; i++) {
+                    int ticketId = 1000 + (i % BURST_TICKETS);
+                    byte[] body = payload(ticketId);
+                    for (int delivery = 0; delivery < 2; delivery++) {
+                        if (controller.onNewEvent(String.valueOf(ticketId), body).getStatusCode().value() == 200) {
+                            dropped++;
+                        }
+                    }
+                }
+                while (finished(queue) + dropped < REDELIVERED_EVENTS * 2) {
+                    Thread.sleep(1);
+                }
+                System.out.printf("%10s %10d %16d %12d%n", dedup ? "on" : "off", finished(queue), calls.get(), dropped);
+            } finally {
+                stop(queue);
+            }
+        }
+    }
+
+    private static final int BURST_TICKETS = 50;
+    private static final int BURST_UPDATES = 5;
+    private static final long BURST_GAP_MILLIS = 20;
+    private static final int REDELIVERED_EVENTS = 250;
+
+    private static void print(long latency, int workers, String keys, double[] result) {
+        System.out.printf("%8dms %8d %18s %12.1f %14.0f%n", latency, workers, keys, result[0], result[1]);
+    }
+
+    /**
+     * @return events processed per second, and p99 time for the endpoint to acknowledge an event in microseconds
+     */
+    private static double[] run(long latencyMillis, int events, int workers, int tickets) throws Exception {
+        WebhookIngestionQueue queue = newQueue(latencyMillis, events, workers, 0, new AtomicLong());
+        ConnectwiseController controller = newController(queue);
+
+        try {
+            long[] ackNanos = new long[events];
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                int ticketId = 1000 + (i % tickets);
+                long sent = System.nanoTime();
+                controller.onNewEvent(String.valueOf(ticketId), payload(ticketId));
+                ackNanos[i] = System.nanoTime() - sent;
+            }
+            while (finished(queue) < events) {
+                Thread.sleep(1);
+            }
+            double throughput = events / ((System.nanoTime() - start) / 1e9);
+
+            Arrays.sort(ackNanos);
+            return new double[] { throughput, ackNanos[(int) (events * 0.99)] / 1_000.0 };
+        } finally {
+            stop(queue);
+        }
+    }
+
+    private static WebhookIngestionQueue newQueue(long latencyMillis, int capacity, int workers, long coalesceWindowMillis,
+            AtomicLong calls) throws Exception {
+        Path journalDirectory = Files.createTempDirectory("webhook-journal");
+        InboundEventJournal journal = new InboundEventJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", journalDirectory.toString());
+        ReflectionTestUtils.setField(journal, "segmentBytes", 1 << 20);
+        ReflectionTestUtils.setField(journal, "checkpointIntervalMillis", 100L);
+        ReflectionTestUtils.setField(journal, "syncTimeoutMillis", 2_000L);
+        journal.open();
+
+        WebhookIngestionQueue queue = new WebhookIngestionQueue();
+        ReflectionTestUtils.setField(queue, "capacity", capacity);
+        ReflectionTestUtils.setField(queue, "workers", workers);
+        ReflectionTestUtils.setField(queue, "coalesceWindowMillis", coalesceWindowMillis);
+        WebhookEventProcessor processor = newProcessor(latencyMillis, calls);
+        ReflectionTestUtils.setField(queue, "processor", processor);
+        ReflectionTestUtils.setField(queue, "tenantConfigs", ReflectionTestUtils.getField(processor, "tenantConfigs"));
+        ReflectionTestUtils.setField(queue, "journal", journal);
+        queue.start();
+        return queue;
+    }
+
+    private static ConnectwiseController newController(WebhookIngestionQueue queue) {
+        return newController(queue, true);
+    }
+
+    private static ConnectwiseController newController(WebhookIngestionQueue queue, boolean dedup) {
+        WebhookDeduplicator deduplicator = new WebhookDeduplicator();
+        ReflectionTestUtils.setField(deduplicator, "enabled", dedup);
+        ReflectionTestUtils.setField(deduplicator, "windowMillis", 600_000L);
+        ReflectionTestUtils.setField(deduplicator, "capacity", 100_000);
+        deduplicator.init();
+
+        ConnectwiseController controller = new ConnectwiseController();
+        ReflectionTestUtils.setField(controller, "ingestionQueue", queue);
+        ReflectionTestUtils.setField(controller, "deduplicator", deduplicator);
+        ReflectionTestUtils.setField(controller, "retryAfterSeconds", 5);
+        return controller;
+    }
+
+    private static void stop(WebhookIngestionQueue queue) throws IOException {
+        queue.stop();
+        InboundEventJournal journal = (InboundEventJournal) ReflectionTestUtils.getField(queue, "journal");
+        journal.close();
+        FileSystemUtils.deleteRecursively(Path.of((String) ReflectionTestUtils.getField(journal, "directory")));
+    }
+
+    private static long finished(WebhookIngestionQueue queue) {
+        Map<String, Object> metrics = queue.metricsSnapshot();
+        return (Long) metrics.get("processed") + (Long) metrics.get("failed");
+    }
+
+    private static byte[] payload(int ticketId) {
+        return ("{\"CompanyId\":\"bench\",\"ID\":" + ticketId + ",\"Action\":\"updated\","
+            + "\"Entity\":\"{\\\"id\\\":" + ticketId + ",\\\"summary\\\":\\\"Load test ticket\\\","
+            + "\\\"company\\\":{\\\"id\\\":19300},\\\"_info\\\":{\\\"lastUpdated\\\":\\\"" + nextRevision() + "\\\"}}\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Distinct for every payload, so only deliberate redeliveries look like duplicates
+    private static Instant nextRevision() {
+        long micros = REVISION.updateAndGet(last -> Math.max(last + 1, Instant.now().toEpochMilli() * 1_000));
+        return Instant.ofEpochSecond(0, micros * 1_000);
+    }
+
+    private static final AtomicLong REVISION = new AtomicLong();
+
+    private static WebhookEventProcessor newProcessor(long latencyMillis, AtomicLong calls) throws Exception {
+        ConnectwiseService connectwiseService = mock(ConnectwiseService.class);
+        SlackService slackService = mock(SlackService.class);
+        AmazonService amazonService = mock(AmazonService.class);
+        RoutingService routingService = mock(RoutingService.class);
+
+        when(connectwiseService.fetchTicketHeaderById(anyString())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            Thread.sleep(latencyMillis);
+            Ticket ticket = new Ticket();
+            ticket.setId(Integer.parseInt(invocation.getArgument(0)));
+            ticket.setSummary("Load test ticket");
+            return ticket;
+        });
+        doAnswer(invocation -> {
+            calls.incrementAndGet();
+            Thread.sleep(latencyMillis);
+            return null;
+        }).when(slackService).postNewTicket(any(TicketContext.class), any(), any());
+        doAnswer(invocation -> {
+            calls.incrementAndGet();
+            Thread.sleep(latencyMillis);
+            return List.of();
+        }).when(slackService).updateTicketThread(any(TicketContext.class), any(String.class), any());
+
+        TicketContextFactory ticketContexts = new TicketContextFactory();
+        ReflectionTestUtils.setField(ticketContexts, "connectwiseService", connectwiseService);
+        ReflectionTestUtils.setField(ticketContexts, "snapshotEnabled", true);
+        ReflectionTestUtils.setField(ticketContexts, "maxAgeMillis", 300_000L);
+        ReflectionTestUtils.setField(ticketContexts, "trackedTickets", 10_000);
+
+        TenantConfigCache tenantConfigs = new TenantConfigCache();
+        ReflectionTestUtils.setField(tenantConfigs, "amazonService", amazonService);
+        ReflectionTestUtils.setField(tenantConfigs, "fallbackTrackedCompanyId", "19300");
+        ReflectionTestUtils.setField(tenantConfigs, "ttlMillis", 60_000L);
+
+        WebhookEventProcessor processor = new WebhookEventProcessor();
+        ReflectionTestUtils.setField(processor, "ticketContexts", ticketContexts);
+        ReflectionTestUtils.setField(processor, "slackService", slackService);
+        ReflectionTestUtils.setField(processor, "tenantConfigs", tenantConfigs);
+        ReflectionTestUtils.setField(processor, "routingService", routingService);
+        ReflectionTestUtils.setField(processor, "slackChannelId", "C0BENCH");
+        ReflectionTestUtils.setField(processor, "slackBotToken", "xoxb-bench");
+        return processor;
+    }
+}
@@ -0,0 +1,168 @@
+package com.slackwise.slackwise.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLSession;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ConnectwiseRateLimiterTest {
+
+    private static final String KEY = "tenant-1|client-1";
+
+    @Test
+    void retryAfterSecondsAreReadAsIs() {
+        assertEquals(Duration.ofSeconds(7), ConnectwiseRateLimiter.parseRetryAfter(response(429, "7")));
+        assertEquals(Duration.ofSeconds(7), ConnectwiseRateLimiter.parseRetryAfter(response(429, " 7 ")));
+        assertEquals(Duration.ZERO, ConnectwiseRateLimiter.parseRetryAfter(response(429, "-1")));
+    }
+
+    @Test
+    void retryAfterHttpDateIsReadAsTimeUntilThen() {
+        String inThirtySeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+        Duration retryAfter = ConnectwiseRateLimiter.parseRetryAfter(response(429, inThirtySeconds));
+        // The header has whole-second precision, so up to a second is lost
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(28)) >= 0 && retryAfter.compareTo(Duration.ofSeconds(30)) <= 0,
+            "parsed " + retryAfter);
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+        assertEquals(Duration.ZERO, ConnectwiseRateLimiter.parseRetryAfter(response(429, past)));
+    }
+
+    @Test
+    void missingOrGarbageRetryAfterWaitsOneSecond() {
+        assertEquals(Duration.ofSeconds(1), ConnectwiseRateLimiter.parseRetryAfter(response(429, null)));
+        assertEquals(Duration.ofSeconds(1), ConnectwiseRateLimiter.parseRetryAfter(response(429, "")));
+        assertEquals(Duration.ofSeconds(1), ConnectwiseRateLimiter.parseRetryAfter(response(429, "later")));
+    }
+
+    @Test
+    void throttledRequestIsRetriedAfterRetryAfter() throws Exception {
+        ConnectwiseRateLimiter limiter = limiter(8, 3);
+        List<Long> sentAt = new ArrayList<>();
+
+        HttpResponse<String> result = limiter.execute(KEY, () -> {
+            sentAt.add(System.nanoTime());
+            return sentAt.size() == 1 ? response(429, "1") : response(200, null);
+        });
+
+        assertEquals(200, result.statusCode());
+        assertEquals(2, sentAt.size());
+        long pausedMillis = TimeUnit.NANOSECONDS.toMillis(sentAt.get(1) - sentAt.get(0));
+        assertTrue(pausedMillis >= 1_000, "retried after " + pausedMillis + " ms");
+        assertEquals(1L, stats(limiter).get("throttledCount"));
+    }
+
+    @Test
+    void lastThrottledResponseIsReturnedOnceRetriesRunOut() throws Exception {
+        ConnectwiseRateLimiter limiter = limiter(8, 2);
+        AtomicInteger calls = new AtomicInteger();
+
+        HttpResponse<String> result = limiter.execute(KEY, () -> {
+            calls.incrementAndGet();
+            return response(429, "0");
+        });
+
+        assertEquals(429, result.statusCode());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void concurrencyLimitHalvesOnThrottlingAndRecoversOnSuccess() throws Exception {
+        ConnectwiseRateLimiter limiter = limiter(8, 0);
+
+        limiter.execute(KEY, () -> response(429, "0"));
+        assertEquals(4, stats(limiter).get("concurrencyLimit"));
+        limiter.execute(KEY, () -> response(429, "0"));
+        assertEquals(2, stats(limiter).get("concurrencyLimit"));
+        limiter.execute(KEY, () -> response(429, "0"));
+        limiter.execute(KEY, () -> response(429, "0"));
+        // Never below one
+        assertEquals(1, stats(limiter).get("concurrencyLimit"));
+
+        // Additive increase: about one more slot per limit's worth of successful calls
+        int successes = 0;
+        while ((int) stats(limiter).get("concurrencyLimit") < 8) {
+            limiter.execute(KEY, () -> response(200, null));
+            successes++;
+            assertTrue(successes < 100, "limit still " + stats(limiter).get("concurrencyLimit") + " after 100 successes");
+        }
+        assertTrue(successes > 20, "recovered after only " + successes + " successes");
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.execute(KEY, () -> response(200, null));
+        }
+        assertEquals(32, stats(limiter).get("concurrencyLimit"));
+    }
+
+    private static ConnectwiseRateLimiter limiter(int initialConcurrency, int maxRetries) {
+        ConnectwiseRateLimiter limiter = new ConnectwiseRateLimiter();
+        ReflectionTestUtils.setField(limiter, "requestsPerSecond", 100_000.0);
+        ReflectionTestUtils.setField(limiter, "burst", 10_000);
+        ReflectionTestUtils.setField(limiter, "initialConcurrency", initialConcurrency);
+        ReflectionTestUtils.setField(limiter, "maxConcurrency", 32);
+        ReflectionTestUtils.setField(limiter, "maxRetries", maxRetries);
+        return limiter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(ConnectwiseRateLimiter limiter) {
+        return (Map<String, Object>) limiter.metricsSnapshot().get(KEY);
+    }
+
+    private static HttpResponse<String> response(int status, String retryAfter) {
+        Map<String, List<String>> headers = retryAfter != null ? Map.of("Retry-After", List.of(retryAfter)) : Map.of();
+        return new StubResponse(status, HttpHeaders.of(headers, (name, value) -> true));
+    }
+
+    private record StubResponse(int statusCode, HttpHeaders headers) implements HttpResponse<String> {
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(uri()).build();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String body() {
+            return "";
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("https://api.example.com/v4_6_release/apis/3.0/service/tickets");
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
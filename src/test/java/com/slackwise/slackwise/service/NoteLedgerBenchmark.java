@@ -0,0 +1,172 @@
+package com.slackwise.slackwise.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.slackwise.slackwise.util.BidirectionalLruCache;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+/**
+ * Records a backfill of notes into a ticket's ledger against DynamoDB Local, once the way SlackService used to
+ * (GetItem plus a rewrite of the whole notes list for every note) and once with
+ * {@link AmazonService#appendNotesToTicket}, and reports DynamoDB round trips, request bytes sent and elapsed time
+ * per ledger size. Checks that both leave the same ledger behind.
+ *
+ * Start DynamoDB Local first, e.g. {@code docker run -p 8000:8000 amazon/dynamodb-local}.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.service.NoteLedgerBenchmark -Dexec.args="http://localhost:8000"
+ * Args: endpoint [notes per ticket...]
+ */
+public class NoteLedgerBenchmark {
+
+    private static final String TABLE = "slackwise-ledger-bench";
+    private static final String TENANT = "bench";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: NoteLedgerBenchmark <DynamoDB Local endpoint> [notes per ticket...]");
+            return;
+        }
+        String endpoint = args[0];
+        int[] sizes = args.length > 1
+            ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] {10, 50, 200};
+
+        RequestCounter counter = new RequestCounter();
+        DynamoDbClient client = DynamoDbClient.builder()
+            .endpointOverride(URI.create(endpoint))
+            .region(Region.US_EAST_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+            .overrideConfiguration(config -> config.addExecutionInterceptor(counter))
+            .build();
+        createTable(client);
+        AmazonService amazonService = newAmazonService(client);
+
+        System.out.printf("%-8s %8s %14s %14s %12s %10s%n", "notes", "mode", "round trips", "request KB", "elapsed ms", "matches");
+        try {
+            for (int size : sizes) {
+                List<Map<String, String>> notes = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    notes.add(Map.of("noteId", String.valueOf(100_000 + i), "ts", "1700000000." + String.format("%06d", i)));
+                }
+
+                String perNoteTicket = "per-note-" + size;
+                amazonService.createTicketItem(TENANT, perNoteTicket, "1700000000.000000");
+                counter.reset();
+                long start = System.nanoTime();
+                for (Map<String, String> note : notes) {
+                    rewriteLedger(amazonService, perNoteTicket, note);
+                }
+                print(size, "per-note", counter, start, true);
+
+                String batchedTicket = "batched-" + size;
+                amazonService.createTicketItem(TENANT, batchedTicket, "1700000000.000000");
+                counter.reset();
+                start = System.nanoTime();
+                amazonService.appendNotesToTicket(TENANT, batchedTicket, notes);
+                boolean matches = ledger(amazonService, batchedTicket).equals(ledger(amazonService, perNoteTicket));
+                print(size, "batched", counter, start, matches);
+            }
+        } finally {
+            client.deleteTable(req -> req.tableName(TABLE));
+        }
+    }
+
+    /**
+     * What addNoteToTicket did before: read the ticket, append in memory, write the whole list back.
+     */
+    private static void rewriteLedger(AmazonService amazonService, String ticketId, Map<String, String> note) {
+        Map<String, AttributeValue> ticket = amazonService.getTicket(TENANT, ticketId);
+        List<Map<String, String>> notes = ledger(ticket);
+        notes.add(note);
+        String tsThread = ticket.containsKey("ts_thread") ? ticket.get("ts_thread").s() : "";
+        amazonService.putTicketWithNotes(TENANT, ticketId, notes, tsThread);
+    }
+
+    private static List<Map<String, String>> ledger(AmazonService amazonService, String ticketId) {
+        return ledger(amazonService.getTicket(TENANT, ticketId));
+    }
+
+    private static List<Map<String, String>> ledger(Map<String, AttributeValue> ticket) {
+        List<AttributeValue> notes = ticket.containsKey("notes") ? ticket.get("notes").l() : List.of();
+        return notes.stream()
+            .map(av -> Map.of("noteId", av.m().get("noteId").s(), "ts", av.m().get("ts").s()))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static void print(int size, String mode, RequestCounter counter, long startNanos, boolean matches) {
+        System.out.printf("%-8d %8s %14d %14.1f %12.0f %10s%n", size, mode, counter.requests, counter.bytes / 1024.0,
+            (System.nanoTime() - startNanos) / 1e6, matches ? "yes" : "NO");
+    }
+
+    private static AmazonService newAmazonService(DynamoDbClient client) {
+        ResilienceService resilience = mock(ResilienceService.class);
+        when(resilience.dynamo(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+
+        AmazonService amazonService = new AmazonService();
+        ReflectionTestUtils.setField(amazonService, "resilience", resilience);
+        ReflectionTestUtils.setField(amazonService, "tableName", TABLE);
+        ReflectionTestUtils.setField(amazonService, "ledgerChunkSize", 100);
+        ReflectionTestUtils.setField(amazonService, "threadTickets", new BidirectionalLruCache<String, String>(1_000));
+        ReflectionTestUtils.setField(amazonService, "dynamoDb", client);
+        return amazonService;
+    }
+
+    private static void createTable(DynamoDbClient client) {
+        if (client.listTables().tableNames().contains(TABLE)) {
+            client.deleteTable(req -> req.tableName(TABLE));
+        }
+        client.createTable(req -> req
+            .tableName(TABLE)
+            .billingMode(BillingMode.PAY_PER_REQUEST)
+            .keySchema(
+                KeySchemaElement.builder().attributeName("tenantId").keyType(KeyType.HASH).build(),
+                KeySchemaElement.builder().attributeName("sk").keyType(KeyType.RANGE).build())
+            .attributeDefinitions(
+                AttributeDefinition.builder().attributeName("tenantId").attributeType(ScalarAttributeType.S).build(),
+                AttributeDefinition.builder().attributeName("sk").attributeType(ScalarAttributeType.S).build()));
+    }
+
+    /**
+     * Counts requests and their body sizes as sent on the wire.
+     */
+    private static class RequestCounter implements ExecutionInterceptor {
+        private long requests;
+        private long bytes;
+
+        void reset() {
+            requests = 0;
+            bytes = 0;
+        }
+
+        @Override
+        public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+            requests++;
+            context.requestBody().ifPresent(body -> bytes += body.optionalContentLength().orElse(0L));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.slackwise.slackwise.service;
+
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures p50/p99 latency of a simulated ConnectWise GET with a heavy tail (most calls 20 ms, a few 1.5 s),
+ * with and without {@link RequestHedger}, and reports how much extra load the hedges cost.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.service.RequestHedgingBenchmark
+ */
+public class RequestHedgingBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final double SLOW_FRACTION = 0.03;
+
+    public static void main(String[] args) throws Exception {
+        HttpResponse<?> response = Mockito.mock(HttpResponse.class);
+
+        System.out.printf("%-10s %8s %8s %8s %s%n", "mode", "p50 ms", "p99 ms", "max ms", "hedging");
+        for (boolean enabled : new boolean[] { false, true }) {
+            RequestHedger hedger = new RequestHedger();
+            ReflectionTestUtils.setField(hedger, "enabled", enabled);
+            ReflectionTestUtils.setField(hedger, "budgetPercent", 5.0);
+            ReflectionTestUtils.setField(hedger, "minDelayMillis", 10L);
+
+            long[] latencies = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                long start = System.nanoTime();
+                hedger.execute("ticket fetch", () -> {
+                    Thread.sleep(ThreadLocalRandom.current().nextDouble() < SLOW_FRACTION ? 1_500 : 20);
+                    return response;
+                });
+                latencies[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %8d %8d %8d %s%n", enabled ? "hedged" : "plain",
+                latencies[REQUESTS / 2], latencies[(int) (REQUESTS * 0.99)], latencies[REQUESTS - 1],
+                enabled ? hedger.metricsSnapshot() : "");
+            hedger.shutdown();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.slackwise.slackwise.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Several tickets per channel backfill their notes at once against a fake Slack that answers 429 with
+ * {@code Retry-After: 1} once a channel goes over its per-second limit; halfway through, a new ticket is posted to
+ * every channel. Compares posting directly, where a ticket's backfill stops at its first 429 as it used to, with
+ * {@link SlackPostScheduler}: notes delivered, 429s received, and how long the new-ticket posts waited.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.service.SlackPostSchedulerBenchmark
+ * Optional args: [channels] [tickets per channel] [notes per ticket] [channel limit per second]
+ */
+public class SlackPostSchedulerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int channels = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int tickets = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int notes = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int limit = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        System.out.printf("%d channels x %d tickets x %d notes, Slack allows %d posts/s per channel%n", channels, tickets, notes, limit);
+        System.out.printf("%-10s %10s %10s %10s %12s %18s%n", "mode", "delivered", "expected", "429s", "elapsed ms", "new ticket wait ms");
+        run(false, channels, tickets, notes, limit);
+        run(true, channels, tickets, notes, limit);
+    }
+
+    private static void run(boolean scheduled, int channels, int tickets, int notes, int limit) throws Exception {
+        FakeSlack slack = new FakeSlack(limit);
+        SlackPostScheduler scheduler = newScheduler(limit);
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong topLevelWaitMillis = new AtomicLong();
+
+        long start = System.nanoTime();
+        List<Future<?>> done = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < channels; c++) {
+                String channel = "C" + c;
+                for (int t = 0; t < tickets; t++) {
+                    String threadTs = "1700000000." + c + t;
+                    done.add(executor.submit(() -> {
+                        for (int n = 0; n < notes; n++) {
+                            ChatPostMessageResponse response;
+                            try {
+                                response = scheduled
+                                    ? scheduler.post("xoxb-bench", channel, threadTs, SlackPostScheduler.Priority.BACKFILL, () -> slack.postAsync(channel))
+                                    : slack.post(channel);
+                            } catch (SlackApiException e) {
+                                // What the note loop did before: give up on the rest of the ticket
+                                return null;
+                            }
+                            if (!response.isOk()) {
+                                return null;
+                            }
+                            delivered.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                done.add(executor.submit(() -> {
+                    Thread.sleep(notes * tickets * 1_000L / limit / 2);
+                    long queued = System.nanoTime();
+                    try {
+                        ChatPostMessageResponse response = scheduled
+                            ? scheduler.post("xoxb-bench", channel, null, SlackPostScheduler.Priority.TOP_LEVEL, () -> slack.postAsync(channel))
+                            : slack.post(channel);
+                        if (response.isOk()) {
+                            delivered.incrementAndGet();
+                        }
+                    } catch (SlackApiException e) {
+                        // Lost, as before
+                    }
+                    topLevelWaitMillis.accumulateAndGet((System.nanoTime() - queued) / 1_000_000, Math::max);
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        }
+        double elapsedMillis = (System.nanoTime() - start) / 1e6;
+        scheduler.shutdown();
+
+        System.out.printf("%-10s %10d %10d %10d %12.0f %18d%n", scheduled ? "scheduled" : "direct", delivered.get(),
+            channels * (tickets * notes + 1), slack.throttled.get(), elapsedMillis, topLevelWaitMillis.get());
+    }
+
+    private static SlackPostScheduler newScheduler(int limit) {
+        SlackPostScheduler scheduler = new SlackPostScheduler();
+        ReflectionTestUtils.setField(scheduler, "channelPerSecond", (double) limit);
+        ReflectionTestUtils.setField(scheduler, "channelBurst", 1);
+        ReflectionTestUtils.setField(scheduler, "workspacePerSecond", 100.0);
+        ReflectionTestUtils.setField(scheduler, "workspaceBurst", 100);
+        ReflectionTestUtils.setField(scheduler, "maxRetries", 3);
+        return scheduler;
+    }
+
+    /**
+     * Accepts at most {@code limit} posts per channel in any one-second window and answers 429 beyond that.
+     */
+    private static class FakeSlack {
+        private final int limit;
+        private final Map<String, ArrayDeque<Long>> recent = new ConcurrentHashMap<>();
+        private final AtomicLong throttled = new AtomicLong();
+
+        FakeSlack(int limit) {
+            this.limit = limit;
+        }
+
+        CompletableFuture<ChatPostMessageResponse> postAsync(String channel) {
+            try {
+                return CompletableFuture.completedFuture(post(channel));
+            } catch (SlackApiException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        ChatPostMessageResponse post(String channel) throws SlackApiException {
+            ArrayDeque<Long> window = recent.computeIfAbsent(channel, key -> new ArrayDeque<>());
+            synchronized (window) {
+                long now = System.nanoTime();
+                while (!window.isEmpty() && now - window.peekFirst() > 1_000_000_000L) {
+                    window.pollFirst();
+                }
+                if (window.size() >= limit) {
+                    throttled.incrementAndGet();
+                    throw new SlackApiException(tooManyRequests(), "{\"ok\":false,\"error\":\"ratelimited\"}");
+                }
+                window.addLast(now);
+            }
+            ChatPostMessageResponse response = new ChatPostMessageResponse();
+            response.setOk(true);
+            response.setTs(String.valueOf(System.nanoTime()));
+            return response;
+        }
+
+        private static Response tooManyRequests() {
+            return new Response.Builder()
+                .request(new Request.Builder().url("https://slack.com/api/chat.postMessage").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(429)
+                .message("Too Many Requests")
+                .header("Retry-After", "1")
+                .body(ResponseBody.create("", null))
+                .build();
+        }
+    }
+}
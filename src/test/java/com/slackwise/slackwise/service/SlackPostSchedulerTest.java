@@ -0,0 +1,167 @@
+package com.slackwise.slackwise.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+class SlackPostSchedulerTest {
+
+    private static final String TOKEN = "xoxb-test";
+    private static final String CHANNEL = "C123";
+
+    private SlackPostScheduler scheduler;
+
+    @AfterEach
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void retryAfterIsReadAsSeconds() {
+        assertEquals(Duration.ofSeconds(30), SlackPostScheduler.parseRetryAfter("30"));
+        assertEquals(Duration.ofSeconds(5), SlackPostScheduler.parseRetryAfter(" 5 "));
+        assertEquals(Duration.ZERO, SlackPostScheduler.parseRetryAfter("-3"));
+    }
+
+    @Test
+    void missingOrGarbageRetryAfterWaitsOneSecond() {
+        assertEquals(Duration.ofSeconds(1), SlackPostScheduler.parseRetryAfter(null));
+        assertEquals(Duration.ofSeconds(1), SlackPostScheduler.parseRetryAfter(""));
+        assertEquals(Duration.ofSeconds(1), SlackPostScheduler.parseRetryAfter("   "));
+        assertEquals(Duration.ofSeconds(1), SlackPostScheduler.parseRetryAfter("soon"));
+        assertEquals(Duration.ofSeconds(1), SlackPostScheduler.parseRetryAfter("1.5"));
+    }
+
+    @Test
+    void rateLimitedAnswerPausesTheChannelBeforeTheRetry() throws Exception {
+        scheduler = scheduler(1_000, 10, 3);
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+
+        ChatPostMessageResponse response = scheduler.post(TOKEN, CHANNEL, null, SlackPostScheduler.Priority.TOP_LEVEL, () -> {
+            sentAt.add(System.nanoTime());
+            return CompletableFuture.completedFuture(sentAt.size() == 1 ? answer(false, "ratelimited") : answer(true, null));
+        });
+
+        assertTrue(response.isOk());
+        assertEquals(2, sentAt.size());
+        long pausedMillis = TimeUnit.NANOSECONDS.toMillis(sentAt.get(1) - sentAt.get(0));
+        assertTrue(pausedMillis >= 1_000, "retried after " + pausedMillis + " ms");
+        assertEquals(1L, scheduler.metricsSnapshot().get("rateLimited"));
+    }
+
+    @Test
+    void http429WaitsForItsRetryAfter() throws Exception {
+        scheduler = scheduler(1_000, 10, 3);
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+
+        ChatPostMessageResponse response = scheduler.post(TOKEN, CHANNEL, "1700000000.1", SlackPostScheduler.Priority.BACKFILL, () -> {
+            sentAt.add(System.nanoTime());
+            if (sentAt.size() == 1) {
+                return CompletableFuture.failedFuture(tooManyRequests("2"));
+            }
+            return CompletableFuture.completedFuture(answer(true, null));
+        });
+
+        assertTrue(response.isOk());
+        long pausedMillis = TimeUnit.NANOSECONDS.toMillis(sentAt.get(1) - sentAt.get(0));
+        assertTrue(pausedMillis >= 2_000, "retried after " + pausedMillis + " ms");
+    }
+
+    @Test
+    void lastRateLimitedAnswerIsReturnedOnceRetriesRunOut() throws Exception {
+        scheduler = scheduler(1_000, 10, 0);
+        AtomicInteger calls = new AtomicInteger();
+
+        ChatPostMessageResponse response = scheduler.post(TOKEN, CHANNEL, null, SlackPostScheduler.Priority.TOP_LEVEL, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(answer(false, "ratelimited"));
+        });
+
+        assertEquals("ratelimited", response.getError());
+        assertEquals(1, calls.get());
+        assertEquals(1L, scheduler.metricsSnapshot().get("gaveUp"));
+    }
+
+    @Test
+    void topLevelPostIsServedBeforeWaitingBackfill() throws Exception {
+        // One token every 200 ms and no burst, so every post after the first waits for the channel
+        scheduler = scheduler(5, 1, 0);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        post("first", null, SlackPostScheduler.Priority.BACKFILL, order).get(5, TimeUnit.SECONDS);
+        List<CompletableFuture<Void>> posts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // Each in its own thread, so they queue on the channel bucket rather than on a thread lane
+            posts.add(post("backfill-" + i, "1700000000." + i, SlackPostScheduler.Priority.BACKFILL, order));
+        }
+        Thread.sleep(50);
+        posts.add(post("top-level", null, SlackPostScheduler.Priority.TOP_LEVEL, order));
+        CompletableFuture.allOf(posts.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(5, order.size());
+        assertEquals("top-level", order.get(1), "served in order " + order);
+    }
+
+    private CompletableFuture<Void> post(String name, String threadTs, SlackPostScheduler.Priority priority, List<String> order) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                scheduler.post(TOKEN, CHANNEL, threadTs, priority, () -> {
+                    order.add(name);
+                    return CompletableFuture.completedFuture(answer(true, null));
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, runnable -> Thread.ofVirtual().start(runnable));
+    }
+
+    private static SlackPostScheduler scheduler(double channelPerSecond, int channelBurst, int maxRetries) {
+        SlackPostScheduler scheduler = new SlackPostScheduler();
+        ReflectionTestUtils.setField(scheduler, "channelPerSecond", channelPerSecond);
+        ReflectionTestUtils.setField(scheduler, "channelBurst", channelBurst);
+        ReflectionTestUtils.setField(scheduler, "workspacePerSecond", 1_000.0);
+        ReflectionTestUtils.setField(scheduler, "workspaceBurst", 100);
+        ReflectionTestUtils.setField(scheduler, "maxRetries", maxRetries);
+        return scheduler;
+    }
+
+    private static ChatPostMessageResponse answer(boolean ok, String error) {
+        ChatPostMessageResponse response = new ChatPostMessageResponse();
+        response.setOk(ok);
+        response.setError(error);
+        return response;
+    }
+
+    private static SlackApiException tooManyRequests(String retryAfter) {
+        Response response = new Response.Builder()
+            .request(new Request.Builder().url("https://slack.com/api/chat.postMessage").build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(429)
+            .message("Too Many Requests")
+            .header("Retry-After", retryAfter)
+            .body(ResponseBody.create("", null))
+            .build();
+        return new SlackApiException(response, "");
+    }
+}
@@ -0,0 +1,101 @@
+package com.slackwise.slackwise.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Posts bursts of replies into many Slack threads at once and reports how long the dispatcher takes to copy them to
+ * ConnectWise, how many replies were refused at the in-flight cap, and how many threads saw their replies arrive out
+ * of order (must be zero). Each ConnectWise call sleeps for the given latency; the journal is disabled.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.service.SlackReplyDispatcherBenchmark
+ * Optional args: [threads] [replies per thread] [latency millis]
+ */
+public class SlackReplyDispatcherBenchmark {
+
+    private static final int[] MAX_IN_FLIGHT = {64, 256, 10_000};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int repliesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 20;
+
+        System.out.printf("%d Slack threads x %d replies, %d ms per ConnectWise call%n", threads, repliesPerThread, latencyMillis);
+        System.out.printf("%12s %10s %10s %12s %14s%n", "maxInFlight", "accepted", "rejected", "elapsed ms", "out of order");
+        for (int maxInFlight : MAX_IN_FLIGHT) {
+            run(threads, repliesPerThread, latencyMillis, maxInFlight);
+        }
+    }
+
+    private static void run(int threads, int repliesPerThread, long latencyMillis, int maxInFlight) throws Exception {
+        Map<String, List<Integer>> arrivals = new ConcurrentHashMap<>();
+        CountDownLatch[] done = new CountDownLatch[1];
+        ConnectwiseService connectwiseService = mock(ConnectwiseService.class);
+        doAnswer(invocation -> {
+            Thread.sleep(latencyMillis);
+            Map<String, Object> event = invocation.getArgument(3);
+            arrivals.computeIfAbsent((String) event.get("thread_ts"), key -> Collections.synchronizedList(new ArrayList<>()))
+                .add((Integer) event.get("sequence"));
+            done[0].countDown();
+            return null;
+        }).when(connectwiseService).addSlackReplyToTicket(anyString(), anyString(), any(), any());
+
+        InboundEventJournal journal = new InboundEventJournal();
+        ReflectionTestUtils.setField(journal, "enabled", false);
+
+        SlackReplyDispatcher dispatcher = new SlackReplyDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "connectwiseService", connectwiseService);
+        ReflectionTestUtils.setField(dispatcher, "journal", journal);
+        ReflectionTestUtils.setField(dispatcher, "maxInFlight", maxInFlight);
+        dispatcher.init();
+
+        int accepted = 0;
+        int rejected = 0;
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int reply = 0; reply < repliesPerThread; reply++) {
+            for (int thread = 0; thread < threads; thread++) {
+                events.add(Map.of("thread_ts", "1700000000." + thread, "sequence", reply));
+            }
+        }
+
+        done[0] = new CountDownLatch(events.size());
+        long start = System.nanoTime();
+        for (Map<String, Object> event : events) {
+            String threadTs = (String) event.get("thread_ts");
+            if (dispatcher.dispatch("bench", threadTs, threadTs, "reply", event)) {
+                accepted++;
+            } else {
+                rejected++;
+                done[0].countDown();
+            }
+        }
+        done[0].await();
+        double elapsedMillis = (System.nanoTime() - start) / 1e6;
+        dispatcher.shutdown();
+
+        long outOfOrder = arrivals.values().stream().filter(SlackReplyDispatcherBenchmark::isOutOfOrder).count();
+        System.out.printf("%12d %10d %10d %12.0f %14d%n", maxInFlight, accepted, rejected, elapsedMillis, outOfOrder);
+    }
+
+    private static boolean isOutOfOrder(List<Integer> sequence) {
+        synchronized (sequence) {
+            for (int i = 1; i < sequence.size(); i++) {
+                if (sequence.get(i) < sequence.get(i - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.slackwise.slackwise.service;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.slackwise.slackwise.model.CompiledTenantConfig;
+import com.slackwise.slackwise.model.TenantConfig;
+
+/**
+ * Per-event cost of resolving tenant settings on the webhook path: tracked company check plus keyword match, with
+ * every lookup reading the stored config (as before the cache) versus {@link TenantConfigCache}. DynamoDB is
+ * simulated with a fixed {@code GetItem} latency. Afterwards checks that an invalidation makes a changed config visible
+ * on the next lookup.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.service.TenantConfigCacheBenchmark
+ * Optional args: [events] [GetItem latency ms]
+ */
+public class TenantConfigCacheBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int TENANTS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long getItemMillis = args.length > 1 ? Long.parseLong(args[1]) : 3;
+
+        AtomicReference<TenantConfig> stored = new AtomicReference<>(config("19300,19301,19302,20000,20001,20002"));
+        AmazonService amazonService = mock(AmazonService.class);
+        when(amazonService.getTenantConfig(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(getItemMillis);
+            return stored.get();
+        });
+
+        System.out.printf("%d events over %d tenants from %d threads, GetItem %d ms%n", events, TENANTS, THREADS, getItemMillis);
+        System.out.printf("%-10s %12s %12s%n", "mode", "events/s", "GetItems");
+        for (boolean cached : new boolean[] { false, true }) {
+            TenantConfigCache cache = newCache(amazonService);
+            long start = System.nanoTime();
+            run(cache, events, cached);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-10s %12.0f %12d%n", cached ? "cached" : "uncached", events / seconds,
+                cache.metricsSnapshot().get("loads"));
+            if (cached) {
+                System.out.println("metrics: " + cache.metricsSnapshot());
+            }
+        }
+
+        TenantConfigCache cache = newCache(amazonService);
+        boolean before = cache.get("tenant-0").isTracked("30000");
+        stored.set(config("30000"));
+        boolean stale = cache.get("tenant-0").isTracked("30000");
+        cache.invalidate("tenant-0");
+        boolean after = cache.get("tenant-0").isTracked("30000");
+        System.out.printf("invalidation: tracked before write %b, before invalidate %b, after invalidate %b%n", before, stale, after);
+    }
+
+    private static void run(TenantConfigCache cache, int events, boolean cached) throws Exception {
+        List<Future<?>> done = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < THREADS; t++) {
+                done.add(executor.submit(() -> {
+                    for (int i = 0; i < events / THREADS; i++) {
+                        String tenantId = "tenant-" + ThreadLocalRandom.current().nextInt(TENANTS);
+                        if (!cached) {
+                            cache.invalidate(tenantId);
+                        }
+                        CompiledTenantConfig config = cache.get(tenantId);
+                        if (config.isTracked("19300") && config.matchesExclusionKeyword("Routine security check for ACME")) {
+                            continue;
+                        }
+                        throw new IllegalStateException("Unexpected config result");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        }
+    }
+
+    private static TenantConfigCache newCache(AmazonService amazonService) {
+        TenantConfigCache cache = new TenantConfigCache();
+        ReflectionTestUtils.setField(cache, "amazonService", amazonService);
+        ReflectionTestUtils.setField(cache, "fallbackTrackedCompanyId", "19300");
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        return cache;
+    }
+
+    private static TenantConfig config(String trackedCompanyIds) {
+        TenantConfig config = new TenantConfig();
+        config.setTrackedCompanyIds(trackedCompanyIds);
+        config.setAssignmentExclusionKeywords("compliance: set and review; info systems audits\nroutine security check, "
+            + "monitor firewall and report; internal system vulnerability; documentation for review of permissions");
+        config.setAutoAssignmentDelayMinutes(2);
+        return config;
+    }
+}
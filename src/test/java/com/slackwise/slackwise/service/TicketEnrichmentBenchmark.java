@@ -0,0 +1,210 @@
+package com.slackwise.slackwise.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Measures wall-clock latency of {@link ConnectwiseService#fetchOpenTicketsByCompanyId(String)} against a local
+ * stub ConnectWise server as the number of open tickets grows.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.service.TicketEnrichmentBenchmark
+ * Optional args: [latencyMillis] [concurrency]
+ */
+public class TicketEnrichmentBenchmark {
+
+    private static final int[] TICKET_COUNTS = {10, 50, 100, 200};
+
+    public static void main(String[] args) throws Exception {
+        long latencyMillis = args.length > 0 ? Long.parseLong(args[0]) : 20;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        StubConnectwise stub = new StubConnectwise(latencyMillis);
+        stub.start();
+        TicketEnrichmentEngine engine = new TicketEnrichmentEngine();
+        ConnectwiseTransport transport = new ConnectwiseTransport();
+        ReflectionTestUtils.setField(transport, "connectTimeoutMillis", 3000L);
+        ReflectionTestUtils.setField(transport, "preferHttp2", true);
+        transport.init();
+        try {
+            System.out.printf("Stub latency %d ms per call%n", latencyMillis);
+            System.out.printf("%8s %14s %14s %8s%n", "tickets", "serial (ms)", "c=" + concurrency + " (ms)", "calls");
+
+            for (int ticketCount : TICKET_COUNTS) {
+                stub.ticketCount = ticketCount;
+
+                long serial = timeFetch(newService(stub, engine, transport, 1));
+                stub.calls.set(0);
+                long parallel = timeFetch(newService(stub, engine, transport, concurrency));
+
+                System.out.printf("%8d %14d %14d %8d%n", ticketCount, serial, parallel, stub.calls.get());
+                stub.calls.set(0);
+            }
+
+            // Header, notes and time entries are requested together, so this should be close to one stub latency
+            ConnectwiseService single = newService(stub, engine, transport, concurrency);
+            single.fetchTicketById("19300", "1");
+            long start = System.nanoTime();
+            single.fetchTicketById("19300", "1");
+            System.out.printf("single ticket fetch: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            single.shutdown();
+
+            System.out.println("Transport: " + transport.metricsSnapshot());
+        } finally {
+            transport.shutdown();
+            engine.shutdown();
+            stub.stop();
+        }
+    }
+
+    private static long timeFetch(ConnectwiseService service) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        service.fetchOpenTicketsByCompanyId("19300");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static ConnectwiseService newService(StubConnectwise stub, TicketEnrichmentEngine engine, ConnectwiseTransport transport,
+                                                 int concurrency) {
+        ConnectwiseService service = new ConnectwiseService();
+        ReflectionTestUtils.setField(service, "baseUrl", "http://localhost:" + stub.port());
+        ReflectionTestUtils.setField(service, "companyId", "bench");
+        ReflectionTestUtils.setField(service, "publicKey", "public");
+        ReflectionTestUtils.setField(service, "privateKey", "private");
+        ReflectionTestUtils.setField(service, "clientId", "client");
+        ReflectionTestUtils.setField(service, "amazonService", Mockito.mock(AmazonService.class));
+        ReflectionTestUtils.setField(service, "enrichmentEngine", engine);
+        ReflectionTestUtils.setField(service, "defaultEnrichmentConcurrency", concurrency);
+        ReflectionTestUtils.setField(service, "ticketPageSize", 100);
+
+        // Limiter left wide open so only the enrichment concurrency is measured
+        ConnectwiseRateLimiter limiter = new ConnectwiseRateLimiter();
+        ReflectionTestUtils.setField(limiter, "requestsPerSecond", 100_000.0);
+        ReflectionTestUtils.setField(limiter, "burst", 100_000);
+        ReflectionTestUtils.setField(limiter, "initialConcurrency", 256);
+        ReflectionTestUtils.setField(limiter, "maxConcurrency", 256);
+        ReflectionTestUtils.setField(service, "rateLimiter", limiter);
+
+        ResilienceService resilience = new ResilienceService();
+        ReflectionTestUtils.setField(resilience, "breakerWindowSize", 20);
+        ReflectionTestUtils.setField(resilience, "breakerMinimumCalls", 10);
+        ReflectionTestUtils.setField(resilience, "breakerFailureRate", 0.5);
+        ReflectionTestUtils.setField(resilience, "breakerOpenSeconds", 30L);
+        ReflectionTestUtils.setField(resilience, "breakerHalfOpenCalls", 3);
+        ReflectionTestUtils.setField(resilience, "retryMaxAttempts", 1);
+        resilience.init();
+        ReflectionTestUtils.setField(service, "resilience", resilience);
+
+        // Stub latency is constant, so hedging is switched off to keep runs comparable
+        RequestHedger hedger = new RequestHedger();
+        ReflectionTestUtils.setField(hedger, "enabled", false);
+        ReflectionTestUtils.setField(service, "hedger", hedger);
+
+        ReflectionTestUtils.setField(service, "readTimeoutMillis", 10_000L);
+        ReflectionTestUtils.setField(service, "pageTimeoutMillis", 30_000L);
+        ReflectionTestUtils.setField(service, "writeTimeoutMillis", 15_000L);
+        ReflectionTestUtils.setField(service, "transport", transport);
+        ReflectionTestUtils.setField(service, "asyncTimeoutMillis", 30_000L);
+        return service;
+    }
+
+    /**
+     * Minimal ConnectWise stand-in that answers the ticket, note and time entry endpoints after a fixed delay.
+     */
+    static class StubConnectwise {
+        private final long latencyMillis;
+        private HttpServer server;
+        volatile int ticketCount;
+        final AtomicInteger calls = new AtomicInteger();
+
+        StubConnectwise(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        void start() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String body;
+            if (path.equals("/service/tickets")) {
+                String query = exchange.getRequestURI().getQuery();
+                int page = queryInt(query, "page", 1);
+                int pageSize = queryInt(query, "pageSize", 25);
+                int first = ticketCount - (page - 1) * pageSize;
+                int last = Math.max(first - pageSize, 0);
+
+                StringBuilder sb = new StringBuilder("[");
+                for (int i = first; i > last; i--) {
+                    sb.append("{\"id\":").append(i).append(",\"summary\":\"Ticket ").append(i).append("\"}");
+                    if (i > last + 1) sb.append(',');
+                }
+                body = sb.append(']').toString();
+            } else if (path.endsWith("/notes")) {
+                body = "[{\"id\":1,\"text\":\"note\",\"dateCreated\":\"2024-01-01T00:00:00Z\",\"contact\":{\"name\":\"Jane\"}}]";
+            } else if (path.equals("/time/entries")) {
+                body = "[]";
+            } else {
+                String id = path.substring(path.lastIndexOf('/') + 1);
+                body = "{\"id\":" + id + ",\"summary\":\"Ticket " + id + "\",\"company\":{\"id\":19300,\"identifier\":\"bench\"}}";
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(bytes);
+                }
+                bytes = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        private static int queryInt(String query, String name, int fallback) {
+            if (query == null) {
+                return fallback;
+            }
+            for (String pair : query.split("&")) {
+                if (pair.startsWith(name + "=")) {
+                    return Integer.parseInt(pair.substring(name.length() + 1));
+                }
+            }
+            return fallback;
+        }
+    }
+}
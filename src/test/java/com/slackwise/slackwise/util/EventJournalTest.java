@@ -0,0 +1,210 @@
+package com.slackwise.slackwise.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventJournalTest {
+
+    // Records start at the beginning of a segment; each is [length][crc32c][sequence][payload]
+    private static final int HEADER_BYTES = 16;
+    // Long enough that the checkpoint is only persisted by close()
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 60_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysUnacknowledgedRecordsInOrderAfterReopen() throws Exception {
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(1L, journal.append(bytes("one")).get());
+            assertEquals(2L, journal.append(bytes("two")).get());
+            assertEquals(3L, journal.append(bytes("three")).get());
+        }
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(List.of("one", "two", "three"), payloads(journal.replay()));
+            assertEquals(4L, journal.append(bytes("four")).get());
+        }
+    }
+
+    @Test
+    void checkpointStopsAtFirstUnacknowledgedGap() throws Exception {
+        try (EventJournal journal = open(4096, 0)) {
+            for (int i = 1; i <= 5; i++) {
+                journal.append(bytes("event-" + i)).get();
+            }
+            journal.acknowledge(4);
+            journal.acknowledge(1);
+            journal.acknowledge(2);
+            assertEquals(2, journal.acknowledgedThrough());
+        }
+        assertEquals("2", Files.readString(directory.resolve("checkpoint")).trim());
+
+        try (EventJournal journal = open(4096, 0)) {
+            // 4 was acknowledged but sits above the gap at 3, so it comes back too (at-least-once)
+            assertEquals(List.of(3L, 4L, 5L), sequences(journal.replay()));
+            journal.acknowledge(3);
+            journal.acknowledge(4);
+            journal.acknowledge(5);
+            assertEquals(5, journal.acknowledgedThrough());
+        }
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertTrue(journal.replay().isEmpty());
+        }
+    }
+
+    @Test
+    void checksumMismatchTruncatesTailOnReopen() throws Exception {
+        try (EventJournal journal = open(4096, 0)) {
+            journal.append(bytes("first")).get();
+            journal.append(bytes("second")).get();
+            journal.append(bytes("third")).get();
+        }
+        // Flip one payload byte of the third record
+        int third = HEADER_BYTES + "first".length() + HEADER_BYTES + "second".length();
+        Path segment = onlySegment();
+        byte original = readByte(segment, third + HEADER_BYTES);
+        write(segment, third + HEADER_BYTES, new byte[] { (byte) (original ^ 0x5a) });
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(List.of("first", "second"), payloads(journal.replay()));
+            assertEquals(1L, journal.snapshot().get("truncatedTails"));
+            // The corrupt record's sequence is reused so sequences stay consecutive
+            assertEquals(3L, journal.append(bytes("third again")).get());
+        }
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(List.of("first", "second", "third again"), payloads(journal.replay()));
+        }
+    }
+
+    @Test
+    void tornTailWriteIsDiscardedOnReopen() throws Exception {
+        try (EventJournal journal = open(4096, 0)) {
+            journal.append(bytes("kept")).get();
+            journal.append(bytes("torn record")).get();
+        }
+        // Length reached disk but the checksum, sequence and payload did not
+        int torn = HEADER_BYTES + "kept".length();
+        write(onlySegment(), torn + 4, new byte[HEADER_BYTES - 4 + "torn record".length()]);
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(List.of("kept"), payloads(journal.replay()));
+            assertEquals(1L, journal.snapshot().get("truncatedTails"));
+            assertEquals(2L, journal.append(bytes("after")).get());
+        }
+    }
+
+    @Test
+    void garbageLengthPastSegmentEndIsDiscardedOnReopen() throws Exception {
+        try (EventJournal journal = open(4096, 0)) {
+            journal.append(bytes("kept")).get();
+        }
+        write(onlySegment(), HEADER_BYTES + "kept".length(), ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).array());
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(List.of("kept"), payloads(journal.replay()));
+            assertEquals(2L, journal.append(bytes("next")).get());
+        }
+    }
+
+    @Test
+    void compactionDeletesFullyAcknowledgedSegments() throws Exception {
+        // Two 1500-byte records fill a 4 KiB segment, so ten records span five segments
+        byte[] payload = new byte[1500];
+        try (EventJournal journal = open(4096, 0)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(payload).get();
+            }
+            assertEquals(5, segmentCount());
+            for (long sequence = 1; sequence <= 7; sequence++) {
+                journal.acknowledge(sequence);
+            }
+        }
+        // Segments holding 1-2, 3-4 and 5-6 are fully below the checkpoint at 7; 7-8 and 9-10 are not
+        assertEquals(2, segmentCount());
+
+        try (EventJournal journal = open(4096, 0)) {
+            assertEquals(List.of(8L, 9L, 10L), sequences(journal.replay()));
+        }
+    }
+
+    @Test
+    void compactionKeepsRetainedSegmentsAndNeverTheActiveOne() throws Exception {
+        byte[] payload = new byte[1500];
+        try (EventJournal journal = open(4096, 1)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(payload).get();
+            }
+            for (long sequence = 1; sequence <= 10; sequence++) {
+                journal.acknowledge(sequence);
+            }
+        }
+        // Active segment plus one retained acknowledged segment
+        assertEquals(2, segmentCount());
+
+        try (EventJournal journal = open(4096, 1)) {
+            assertTrue(journal.replay().isEmpty());
+            assertEquals(11L, journal.append(bytes("next")).get());
+        }
+    }
+
+    private EventJournal open(int segmentBytes, int retainedSegments) throws IOException {
+        return new EventJournal(directory, segmentBytes, CHECKPOINT_INTERVAL_MILLIS, retainedSegments);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> path.toString().endsWith(".seg")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static byte readByte(Path path, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, offset);
+            return buffer.get(0);
+        }
+    }
+
+    private static void write(Path path, int offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+            channel.force(true);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<EventJournal.Record> records) {
+        return records.stream().map(record -> new String(record.getPayload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private static List<Long> sequences(List<EventJournal.Record> records) {
+        return records.stream().map(EventJournal.Record::getSequence).toList();
+    }
+}
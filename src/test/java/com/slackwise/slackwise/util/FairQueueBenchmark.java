@@ -0,0 +1,129 @@
+package com.slackwise.slackwise.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A noisy tenant queues a large backlog, then a quiet tenant sends a few events. Reports the quiet tenant's queue delay
+ * when both share one FIFO queue and when they go through a {@link FairQueue}, where the quiet tenant only waits behind
+ * the noisy tenant's current turn.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.util.FairQueueBenchmark
+ * Optional args: [noisy events] [quiet events] [workers] [processing millis]
+ */
+public class FairQueueBenchmark {
+
+    private static final String NOISY = "noisy";
+    private static final String QUIET = "quiet";
+
+    private static class Event {
+        private final String tenantId;
+        private final long enqueuedAtNanos = System.nanoTime();
+
+        Event(String tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int noisy = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int quiet = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long processingMillis = args.length > 3 ? Long.parseLong(args[3]) : 2;
+
+        System.out.printf("%d noisy events, then %d quiet events; %d workers, %d ms per event%n",
+            noisy, quiet, workers, processingMillis);
+        System.out.printf("%-28s %18s %18s %14s%n", "queue", "quiet avg wait ms", "quiet max wait ms", "total ms");
+        print("FIFO", fifo(noisy, quiet, workers, processingMillis));
+        print("fair, equal weights", fair(noisy, quiet, workers, processingMillis, 0));
+        print("fair, noisy capped at half", fair(noisy, quiet, workers, processingMillis, Math.max(1, workers / 2)));
+    }
+
+    private static void print(String name, double[] result) {
+        System.out.printf("%-28s %18.1f %18.1f %14.0f%n", name, result[0], result[1], result[2]);
+    }
+
+    private static double[] fifo(int noisy, int quiet, int workers, long processingMillis) throws InterruptedException {
+        BlockingQueue<Event> queue = new ArrayBlockingQueue<>(noisy + quiet);
+        AtomicLong quietWaitMicros = new AtomicLong();
+        AtomicLong quietMaxMicros = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(noisy + quiet);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < workers; i++) {
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    while (true) {
+                        Event event = queue.take();
+                        record(event, quietWaitMicros, quietMaxMicros);
+                        Thread.sleep(processingMillis);
+                        finished.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int i = 0; i < noisy; i++) {
+            queue.put(new Event(NOISY));
+        }
+        for (int i = 0; i < quiet; i++) {
+            queue.put(new Event(QUIET));
+        }
+        finished.await();
+        return result(quiet, quietWaitMicros, quietMaxMicros, start);
+    }
+
+    private static double[] fair(int noisy, int quiet, int workers, long processingMillis, int noisyCap)
+            throws InterruptedException {
+        FairQueue<Event> queue = new FairQueue<>(noisy + quiet, 0);
+        AtomicLong quietWaitMicros = new AtomicLong();
+        AtomicLong quietMaxMicros = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(noisy + quiet);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < workers; i++) {
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    while (true) {
+                        FairQueue.Lease<Event> lease = queue.take();
+                        record(lease.getItem(), quietWaitMicros, quietMaxMicros);
+                        Thread.sleep(processingMillis);
+                        queue.done(lease.getTenantId());
+                        finished.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int i = 0; i < noisy; i++) {
+            queue.put(NOISY, 1, noisyCap, new Event(NOISY));
+        }
+        for (int i = 0; i < quiet; i++) {
+            queue.put(QUIET, 1, 0, new Event(QUIET));
+        }
+        finished.await();
+        return result(quiet, quietWaitMicros, quietMaxMicros, start);
+    }
+
+    private static void record(Event event, AtomicLong totalMicros, AtomicLong maxMicros) {
+        if (!QUIET.equals(event.tenantId)) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - event.enqueuedAtNanos);
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    private static double[] result(int quiet, AtomicLong totalMicros, AtomicLong maxMicros, long startNanos) {
+        return new double[] {
+            totalMicros.get() / 1_000.0 / quiet,
+            maxMicros.get() / 1_000.0,
+            (System.nanoTime() - startNanos) / 1e6
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.slackwise.slackwise.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class FairQueueTest {
+
+    @Test
+    void busyTenantsAreServedInProportionToWeight() throws Exception {
+        FairQueue<String> queue = new FairQueue<>(1_000, 0);
+        for (int i = 0; i < 400; i++) {
+            assertTrue(queue.offer("heavy", 3, 0, "heavy-" + i));
+            assertTrue(queue.offer("light", 1, 0, "light-" + i));
+        }
+
+        Map<String, Integer> served = takeAndFinish(queue, 200);
+
+        assertEquals(150, served.get("heavy"));
+        assertEquals(50, served.get("light"));
+    }
+
+    @Test
+    void floodingTenantDoesNotDelayQuietTenantByItsBacklog() throws Exception {
+        FairQueue<String> queue = new FairQueue<>(1_000, 0);
+        for (int i = 0; i < 500; i++) {
+            queue.offer("flood", 1, 0, "flood-" + i);
+        }
+        queue.offer("quiet", 1, 0, "quiet-0");
+
+        int position = 0;
+        while (true) {
+            FairQueue.Lease<String> lease = queue.take();
+            queue.done(lease.getTenantId());
+            position++;
+            if (lease.getTenantId().equals("quiet")) {
+                break;
+            }
+        }
+        assertTrue(position <= 2, "quiet tenant served at position " + position);
+    }
+
+    @Test
+    void itemsOfOneTenantKeepArrivalOrder() throws Exception {
+        FairQueue<String> queue = new FairQueue<>(100, 0);
+        for (int i = 0; i < 10; i++) {
+            queue.offer("a", 2, 0, "a-" + i);
+            queue.offer("b", 1, 0, "b-" + i);
+        }
+
+        int nextA = 0;
+        int nextB = 0;
+        for (int i = 0; i < 20; i++) {
+            FairQueue.Lease<String> lease = queue.take();
+            queue.done(lease.getTenantId());
+            if (lease.getTenantId().equals("a")) {
+                assertEquals("a-" + nextA++, lease.getItem());
+            } else {
+                assertEquals("b-" + nextB++, lease.getItem());
+            }
+        }
+    }
+
+    @Test
+    void tenantAtInFlightLimitIsPassedOverUntilDone() throws Exception {
+        FairQueue<String> queue = new FairQueue<>(100, 0);
+        for (int i = 0; i < 10; i++) {
+            queue.offer("capped", 1, 2, "capped-" + i);
+            queue.offer("open", 1, 0, "open-" + i);
+        }
+
+        Map<String, Integer> taken = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            taken.merge(queue.take().getTenantId(), 1, Integer::sum);
+        }
+        assertEquals(2, taken.get("capped"));
+        assertEquals(4, taken.get("open"));
+
+        queue.done("capped");
+        boolean cappedServed = false;
+        for (int i = 0; i < 2 && !cappedServed; i++) {
+            cappedServed = queue.take().getTenantId().equals("capped");
+        }
+        assertTrue(cappedServed, "capped tenant not served again after done()");
+    }
+
+    @Test
+    void takeWaitsWhileEveryQueuedTenantIsAtItsLimit() throws Exception {
+        FairQueue<String> queue = new FairQueue<>(100, 0);
+        queue.offer("capped", 1, 1, "first");
+        queue.offer("capped", 1, 1, "second");
+        assertEquals("first", queue.take().getItem());
+
+        CompletableFuture<String> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.take().getItem();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(next.isDone());
+
+        queue.done("capped");
+        assertEquals("second", next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void perTenantCapacityLeavesRoomForOthers() {
+        FairQueue<String> queue = new FairQueue<>(100, 5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer("flood", 1, 0, "flood-" + i));
+        }
+        assertFalse(queue.offer("flood", 1, 0, "flood-5"));
+        assertTrue(queue.offer("other", 1, 0, "other-0"));
+        assertEquals(6, queue.size());
+    }
+
+    @Test
+    void overallCapacityRefusesEveryTenant() throws Exception {
+        FairQueue<String> queue = new FairQueue<>(3, 0);
+        assertTrue(queue.offer("a", 1, 0, "a-0"));
+        assertTrue(queue.offer("b", 1, 0, "b-0"));
+        assertTrue(queue.offer("a", 1, 0, "a-1"));
+        assertFalse(queue.offer("c", 1, 0, "c-0"));
+        assertEquals(0, queue.remainingCapacity());
+
+        queue.take();
+        assertTrue(queue.offer("c", 1, 0, "c-0"));
+    }
+
+    private static Map<String, Integer> takeAndFinish(FairQueue<String> queue, int count) throws InterruptedException {
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            FairQueue.Lease<String> lease = queue.take();
+            served.merge(lease.getTenantId(), 1, Integer::sum);
+            queue.done(lease.getTenantId());
+        }
+        return served;
+    }
+}
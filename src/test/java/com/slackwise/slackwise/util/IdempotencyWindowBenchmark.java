@@ -0,0 +1,51 @@
+package com.slackwise.slackwise.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Claims a stream of delivery keys in which a fraction are redeliveries of recent keys, and reports claim throughput,
+ * how many lookups the cuckoo filter answered on its own, its false positive rate, and whether every redelivery was
+ * caught (misses must be zero while the window and capacity cover the redelivered keys).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.util.IdempotencyWindowBenchmark
+ * Optional args: [deliveries] [capacity] [redelivery percent]
+ */
+public class IdempotencyWindowBenchmark {
+
+    public static void main(String[] args) {
+        int deliveries = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int redeliveryPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        IdempotencyWindow window = new IdempotencyWindow(600_000, capacity);
+        String[] recent = new String[1_000];
+        long redelivered = 0;
+        long missed = 0;
+        long next = 0;
+        long now = System.currentTimeMillis();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < deliveries; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String key;
+            boolean redelivery = next > recent.length && random.nextInt(100) < redeliveryPercent;
+            if (redelivery) {
+                key = recent[random.nextInt(recent.length)];
+                redelivered++;
+            } else {
+                key = (400_000 + next % 5_000) + "|updated|2026-10-18T12:00:00." + next + "Z";
+                recent[(int) (next % recent.length)] = key;
+                next++;
+            }
+            boolean first = window.claim(key, now);
+            if (redelivery && first) {
+                missed++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d deliveries (%d%% redeliveries), capacity %d: %.0f claims/s, %d redeliveries, %d missed%n",
+            deliveries, redeliveryPercent, capacity, deliveries / seconds, redelivered, missed);
+        System.out.println("window: " + window.snapshot());
+    }
+}
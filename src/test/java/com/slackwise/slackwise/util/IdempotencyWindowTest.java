@@ -0,0 +1,119 @@
+package com.slackwise.slackwise.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class IdempotencyWindowTest {
+
+    @Test
+    void repeatWithinWindowIsDuplicate() {
+        IdempotencyWindow window = new IdempotencyWindow(1_000, 100);
+
+        assertTrue(window.claim("record-1", 0));
+        assertFalse(window.claim("record-1", 999));
+        assertTrue(window.claim("record-2", 999));
+    }
+
+    @Test
+    void keyIsForgottenOnceWindowPasses() {
+        IdempotencyWindow window = new IdempotencyWindow(1_000, 100);
+
+        assertTrue(window.claim("record-1", 0));
+        assertTrue(window.claim("record-1", 1_000));
+        assertEquals(1L, window.snapshot().get("expired"));
+    }
+
+    @Test
+    void oldestKeysAreEvictedOverCapacity() {
+        IdempotencyWindow window = new IdempotencyWindow(60_000, 3);
+
+        assertTrue(window.claim("a", 0));
+        assertTrue(window.claim("b", 1));
+        assertTrue(window.claim("c", 2));
+        assertTrue(window.claim("d", 3));
+        assertEquals(1L, window.snapshot().get("evictedOverCapacity"));
+        assertEquals(3, window.snapshot().get("remembered"));
+
+        // b, c and d are still remembered; a was evicted and goes through again, evicting b
+        assertFalse(window.claim("b", 4));
+        assertFalse(window.claim("d", 4));
+        assertTrue(window.claim("a", 5));
+        assertTrue(window.claim("b", 6));
+    }
+
+    @Test
+    void releasedKeyCanBeClaimedAgain() {
+        IdempotencyWindow window = new IdempotencyWindow(60_000, 100);
+
+        assertTrue(window.claim("record-1", 0));
+        window.release("record-1");
+        assertTrue(window.claim("record-1", 1));
+        assertFalse(window.claim("record-1", 2));
+    }
+
+    @Test
+    void filterFalsePositivesNeverDropNewKeys() {
+        int keys = 50_000;
+        IdempotencyWindow window = new IdempotencyWindow(60_000, keys);
+
+        for (int i = 0; i < keys; i++) {
+            assertTrue(window.claim("record-" + i, 0), "new key reported as duplicate: record-" + i);
+        }
+        for (int i = 0; i < keys; i++) {
+            assertFalse(window.claim("record-" + i, 1));
+        }
+        assertEquals((long) keys, window.snapshot().get("duplicates"));
+    }
+
+    @Test
+    void cuckooFilterHasNoFalseNegativesAndBoundedFalsePositives() {
+        int items = 10_000;
+        CuckooFilter filter = new CuckooFilter(items);
+        for (int i = 0; i < items; i++) {
+            assertTrue(filter.add(CuckooFilter.hash("present-" + i)));
+        }
+        for (int i = 0; i < items; i++) {
+            assertTrue(filter.mightContain(CuckooFilter.hash("present-" + i)));
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(CuckooFilter.hash("absent-" + i))) {
+                falsePositives++;
+            }
+        }
+        // About 2 x 4 / 2^16 (0.012%) in theory; allow a wide margin for hash variance
+        assertTrue(falsePositives < probes * 0.001, "false positive rate too high: " + falsePositives + "/" + probes);
+    }
+
+    @Test
+    void cuckooFilterRemoveForgetsItems() {
+        CuckooFilter filter = new CuckooFilter(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add(CuckooFilter.hash("item-" + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.remove(CuckooFilter.hash("item-" + i)));
+        }
+        assertEquals(0, filter.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(filter.mightContain(CuckooFilter.hash("item-" + i)));
+        }
+    }
+
+    @Test
+    void cuckooFilterReportsWhenFull() {
+        CuckooFilter filter = new CuckooFilter(100);
+        int added = 0;
+        while (added < filter.capacity() * 2 && filter.add(CuckooFilter.hash("item-" + added))) {
+            added++;
+        }
+        // Fills to most of its slots, then refuses instead of silently losing items
+        assertTrue(added >= 100, "filled only " + added + " items");
+        assertTrue(added < filter.capacity() * 2);
+    }
+}
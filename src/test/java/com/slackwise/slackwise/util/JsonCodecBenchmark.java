@@ -0,0 +1,120 @@
+package com.slackwise.slackwise.util;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slackwise.slackwise.model.Note;
+import com.slackwise.slackwise.model.Ticket;
+
+/**
+ * Compares the old per-call decoding (new ObjectMapper, body copied to a String) with the shared
+ * {@link JsonCodec} readers decoding straight from the byte stream, on ConnectWise-sized payloads.
+ * Reports throughput and bytes allocated per decode for the measuring thread.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.util.JsonCodecBenchmark
+ */
+public class JsonCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        byte[] ticket = ticketPayload().getBytes(StandardCharsets.UTF_8);
+        byte[] notes = notesPayload(50).getBytes(StandardCharsets.UTF_8);
+
+        System.out.printf("ticket payload %d bytes, note list payload %d bytes%n", ticket.length, notes.length);
+        System.out.printf("%-26s %14s %16s%n", "case", "ops/s", "bytes/op");
+
+        run("ticket: per-call mapper", () -> {
+            String body = new String(ticket, StandardCharsets.UTF_8);
+            return new ObjectMapper().readValue(body, new TypeReference<Ticket>() {});
+        });
+        run("ticket: shared reader", () -> JsonCodec.TICKET.readValue(new ByteArrayInputStream(ticket)));
+
+        run("notes: per-call mapper", () -> {
+            String body = new String(notes, StandardCharsets.UTF_8);
+            return new ObjectMapper().readValue(body, new TypeReference<List<Note>>() {});
+        });
+        run("notes: shared reader", () -> JsonCodec.NOTE_LIST.readValue(new ByteArrayInputStream(notes)));
+    }
+
+    private interface Decode {
+        Object decode() throws Exception;
+    }
+
+    private static void run(String name, Decode decode) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = decode.decode();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = decode.decode();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        double opsPerSecond = MEASURED_ITERATIONS / (elapsed / 1e9);
+        System.out.printf("%-26s %14.0f %16d%n", name, opsPerSecond, allocated / MEASURED_ITERATIONS);
+        if (sink == null) {
+            throw new IllegalStateException("decode returned null");
+        }
+    }
+
+    static String ticketPayload() {
+        return "{\"id\":104233,\"summary\":\"Outlook keeps prompting for password after MFA reset\","
+            + "\"recordType\":\"ServiceTicket\",\"board\":{\"id\":1,\"name\":\"Help Desk\",\"_info\":{\"board_href\":\"https://na.myconnectwise.net/v4_6_release/apis/3.0/service/boards/1\"}},"
+            + "\"status\":{\"id\":17,\"name\":\"In Progress\",\"Sort\":2},"
+            + "\"company\":{\"id\":19300,\"identifier\":\"AcmeCorp\",\"name\":\"Acme Corporation\"},"
+            + "\"site\":{\"id\":1201,\"name\":\"Main\"},\"siteName\":\"Main\",\"addressLine1\":\"100 Main Street\",\"city\":\"Springfield\",\"stateIdentifier\":\"IL\",\"zip\":\"62701\","
+            + "\"contact\":{\"id\":5512,\"name\":\"Jordan Smith\"},\"contactName\":\"Jordan Smith\",\"contactPhoneNumber\":\"5555550101\",\"contactEmailAddress\":\"jordan.smith@example.com\","
+            + "\"type\":{\"id\":3,\"name\":\"Email\"},\"subType\":{\"id\":9,\"name\":\"Authentication\"},"
+            + "\"team\":{\"id\":2,\"name\":\"Tier 1\"},\"owner\":{\"id\":161,\"identifier\":\"asmith\",\"name\":\"Alex Smith\"},"
+            + "\"priority\":{\"id\":8,\"name\":\"Priority 3 - Normal Response\",\"sort\":6,\"level\":\"Medium\"},"
+            + "\"serviceLocation\":{\"id\":1,\"name\":\"Remote\"},\"source\":{\"id\":2,\"name\":\"Email Connector\"},"
+            + "\"severity\":\"Medium\",\"impact\":\"Medium\",\"allowAllClientsPortalView\":false,\"customerUpdatedFlag\":true,"
+            + "\"automaticEmailContactFlag\":true,\"automaticEmailResourceFlag\":true,\"automaticEmailCcFlag\":false,"
+            + "\"closedFlag\":false,\"actualHours\":1.25,\"approved\":true,\"estimatedExpenseCost\":0.0,\"estimatedExpenseRevenue\":0.0,"
+            + "\"estimatedProductCost\":0.0,\"estimatedProductRevenue\":0.0,\"estimatedTimeCost\":0.0,\"estimatedTimeRevenue\":0.0,"
+            + "\"billingMethod\":\"ActualRates\",\"subBillingMethod\":\"ActualRates\",\"resources\":\"asmith\","
+            + "\"dateEntered\":\"2024-05-02T14:11:09Z\",\"enteredBy\":\"template1\",\"hasChildTicket\":false,\"hasMergedChildTicketFlag\":false,"
+            + "\"billTime\":\"Billable\",\"billExpenses\":\"Billable\",\"billProducts\":\"Billable\",\"location\":{\"id\":2,\"name\":\"Tampa Office\"},"
+            + "\"department\":{\"id\":10,\"identifier\":\"Services\",\"name\":\"Services\"},\"mobileGuid\":\"3f25a3a6-3f2c-4ea4-8d5b-8a1f0c2b3a11\","
+            + "\"sla\":{\"id\":1,\"name\":\"Standard SLA\"},\"slaStatus\":\"Respond by Fri 05/03 9:00 AM UTC-04\","
+            + "\"customFields\":[{\"id\":1,\"caption\":\"Asset Tag\",\"type\":\"Text\",\"entryMethod\":\"EntryField\",\"numberOfDecimals\":0,\"value\":\"LT-4411\"},"
+            + "{\"id\":2,\"caption\":\"After Hours\",\"type\":\"Checkbox\",\"entryMethod\":\"EntryField\",\"numberOfDecimals\":0,\"value\":false}],"
+            + "\"_info\":{\"lastUpdated\":\"2024-05-02T15:40:12Z\",\"updatedBy\":\"asmith\",\"dateEntered\":\"2024-05-02T14:11:09Z\","
+            + "\"activities_href\":\"https://na.myconnectwise.net/v4_6_release/apis/3.0/sales/activities?conditions=ticket/id=104233\","
+            + "\"timeentries_href\":\"https://na.myconnectwise.net/v4_6_release/apis/3.0/time/entries?conditions=(chargeToType='ServiceTicket' OR chargeToType='ProjectTicket') AND chargeToId=104233\","
+            + "\"notes_href\":\"https://na.myconnectwise.net/v4_6_release/apis/3.0/service/tickets/104233/notes\"}}";
+    }
+
+    private static String notesPayload(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            sb.append("{\"id\":").append(880000 + i).append(",\"ticketId\":104233,")
+                .append("\"text\":\"Called the user back and walked through re-registering the authenticator app. ")
+                .append("Cleared cached credentials in Credential Manager and restarted Outlook; prompt no longer appears. ")
+                .append("Will monitor for another day before closing.\",")
+                .append("\"detailDescriptionFlag\":true,\"internalAnalysisFlag\":false,\"resolutionFlag\":false,\"issueFlag\":false,")
+                .append(i % 2 == 0
+                    ? "\"member\":{\"id\":161,\"identifier\":\"asmith\",\"name\":\"Alex Smith\"},"
+                    : "\"contact\":{\"id\":5512,\"name\":\"Jordan Smith\"},")
+                .append("\"dateCreated\":\"2024-05-02T15:").append(String.format("%02d", i % 60)).append(":00Z\",")
+                .append("\"createdBy\":\"asmith\",\"internalFlag\":false,\"externalFlag\":true,")
+                .append("\"_info\":{\"lastUpdated\":\"2024-05-02T15:40:12Z\",\"updatedBy\":\"asmith\"}}");
+            if (i < count) sb.append(',');
+        }
+        return sb.append(']').toString();
+    }
+}
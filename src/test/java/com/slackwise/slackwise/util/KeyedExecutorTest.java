@@ -0,0 +1,131 @@
+package com.slackwise.slackwise.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class KeyedExecutorTest {
+
+    @Test
+    void tasksForOneKeyRunInSubmissionOrderOneAtATime() throws Exception {
+        int keys = 8;
+        int tasksPerKey = 200;
+        Map<Integer, List<Integer>> order = new ConcurrentHashMap<>();
+        Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        try (KeyedExecutor<Integer> executor = new KeyedExecutor<>()) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int task = 0; task < tasksPerKey; task++) {
+                for (int key = 0; key < keys; key++) {
+                    int k = key;
+                    int t = task;
+                    futures.add(executor.submit(k, () -> {
+                        if (running.computeIfAbsent(k, x -> new AtomicInteger()).incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        order.computeIfAbsent(k, x -> Collections.synchronizedList(new ArrayList<>())).add(t);
+                        if (ThreadLocalRandom.current().nextInt(20) == 0) {
+                            Thread.sleep(1);
+                        }
+                        running.get(k).decrementAndGet();
+                        return null;
+                    }));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, overlaps.get());
+        for (int key = 0; key < keys; key++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int task = 0; task < tasksPerKey; task++) {
+                expected.add(task);
+            }
+            assertEquals(expected, order.get(key), "order for key " + key);
+        }
+    }
+
+    @Test
+    void differentKeysRunConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        try (KeyedExecutor<String> executor = new KeyedExecutor<>()) {
+            // Each task waits for the other to start, which only works if the keys are not serialized together
+            CompletableFuture<Boolean> a = executor.submit("a", () -> {
+                bothStarted.countDown();
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            });
+            CompletableFuture<Boolean> b = executor.submit("b", () -> {
+                bothStarted.countDown();
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            });
+
+            assertTrue(a.get(10, TimeUnit.SECONDS));
+            assertTrue(b.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void failedTaskDoesNotStopItsLane() throws Exception {
+        try (KeyedExecutor<String> executor = new KeyedExecutor<>()) {
+            CompletableFuture<Object> failing = executor.submit("ticket", () -> {
+                throw new IllegalStateException("boom");
+            });
+            CompletableFuture<String> next = executor.submit("ticket", () -> "ran");
+
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> failing.get(5, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+            assertEquals("ran", next.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void reportsWaitingTasksPerKeyAndDropsIdleLanes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (KeyedExecutor<String> executor = new KeyedExecutor<>()) {
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<Object> head = executor.submit("busy", () -> {
+                started.countDown();
+                release.await();
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<CompletableFuture<Object>> waiting = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                waiting.add(executor.submit("busy", () -> null));
+            }
+            CompletableFuture<Object> other = executor.submit("other", () -> null);
+            other.get(5, TimeUnit.SECONDS);
+
+            assertEquals(3, executor.queueLength("busy"));
+            assertEquals(Map.of("busy", 3), executor.longestQueues(5));
+
+            release.countDown();
+            head.get(5, TimeUnit.SECONDS);
+            CompletableFuture.allOf(waiting.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            // The drainer drops the lane right after its last task completes the future
+            for (int i = 0; i < 100 && !Integer.valueOf(0).equals(executor.snapshot().get("activeKeys")); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, executor.snapshot().get("activeKeys"));
+            assertEquals(0, executor.queueLength("busy"));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.slackwise.slackwise.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules many timers on one {@link TimingWheel} with deadlines spread over a few seconds, cancels some of them
+ * (as an owner appearing on a ticket would), and reports how late the rest fired and how many fired early or after
+ * being cancelled (both must be zero). Live threads are printed to compare with one sleeping thread per timer.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.util.TimingWheelBenchmark
+ * Optional args: [timers] [horizon seconds]
+ */
+public class TimingWheelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int timers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long horizonMillis = (args.length > 1 ? Long.parseLong(args[1]) : 5) * 1_000;
+        long tickMillis = 10;
+
+        ConcurrentLinkedQueue<Long> lateness = new ConcurrentLinkedQueue<>();
+        AtomicLong early = new AtomicLong();
+        AtomicLong firedAfterCancel = new AtomicLong();
+        // Few buckets per level so long deadlines exercise several levels and cascades
+        try (TimingWheel<Long> wheel = new TimingWheel<>("bench-wheel", tickMillis, 8, timeout -> {
+            long late = System.currentTimeMillis() - timeout.getDeadlineMillis();
+            if (late < 0) {
+                early.incrementAndGet();
+            }
+            if (timeout.isCancelled()) {
+                firedAfterCancel.incrementAndGet();
+            }
+            lateness.add(late);
+        })) {
+            long start = System.nanoTime();
+            List<TimingWheel.Timeout<Long>> scheduled = new ArrayList<>(timers);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < timers; i++) {
+                long deadline = now + ThreadLocalRandom.current().nextLong(horizonMillis);
+                scheduled.add(wheel.schedule(deadline, deadline));
+            }
+            double scheduleMicros = (System.nanoTime() - start) / 1_000.0 / timers;
+
+            int cancelled = 0;
+            for (int i = 0; i < timers; i += 4) {
+                if (wheel.cancel(scheduled.get(i))) {
+                    cancelled++;
+                }
+            }
+            System.out.printf("%d timers over %d ms, tick %d ms: %.2f us per schedule, %d cancelled, %d live threads%n",
+                timers, horizonMillis, tickMillis, scheduleMicros, cancelled, Thread.activeCount());
+            System.out.println("wheel: " + wheel.snapshot());
+
+            while (wheel.pending() > 0) {
+                Thread.sleep(50);
+            }
+            Thread.sleep(100);
+        }
+
+        long[] late = lateness.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("fired %d: lateness p50 %d ms, p99 %d ms, max %d ms; early %d, fired after cancel %d%n",
+            late.length, late[late.length / 2], late[(int) (late.length * 0.99)], late[late.length - 1],
+            early.get(), firedAfterCancel.get());
+    }
+}
@@ -0,0 +1,114 @@
+package com.slackwise.slackwise.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    // 5 ms ticks and 8 buckets: level 0 spans 40 ms, level 1 320 ms, level 2 2.56 s
+    private static final long TICK_MILLIS = 5;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void timersNeverFireBeforeTheirDeadline() throws Exception {
+        int timers = 200;
+        CountDownLatch fired = new CountDownLatch(timers);
+        Map<Integer, Long> firedAt = new ConcurrentHashMap<>();
+        Map<Integer, Long> deadlines = new ConcurrentHashMap<>();
+
+        try (TimingWheel<Integer> wheel = new TimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, timeout -> {
+            firedAt.put(timeout.getTask(), System.currentTimeMillis());
+            fired.countDown();
+        })) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < timers; i++) {
+                // Spread over every level, including deadlines that cascade twice
+                long deadline = now + ThreadLocalRandom.current().nextLong(0, 700);
+                deadlines.put(i, deadline);
+                wheel.schedule(i, deadline);
+            }
+            assertTrue(fired.await(5, TimeUnit.SECONDS), "only " + (timers - fired.getCount()) + " timers fired");
+            assertEquals(0, wheel.pending());
+        }
+
+        for (int i = 0; i < timers; i++) {
+            long early = deadlines.get(i) - firedAt.get(i);
+            assertTrue(early <= 0, "timer " + i + " fired " + early + " ms early");
+        }
+    }
+
+    @Test
+    void farDeadlineCascadesDownThroughLevels() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+
+        try (TimingWheel<String> wheel = new TimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, timeout -> {
+            firedAt[0] = System.currentTimeMillis();
+            fired.countDown();
+        })) {
+            long deadline = System.currentTimeMillis() + 500;
+            wheel.schedule("far", deadline);
+
+            // 100 ticks out is past level 1's 64-tick horizon, so the timer starts on level 2
+            Map<String, Object> snapshot = wheel.snapshot();
+            assertEquals(3, snapshot.get("levels"));
+            assertEquals(List.of(0, 0, 1), snapshot.get("pendingPerLevel"));
+
+            Thread.sleep(400);
+            // Still pending, now on a finer level
+            List<?> perLevel = (List<?>) wheel.snapshot().get("pendingPerLevel");
+            assertEquals(0, perLevel.get(2));
+            assertEquals(1, wheel.pending());
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertTrue(firedAt[0] >= deadline, "fired " + (deadline - firedAt[0]) + " ms early");
+        }
+    }
+
+    @Test
+    void cancelledTimerNeverFires() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        try (TimingWheel<String> wheel = new TimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, timeout -> fired.countDown())) {
+            TimingWheel.Timeout<String> timeout = wheel.schedule("cancelled", System.currentTimeMillis() + 100);
+            assertTrue(wheel.cancel(timeout));
+            assertTrue(timeout.isCancelled());
+            assertFalse(wheel.cancel(timeout));
+            assertEquals(0, wheel.pending());
+
+            assertFalse(fired.await(300, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void cancelAfterFiringReturnsFalse() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        try (TimingWheel<String> wheel = new TimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, timeout -> fired.countDown())) {
+            TimingWheel.Timeout<String> timeout = wheel.schedule("fired", System.currentTimeMillis() + 20);
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertFalse(wheel.cancel(timeout));
+            assertFalse(timeout.isCancelled());
+        }
+    }
+
+    @Test
+    void overdueDeadlineFiresOnNextTick() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        try (TimingWheel<String> wheel = new TimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, timeout -> fired.countDown())) {
+            wheel.schedule("overdue", System.currentTimeMillis() - 60_000);
+            assertTrue(fired.await(1, TimeUnit.SECONDS));
+        }
+    }
+}
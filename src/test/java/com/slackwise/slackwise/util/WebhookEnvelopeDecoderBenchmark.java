@@ -0,0 +1,102 @@
+package com.slackwise.slackwise.util;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.slackwise.slackwise.model.WebhookEnvelope;
+
+/**
+ * Compares decoding a ConnectWise callback body the old way (bind the body to a Map, then parse the Entity string
+ * again into another Map to read company.id) with {@link WebhookEnvelopeDecoder}, which streams the body once and
+ * leaves Entity unparsed. Bodies are real-sized ticket callbacks with Entity sent as a JSON string (as ConnectWise
+ * does) and as an inline object. Reports throughput and bytes allocated per decode for the measuring thread.
+ *
+ * JMH is not on this project's classpath, so this follows {@link JsonCodecBenchmark}: warm-up, then a timed loop.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.slackwise.slackwise.util.WebhookEnvelopeDecoderBenchmark
+ */
+public class WebhookEnvelopeDecoderBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        String entity = JsonCodecBenchmark.ticketPayload();
+        byte[] stringEntity = callback(entity);
+        byte[] objectEntity = callback(JsonCodec.MAP.readValue(entity));
+
+        System.out.printf("callback body %d bytes (Entity as string), %d bytes (Entity as object)%n",
+            stringEntity.length, objectEntity.length);
+        System.out.printf("%-34s %14s %16s%n", "case", "ops/s", "bytes/op");
+
+        run("string entity: map + re-parse", () -> oldDecode(stringEntity));
+        run("string entity: streaming decoder", () -> WebhookEnvelopeDecoder.decode(stringEntity).getEntityCompanyId());
+        run("object entity: map + re-parse", () -> oldDecode(objectEntity));
+        run("object entity: streaming decoder", () -> WebhookEnvelopeDecoder.decode(objectEntity).getEntityCompanyId());
+        // What a consumer pays if it does need the whole entity
+        run("string entity: decoder + getEntity", () -> {
+            WebhookEnvelope envelope = WebhookEnvelopeDecoder.decode(stringEntity);
+            return envelope.getEntity().get("summary");
+        });
+    }
+
+    // The previous path: request body bound to a Map, Entity stringified and parsed again
+    @SuppressWarnings("unchecked")
+    private static Object oldDecode(byte[] body) throws Exception {
+        Map<String, Object> payload = JsonCodec.MAP.readValue(body);
+        Object rawEntity = payload.get("Entity");
+        Map<String, Object> entity = rawEntity instanceof Map
+            ? (Map<String, Object>) rawEntity
+            : JsonCodec.MAP.readValue(String.valueOf(rawEntity));
+        Map<String, Object> company = (Map<String, Object>) entity.get("company");
+        return company.get("id");
+    }
+
+    private static byte[] callback(Object entity) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("MessageId", "6b1f3a0e-2f4c-4a55-9a8e-1b7e4f0d2c9a");
+        body.put("FromUrl", "https://na.myconnectwise.net");
+        body.put("CompanyId", "acmemsp");
+        body.put("MemberId", "asmith");
+        body.put("Action", "updated");
+        body.put("Type", "Ticket");
+        body.put("ID", 104233);
+        body.put("ProductInstanceId", null);
+        body.put("PartnerId", null);
+        body.put("Entity", entity);
+        body.put("Metadata", Map.of("key_url", "https://na.myconnectwise.net/v4_6_release/apis/3.0/service/tickets/104233"));
+        body.put("CallbackObjectRecId", 104233);
+        return JsonCodec.writeBytes(body);
+    }
+
+    private interface Decode {
+        Object decode() throws Exception;
+    }
+
+    private static void run(String name, Decode decode) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = decode.decode();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = decode.decode();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        double opsPerSecond = MEASURED_ITERATIONS / (elapsed / 1e9);
+        System.out.printf("%-34s %14.0f %16d%n", name, opsPerSecond, allocated / MEASURED_ITERATIONS);
+        if (sink == null) {
+            throw new IllegalStateException("decode returned null");
+        }
+    }
+}